@@ -3,7 +3,10 @@ package com.quant;
 import com.quant.chart.CandlestickChartViewer;
 import com.quant.indicator.TechnicalIndicators;
 import com.quant.loader.ExcelDataLoader;
+import com.quant.model.BacktestResult;
+import com.quant.model.SeriesOverlay;
 import com.quant.model.StockData;
+import com.quant.model.StockSeries;
 import com.quant.statistics.PerformanceStatistics;
 import com.quant.strategy.*;
 import org.slf4j.Logger;
@@ -52,16 +55,19 @@ public class Main {
         
         // ========== 1. 加载数据 ==========
         ExcelDataLoader loader = new ExcelDataLoader();
-        List<StockData> dataList;
+        StockSeries series;
         
         try {
-            dataList = loader.loadFromExcel(excelPath);
+            series = loader.loadSeries(excelPath);
         } catch (Exception e) {
             // 如果文件不存在，使用模拟数据演示
             System.out.println("\n  [提示] 未找到Excel文件，使用模拟数据进行演示...\n");
-            dataList = generateSampleData();
+            series = StockSeries.fromList(generateSampleData());
         }
         
+        // 列式序列的 StockData 视图（兼容按行访问的旧代码）
+        List<StockData> dataList = series.asList();
+        
         System.out.println("\n【步骤2】计算技术指标...");
         
         // ========== 2. 计算指标 ==========
@@ -116,14 +122,11 @@ public class Main {
             System.out.println("策略: " + strategy.getName());
             System.out.println("参数: " + strategy.getParameters());
             
-            // 复制数据，避免策略之间互相影响
-            List<StockData> dataCopy = copyDataList(dataList);
-            
-            // 执行策略
-            strategy.execute(dataCopy);
+            // 执行策略（结果写入独立的 BacktestResult，行情数据共享，策略之间互不影响）
+            BacktestResult result = strategy.run(series);
             
             // 输出统计
-            PerformanceStatistics stats = new PerformanceStatistics(dataCopy);
+            PerformanceStatistics stats = new PerformanceStatistics(result);
             System.out.println(String.format("  收益率: %.2f%% | 夏普比率: %.2f | 最大回撤: %.2f%% | 胜率: %.2f%%",
                     stats.getTotalReturn(),
                     stats.getSharpeRatio(),
@@ -145,7 +148,7 @@ public class Main {
         System.out.println("  • 适用场景：长期趋势投资，可避开大幅下跌（如2022年）");
         System.out.println("  • 注意事项：震荡市会有磨损，但长期风险收益比高");
         
-        List<StockData> trendData = copyDataList(dataList);
+        List<StockData> trendData = SeriesOverlay.fork(dataList).asList();
         TrendFollowingStrategy trendStrategy = new TrendFollowingStrategy(50, 200, 0.0005);
         trendStrategy.execute(trendData);
         PerformanceStatistics trendStats = new PerformanceStatistics(trendData);
@@ -161,7 +164,7 @@ public class Main {
         System.out.println("  • 低波动时期：提高仓位，充分参与上涨");
         System.out.println("  • 效果：平滑收益曲线，提高夏普比率");
         
-        List<StockData> volData = copyDataList(dataList);
+        List<StockData> volData = SeriesOverlay.fork(dataList).asList();
         VolatilityTargetStrategy volStrategy = new VolatilityTargetStrategy(20, 0.15, 1.0, 0.1, 0.0005, 0.1);
         volStrategy.execute(volData);
         PerformanceStatistics volStats = new PerformanceStatistics(volData);
@@ -178,7 +181,7 @@ public class Main {
         System.out.println("  • 收益介于各策略之间，但风险更低");
         System.out.println("  • 简单有效，无需频繁调整");
         
-        List<StockData> combinedData = copyDataList(dataList);
+        List<StockData> combinedData = SeriesOverlay.fork(dataList).asList();
         CombinedStrategy combinedStrategy = CombinedStrategy.createDefaultCombination();
         combinedStrategy.execute(combinedData);
         PerformanceStatistics combinedStats = new PerformanceStatistics(combinedData);
@@ -259,7 +262,7 @@ public class Main {
         System.out.println("=".repeat(120));
         
         // 先计算买入持有策略的完整回测数据
-        List<StockData> buyHoldData = copyDataList(dataList);
+        List<StockData> buyHoldData = SeriesOverlay.fork(dataList).asList();
         BuyAndHoldStrategy buyHoldStrategy = new BuyAndHoldStrategy();
         buyHoldStrategy.execute(buyHoldData);
         PerformanceStatistics buyHoldStats = new PerformanceStatistics(buyHoldData);
@@ -412,39 +415,6 @@ public class Main {
         System.out.println("\n程序执行完成！");
     }
     
-    /**
-     * 复制数据列表
-     */
-    private static List<StockData> copyDataList(List<StockData> original) {
-        List<StockData> copy = new ArrayList<>();
-        for (StockData data : original) {
-            StockData newData = new StockData();
-            // 复制原始数据字段
-            newData.setId(data.getId());
-            newData.setSymbol(data.getSymbol());
-            newData.setSymbolId(data.getSymbolId());
-            newData.setKlineType(data.getKlineType());
-            newData.setTime(data.getTime());
-            newData.setMarketCc(data.getMarketCc());
-            newData.setTradeDate(data.getTradeDate());
-            newData.setOpen(data.getOpen());
-            newData.setHigh(data.getHigh());
-            newData.setLow(data.getLow());
-            newData.setClose(data.getClose());
-            newData.setVwap(data.getVwap());
-            newData.setVolume(data.getVolume());
-            newData.setAmount(data.getAmount());
-            newData.setCount(data.getCount());
-            newData.setSessionId(data.getSessionId());
-            // 复制指标
-            for (java.util.Map.Entry<String, Double> entry : data.getAllIndicators().entrySet()) {
-                newData.setIndicator(entry.getKey(), entry.getValue());
-            }
-            copy.add(newData);
-        }
-        return copy;
-    }
-    
     /**
      * 生成模拟数据（当Excel文件不存在时使用）
      */
@@ -0,0 +1,133 @@
+package com.quant.indicator;
+
+import com.quant.model.StockSeries;
+import org.ta4j.core.BarSeries;
+import org.ta4j.core.BaseBarSeriesBuilder;
+import org.ta4j.core.num.DecimalNum;
+import org.ta4j.core.num.DoubleNum;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * ta4j BarSeries 缓存
+ * 每个行情序列（按对象身份）、每种数值精度只转换一次 BarSeries，
+ * 所有 TechnicalIndicators 实例（ta4j 引擎）共享同一个 BarSeries，不再每次构造都逐根创建 Bar
+ * 
+ * 失效：
+ *   - 序列只追加了新K线（{@link StockSeries#getRewriteVersion()} 未变）时，只把新增的K线追加到已有 BarSeries
+ *   - 已有K线被修改或重排时重新构建
+ * 
+ * 序列按弱引用保存，序列不再使用后对应的 BarSeries 随之回收
+ * 线程安全；返回的 BarSeries 只读，不能在其他线程读取时向序列追加数据
+ */
+public class BarSeriesCache {
+    
+    private final Map<StockSeries, Entry[]> entries = new WeakHashMap<>();
+    
+    private long builds;
+    private long extensions;
+    private long hits;
+    
+    /**
+     * 获取序列对应的 BarSeries（首次调用时构建，之后只追加新增的K线）
+     * 
+     * @param series 行情序列
+     * @param precision 数值精度
+     * @return BarSeries（只读）
+     */
+    public synchronized BarSeries get(StockSeries series, TechnicalIndicators.Precision precision) {
+        Entry[] byPrecision = entries.computeIfAbsent(series,
+                s -> new Entry[TechnicalIndicators.Precision.values().length]);
+        Entry entry = byPrecision[precision.ordinal()];
+        
+        if (entry != null && entry.version == series.getVersion()) {
+            hits++;
+            return entry.bars;
+        }
+        if (entry != null && entry.rewriteVersion == series.getRewriteVersion()
+                && entry.bars.getBarCount() <= series.size()) {
+            addBars(entry.bars, series, entry.bars.getBarCount());
+            entry.version = series.getVersion();
+            extensions++;
+            return entry.bars;
+        }
+        
+        BarSeries bars = new BaseBarSeriesBuilder()
+                .withName(series.size() > 0 && series.getSymbol(0) != null ? series.getSymbol(0) : "UNKNOWN")
+                .withNumTypeOf(precision == TechnicalIndicators.Precision.DOUBLE ? DoubleNum.class : DecimalNum.class)
+                .build();
+        addBars(bars, series, 0);
+        byPrecision[precision.ordinal()] = new Entry(bars, series.getVersion(), series.getRewriteVersion());
+        builds++;
+        return bars;
+    }
+    
+    private static void addBars(BarSeries bars, StockSeries series, int fromIndex) {
+        for (int i = fromIndex; i < series.size(); i++) {
+            LocalDate date = series.getTradeDate(i);
+            ZonedDateTime dateTime = date != null
+                    ? date.atStartOfDay(ZoneId.systemDefault())
+                    : ZonedDateTime.now();
+            
+            bars.addBar(
+                    dateTime,
+                    series.getOpen(i),
+                    series.getHigh(i),
+                    series.getLow(i),
+                    series.getClose(i),
+                    series.getVolume(i)
+            );
+        }
+    }
+    
+    /**
+     * 清空缓存
+     */
+    public synchronized void clear() {
+        entries.clear();
+        builds = 0;
+        extensions = 0;
+        hits = 0;
+    }
+    
+    /**
+     * 完整构建 BarSeries 的次数
+     */
+    public synchronized long getBuilds() {
+        return builds;
+    }
+    
+    /**
+     * 只追加新K线的次数
+     */
+    public synchronized long getExtensions() {
+        return extensions;
+    }
+    
+    public synchronized long getHits() {
+        return hits;
+    }
+    
+    @Override
+    public synchronized String toString() {
+        return String.format("BarSeriesCache{series=%d, builds=%d, extensions=%d, hits=%d}", entries.size(),
+                builds, extensions, hits);
+    }
+    
+    private static final class Entry {
+        
+        private final BarSeries bars;
+        private long version;
+        private final long rewriteVersion;
+        
+        Entry(BarSeries bars, long version, long rewriteVersion) {
+            this.bars = bars;
+            this.version = version;
+            this.rewriteVersion = rewriteVersion;
+        }
+    }
+}
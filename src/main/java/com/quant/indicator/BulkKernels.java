@@ -0,0 +1,59 @@
+package com.quant.indicator;
+
+/**
+ * 整列批量内核（收益率、SMA、真实波幅、交叉检测、复利净值）
+ * 在大量标的上批量计算时，元素之间互不依赖的部分可以使用 CPU 的向量单元
+ * 
+ * 两种实现：
+ *   - {@link ScalarBulkKernels}：标量实现 (Java 11)，任何 JVM 都可用
+ *   - VectorBulkKernels：SIMD 实现 (jdk.incubator.vector)，源码在 src/main/java21，
+ *     只在 simd 构建配置下编译（JDK 21 上自动激活，或 mvn -Psimd），运行时需要 --add-modules jdk.incubator.vector
+ * {@link #getDefault()} 在 SIMD 实现可用时返回它，否则回退到标量实现；
+ * 也可以用 -Dquant.simd=false 强制使用标量实现
+ * 
+ * 两种实现的结果逐位相同：元素运算的顺序相同，窗口求和使用精确的十进制定点整数，
+ * 无法精确表示的输入两者都回退到同一条标量路径；{@link BulkKernelsVerifier} 逐位比较两者的输出
+ */
+public interface BulkKernels {
+    
+    /**
+     * 当前 JVM 上可用的最快实现
+     */
+    static BulkKernels getDefault() {
+        return BulkKernelsLoader.INSTANCE;
+    }
+    
+    /**
+     * 实现名称（日志与报告使用）
+     */
+    String getName();
+    
+    /**
+     * 日收益率：out[i] = (close[i] - close[i - 1]) / close[i - 1]，第一根为 0
+     */
+    void returns(double[] close, int n, double[] out);
+    
+    /**
+     * 简单移动平均（前 period - 1 根为 NaN），结果与 {@link IndicatorKernels#sma} 逐位相同
+     */
+    void sma(double[] in, int n, int period, double[] out);
+    
+    /**
+     * 真实波幅，结果与 {@link IndicatorKernels#trueRange} 逐位相同
+     */
+    void trueRange(double[] high, double[] low, double[] close, int n, double[] out);
+    
+    /**
+     * 交叉检测：fast 上穿 slow（前一根 fast <= slow，当前 fast > slow）记 1，
+     * 下穿（前一根 fast >= slow，当前 fast < slow）记 -1，其他（包括 NaN）记 0；第一根为 0
+     * 
+     * @return 交叉次数
+     */
+    int crossovers(double[] fast, double[] slow, int n, int[] out);
+    
+    /**
+     * 复利净值：equity[i] = initial × (1 + r[1]) × ... × (1 + r[i])，第一根为 initial
+     * 与回测中逐根累乘的顺序相同
+     */
+    void compound(double[] returns, int n, double initial, double[] equity);
+}
@@ -0,0 +1,39 @@
+package com.quant.indicator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 选择 {@link BulkKernels} 的实现：SIMD 实现已编译、jdk.incubator.vector 模块已加载且未被禁用时使用它
+ */
+final class BulkKernelsLoader {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BulkKernelsLoader.class);
+    
+    private static final String VECTOR_IMPLEMENTATION = "com.quant.indicator.VectorBulkKernels";
+    
+    static final BulkKernels INSTANCE = load();
+    
+    private BulkKernelsLoader() {
+    }
+    
+    private static BulkKernels load() {
+        if (!Boolean.parseBoolean(System.getProperty("quant.simd", "true"))) {
+            return new ScalarBulkKernels();
+        }
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            logger.debug("未加载 jdk.incubator.vector 模块，使用标量批量内核");
+            return new ScalarBulkKernels();
+        }
+        try {
+            BulkKernels kernels = (BulkKernels) Class.forName(VECTOR_IMPLEMENTATION)
+                    .getDeclaredConstructor().newInstance();
+            logger.debug("使用 SIMD 批量内核: {}", kernels.getName());
+            return kernels;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // 未使用 simd 构建配置编译，或当前 JVM 版本低于编译目标
+            logger.debug("SIMD 批量内核不可用，使用标量实现: {}", e.toString());
+            return new ScalarBulkKernels();
+        }
+    }
+}
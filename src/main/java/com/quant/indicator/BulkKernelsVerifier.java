@@ -0,0 +1,257 @@
+package com.quant.indicator;
+
+import com.quant.loader.ExcelDataLoader;
+import com.quant.model.StockSeries;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 批量内核一致性校验
+ * 以标量实现 ({@link ScalarBulkKernels}) 为参照，逐位比较当前 JVM 上的默认实现
+ * （SIMD 可用时为 VectorBulkKernels）在真实行情和边界输入上的输出，
+ * 用来证明 SIMD 路径与标量路径的结果逐位相同
+ * 
+ * 边界输入覆盖：不足一个向量宽度的尾部、NaN、无法精确定点表示的值（回退路径）、均线相等时的交叉判断
+ * 
+ * simd 构建配置在 verify 阶段自动运行本校验（带 --add-modules jdk.incubator.vector 和 --require-simd），
+ * 结果不一致或 SIMD 实现未加载时构建失败
+ * 
+ * 命令行：
+ *   java --add-modules jdk.incubator.vector -cp ... com.quant.indicator.BulkKernelsVerifier [--require-simd] [Excel 文件路径]
+ */
+public class BulkKernelsVerifier {
+    
+    // SMA 与交叉检测使用的周期
+    private static final int[] PERIODS = {1, 2, 3, 5, 7, 10, 20, 50, 200};
+    
+    private final BulkKernels reference;
+    private final BulkKernels candidate;
+    
+    private final List<String> mismatches = new ArrayList<>();
+    private int checks;
+    
+    /**
+     * 构造函数（标量实现对比默认实现）
+     */
+    public BulkKernelsVerifier() {
+        this(new ScalarBulkKernels(), BulkKernels.getDefault());
+    }
+    
+    /**
+     * 构造函数
+     * 
+     * @param reference 参照实现
+     * @param candidate 被校验的实现
+     */
+    public BulkKernelsVerifier(BulkKernels reference, BulkKernels candidate) {
+        this.reference = reference;
+        this.candidate = candidate;
+    }
+    
+    /**
+     * 在序列的行情上校验全部内核
+     * 
+     * @param label 数据名称（报告使用）
+     * @param series 股票序列
+     * @return 当前对象（链式调用）
+     */
+    public BulkKernelsVerifier verify(String label, StockSeries series) {
+        int n = series.size();
+        double[] high = new double[n];
+        double[] low = new double[n];
+        double[] close = new double[n];
+        for (int i = 0; i < n; i++) {
+            high[i] = series.getHigh(i);
+            low[i] = series.getLow(i);
+            close[i] = series.getClose(i);
+        }
+        return verify(label, high, low, close, n);
+    }
+    
+    /**
+     * 在给定的行情列上校验全部内核
+     * 
+     * @param label 数据名称（报告使用）
+     * @param high 最高价
+     * @param low 最低价
+     * @param close 收盘价
+     * @param n 数据长度
+     * @return 当前对象（链式调用）
+     */
+    public BulkKernelsVerifier verify(String label, double[] high, double[] low, double[] close, int n) {
+        double[] expected = new double[n];
+        double[] actual = new double[n];
+        
+        reference.returns(close, n, expected);
+        candidate.returns(close, n, actual);
+        compare(label + " returns", expected, actual, n);
+        
+        double[] expectedEquity = new double[n];
+        double[] actualEquity = new double[n];
+        reference.compound(expected, n, 100000.0, expectedEquity);
+        candidate.compound(actual, n, 100000.0, actualEquity);
+        compare(label + " compound", expectedEquity, actualEquity, n);
+        
+        reference.trueRange(high, low, close, n, expected);
+        candidate.trueRange(high, low, close, n, actual);
+        compare(label + " trueRange", expected, actual, n);
+        
+        double[][] averages = new double[PERIODS.length][n];
+        for (int k = 0; k < PERIODS.length; k++) {
+            reference.sma(close, n, PERIODS[k], averages[k]);
+            candidate.sma(close, n, PERIODS[k], actual);
+            compare(label + " sma" + PERIODS[k], averages[k], actual, n);
+        }
+        
+        int[] expectedCrosses = new int[n];
+        int[] actualCrosses = new int[n];
+        for (int k = 0; k + 1 < PERIODS.length; k++) {
+            String name = label + " crossovers(sma" + PERIODS[k] + ", sma" + PERIODS[k + 1] + ")";
+            int expectedCount = reference.crossovers(averages[k], averages[k + 1], n, expectedCrosses);
+            int actualCount = candidate.crossovers(averages[k], averages[k + 1], n, actualCrosses);
+            compare(name, expectedCrosses, actualCrosses, n);
+            if (expectedCount != actualCount) {
+                mismatches.add(String.format("%s: 交叉次数 %d != %d", name, expectedCount, actualCount));
+            }
+        }
+        int expectedCount = reference.crossovers(close, close, n, expectedCrosses);
+        int actualCount = candidate.crossovers(close, close, n, actualCrosses);
+        compare(label + " crossovers(close, close)", expectedCrosses, actualCrosses, n);
+        if (expectedCount != actualCount) {
+            mismatches.add(String.format("%s crossovers(close, close): 交叉次数 %d != %d", label,
+                    expectedCount, actualCount));
+        }
+        return this;
+    }
+    
+    /**
+     * 在合成的边界输入上校验全部内核（长度 0 到几个向量宽度、NaN、无法精确定点表示的值）
+     * 
+     * @return 当前对象（链式调用）
+     */
+    public BulkKernelsVerifier verifyEdgeCases() {
+        Random random = new Random(20240101L);
+        for (int n = 0; n <= 40; n++) {
+            double[][] exact = randomBars(random, n, true);
+            verify("exact n=" + n, exact[0], exact[1], exact[2], n);
+            
+            double[][] inexact = randomBars(random, n, false);
+            verify("inexact n=" + n, inexact[0], inexact[1], inexact[2], n);
+            
+            if (n > 2) {
+                double[][] withNaN = randomBars(random, n, true);
+                int hole = random.nextInt(n);
+                withNaN[0][hole] = Double.NaN;
+                withNaN[1][hole] = Double.NaN;
+                withNaN[2][hole] = Double.NaN;
+                verify("NaN@" + hole + " n=" + n, withNaN[0], withNaN[1], withNaN[2], n);
+            }
+        }
+        return this;
+    }
+    
+    /**
+     * 随机行情：exact 为 true 时价格保留两位小数（精确定点路径），否则为任意 double（回退路径）
+     */
+    private static double[][] randomBars(Random random, int n, boolean exact) {
+        double[] high = new double[n];
+        double[] low = new double[n];
+        double[] close = new double[n];
+        double price = 100;
+        for (int i = 0; i < n; i++) {
+            price = Math.max(1, price * (1 + (random.nextDouble() - 0.5) * 0.04));
+            double c = exact ? Math.round(price * 100) / 100.0 : price * Math.PI / 3;
+            // 偶尔重复前一根收盘价，覆盖均线相等时的交叉判断
+            if (i > 0 && random.nextInt(8) == 0) {
+                c = close[i - 1];
+            }
+            close[i] = c;
+            high[i] = exact ? c + random.nextInt(300) / 100.0 : c * (1 + random.nextDouble() * 0.02);
+            low[i] = exact ? c - random.nextInt(300) / 100.0 : c * (1 - random.nextDouble() * 0.02);
+        }
+        return new double[][] {high, low, close};
+    }
+    
+    private void compare(String name, double[] expected, double[] actual, int n) {
+        checks++;
+        for (int i = 0; i < n; i++) {
+            if (Double.doubleToLongBits(expected[i]) != Double.doubleToLongBits(actual[i])) {
+                mismatches.add(String.format("%s: 第 %d 根 %s != %s", name, i, expected[i], actual[i]));
+                return;
+            }
+        }
+    }
+    
+    private void compare(String name, int[] expected, int[] actual, int n) {
+        checks++;
+        if (!Arrays.equals(expected, 0, n, actual, 0, n)) {
+            int i = Arrays.mismatch(expected, 0, n, actual, 0, n);
+            mismatches.add(String.format("%s: 第 %d 根 %d != %d", name, i, expected[i], actual[i]));
+        }
+    }
+    
+    /**
+     * 被校验的实现是否就是标量实现（SIMD 实现未编译或未加载）
+     */
+    public boolean isScalarOnly() {
+        return candidate.getClass() == ScalarBulkKernels.class;
+    }
+    
+    public int getChecks() {
+        return checks;
+    }
+    
+    public List<String> getMismatches() {
+        return new ArrayList<>(mismatches);
+    }
+    
+    /**
+     * 打印校验报告
+     */
+    public void printReport() {
+        System.out.println("\n========== 批量内核一致性校验 ==========");
+        System.out.println("参照实现: " + reference.getName());
+        System.out.println("校验实现: " + candidate.getName());
+        System.out.println("校验项数: " + checks);
+        if (mismatches.isEmpty()) {
+            System.out.println("结果: 全部逐位相同");
+        } else {
+            System.out.println("结果: " + mismatches.size() + " 项不一致");
+            for (String mismatch : mismatches) {
+                System.out.println("  " + mismatch);
+            }
+        }
+        System.out.println("========================================");
+    }
+    
+    /**
+     * 命令行入口：加载 Excel 数据，校验真实行情和边界输入，结果不一致时以异常退出
+     * 
+     * @param args [--require-simd] [Excel 文件路径]（默认 data/sample_data.xlsx）；
+     *             --require-simd 表示默认实现不是 SIMD 时同样视为失败
+     */
+    public static void main(String[] args) throws Exception {
+        boolean requireSimd = false;
+        String path = "data/sample_data.xlsx";
+        for (String arg : args) {
+            if ("--require-simd".equals(arg)) {
+                requireSimd = true;
+            } else {
+                path = arg;
+            }
+        }
+        
+        BulkKernelsVerifier verifier = new BulkKernelsVerifier();
+        if (requireSimd && verifier.isScalarOnly()) {
+            throw new IllegalStateException("SIMD 批量内核未加载（需要 simd 构建配置和 --add-modules jdk.incubator.vector）");
+        }
+        StockSeries series = new ExcelDataLoader().loadSeries(path);
+        verifier.verify(path, series).verifyEdgeCases().printReport();
+        if (!verifier.getMismatches().isEmpty()) {
+            throw new IllegalStateException("批量内核结果不一致: " + verifier.getMismatches().size() + " 项");
+        }
+    }
+}
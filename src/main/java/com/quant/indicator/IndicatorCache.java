@@ -0,0 +1,197 @@
+package com.quant.indicator;
+
+import com.quant.model.StockSeries;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 指标结果缓存
+ * 按 (序列对象, 序列版本号, 指标名称与参数, 计算引擎) 缓存已计算的指标列，
+ * 同一份行情上的多个策略、多个覆盖层请求同一指标时只计算一次
+ * 
+ * 缓存的列以只读共享的方式放入请求方的指标层（{@link com.quant.model.IndicatorColumns#share}），
+ * 不复制数组；请求方之后若修改该列，会先复制一份，缓存内容不受影响
+ * 
+ * 失效：序列追加、修改行情字段或重排后版本号改变 ({@link StockSeries#getVersion()})，旧结果不再命中；
+ * 放入同一序列新版本的结果时，该序列旧版本的缓存项随之删除。缓存项数量不超过上限，超出时按最近最少使用 (LRU) 顺序淘汰
+ * 
+ * 序列按弱引用保存（与 {@link BarSeriesCache} 相同），缓存不会让不再使用的序列和它的指标列一直留在内存中
+ * 
+ * 线程安全，可在并行回测中共享
+ */
+public class IndicatorCache {
+    
+    /** 默认最多缓存的指标数量 */
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+    
+    private final int maxEntries;
+    private final LinkedHashMap<Key, double[][]> entries;
+    
+    // 已被回收的序列对应的键
+    private final ReferenceQueue<StockSeries> collected = new ReferenceQueue<>();
+    
+    private long hits;
+    private long misses;
+    
+    /**
+     * 构造函数（默认容量）
+     */
+    public IndicatorCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+    
+    /**
+     * 构造函数
+     * 
+     * @param maxEntries 最多缓存的指标数量（多输出指标如 MACD 算一项）
+     */
+    public IndicatorCache(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("缓存容量必须大于0: " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<Key, double[][]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, double[][]> eldest) {
+                return size() > IndicatorCache.this.maxEntries;
+            }
+        };
+    }
+    
+    /**
+     * 查找缓存的指标列
+     * 
+     * @param series 行情序列
+     * @param spec 指标名称与参数（包括计算引擎）
+     * @return 指标列（只读），未命中返回 null
+     */
+    public synchronized double[][] get(StockSeries series, String spec) {
+        expungeCollected();
+        double[][] columns = entries.get(new Key(series, spec, null));
+        if (columns != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return columns;
+    }
+    
+    /**
+     * 是否缓存了该指标（不计入命中统计，也不改变淘汰顺序）
+     * 
+     * @param series 行情序列
+     * @param spec 指标名称与参数（包括计算引擎）
+     */
+    public synchronized boolean contains(StockSeries series, String spec) {
+        expungeCollected();
+        return entries.containsKey(new Key(series, spec, null));
+    }
+    
+    /**
+     * 放入指标列（调用后列不能再被直接修改）
+     * 
+     * @param series 行情序列
+     * @param spec 指标名称与参数（包括计算引擎）
+     * @param columns 指标列
+     */
+    public synchronized void put(StockSeries series, String spec, double[][] columns) {
+        expungeCollected();
+        Key key = new Key(series, spec, collected);
+        // 同一序列旧版本（追加或修改前）的结果不会再命中，直接删除
+        for (Iterator<Key> it = entries.keySet().iterator(); it.hasNext(); ) {
+            Key existing = it.next();
+            if (existing.get() == series && (existing.version != key.version || existing.size != key.size)) {
+                it.remove();
+            }
+        }
+        entries.put(key, columns);
+    }
+    
+    /**
+     * 删除序列已被回收的缓存项
+     */
+    private void expungeCollected() {
+        for (Reference<? extends StockSeries> ref; (ref = collected.poll()) != null; ) {
+            entries.remove(ref);
+        }
+    }
+    
+    /**
+     * 清空缓存
+     */
+    public synchronized void clear() {
+        entries.clear();
+        hits = 0;
+        misses = 0;
+    }
+    
+    public synchronized int size() {
+        expungeCollected();
+        return entries.size();
+    }
+    
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+    
+    public synchronized long getHits() {
+        return hits;
+    }
+    
+    public synchronized long getMisses() {
+        return misses;
+    }
+    
+    @Override
+    public synchronized String toString() {
+        return String.format("IndicatorCache{entries=%d/%d, hits=%d, misses=%d}", entries.size(), maxEntries,
+                hits, misses);
+    }
+    
+    /**
+     * 缓存键：序列按对象身份比较（弱引用），并带上创建键时的版本号和长度
+     * 序列被回收后键只与自身相等，由引用队列通知后从缓存中删除
+     */
+    private static final class Key extends WeakReference<StockSeries> {
+        
+        private final long version;
+        private final int size;
+        private final String spec;
+        private final int hash;
+        
+        Key(StockSeries series, String spec, ReferenceQueue<StockSeries> queue) {
+            super(series, queue);
+            this.version = series.getVersion();
+            this.size = series.size();
+            this.spec = spec;
+            int result = System.identityHashCode(series);
+            result = 31 * result + Long.hashCode(version);
+            result = 31 * result + size;
+            this.hash = 31 * result + spec.hashCode();
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            StockSeries series = get();
+            return series != null && series == other.get() && version == other.version && size == other.size
+                    && spec.equals(other.spec);
+        }
+        
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,550 @@
+package com.quant.indicator;
+
+import com.quant.model.IndicatorRegistry;
+import com.quant.model.SeriesOverlay;
+import com.quant.model.StockData;
+import com.quant.model.StockSeries;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 指标依赖图 (DAG)
+ * 把指标拆成共享的中间结果节点，按需（第一次访问时）计算，每个节点在一张图中只计算一次：
+ *   - EMA12 / EMA26 与 MACD(12,26,9) 共享未截断预热期的 EMA 递推
+ *   - MA20 与布林带中轨是同一个 SMA 节点，布林带另有滑动标准差节点
+ *   - ATR14 与 ADX14 共享真实波幅及其 Wilder 平滑
+ * 没被请求、也不被请求的指标依赖的节点不会计算
+ * 
+ * 节点使用 {@link IndicatorKernels} 中相同的内核（整列运算走 {@link BulkKernels}，JDK 21 上可用 SIMD），
+ * 结果与 {@link TechnicalIndicators} 原始 double 引擎逐位相同；
+ * 与 TechnicalIndicators 对应的输出节点读写同一个 {@link IndicatorCache}，两条路径算出的结果互相复用
+ * 
+ * 支持的指标名称：
+ *   - MA{n} / EMA{n} / WMA{n} / RSI{n} / ATR{n} / ADX{n} / HV{n}
+ *   - MACD / MACD_SIGNAL / MACD_HIST（12, 26, 9），或 MACD(快,慢,信号)
+ *   - BB_MIDDLE / BB_UPPER / BB_LOWER / BB_WIDTH（20, 2.0），或 BB(周期,倍数)
+ * 
+ * 使用示例：
+ *   IndicatorGraph graph = new IndicatorGraph(dataList);
+ *   graph.printPlan(Arrays.asList("MACD", "EMA12", "ATR14", "ADX14"));
+ *   graph.materialize(Arrays.asList("MACD", "EMA12", "ATR14", "ADX14"));   // 写入指标列
+ *   double[] ma50 = graph.get("MA50");                                     // 或直接读取（只读）
+ */
+public class IndicatorGraph {
+    
+    private static final Logger logger = LoggerFactory.getLogger(IndicatorGraph.class);
+    
+    private static final Pattern PERIODIC = Pattern.compile("(MA|EMA|WMA|RSI|ATR|ADX|HV)(\\d+)");
+    private static final Pattern MACD_SPEC = Pattern.compile("MACD\\((\\d+),(\\d+),(\\d+)\\)");
+    private static final Pattern BB_SPEC = Pattern.compile("BB\\((\\d+),([0-9.]+)\\)");
+    
+    private static final int MACD_SLOT = IndicatorRegistry.slotOf("MACD");
+    private static final int MACD_SIGNAL_SLOT = IndicatorRegistry.slotOf("MACD_SIGNAL");
+    private static final int MACD_HIST_SLOT = IndicatorRegistry.slotOf("MACD_HIST");
+    private static final int BB_MIDDLE_SLOT = IndicatorRegistry.slotOf("BB_MIDDLE");
+    private static final int BB_UPPER_SLOT = IndicatorRegistry.slotOf("BB_UPPER");
+    private static final int BB_LOWER_SLOT = IndicatorRegistry.slotOf("BB_LOWER");
+    private static final int BB_WIDTH_SLOT = IndicatorRegistry.slotOf("BB_WIDTH");
+    
+    private final List<StockData> dataList;
+    private final int size;
+    
+    // 列表背后可写的覆盖层（列表不是序列视图或只读时为 null）
+    private final SeriesOverlay overlay;
+    
+    private IndicatorCache cache = TechnicalIndicators.getDefaultCache();
+    
+    private final Map<String, Node> nodes = new HashMap<>();
+    private int computedCount;
+    private int cachedCount;
+    
+    /**
+     * 构造函数
+     * 
+     * @param dataList 股票数据列表
+     */
+    public IndicatorGraph(List<StockData> dataList) {
+        if (dataList == null || dataList.isEmpty()) {
+            throw new IllegalArgumentException("数据列表不能为空");
+        }
+        this.dataList = dataList;
+        this.size = dataList.size();
+        SeriesOverlay source = SeriesOverlay.of(dataList);
+        this.overlay = source != null && !source.isReadOnly() ? source : null;
+    }
+    
+    /**
+     * 指定使用的指标缓存（链式调用）
+     * 
+     * @param cache 指标缓存，null 表示不使用缓存
+     * @return 当前对象
+     */
+    public IndicatorGraph withCache(IndicatorCache cache) {
+        this.cache = cache;
+        return this;
+    }
+    
+    // ========== 请求 ==========
+    
+    /**
+     * 读取指标（第一次访问时计算该指标及其尚未计算的依赖）
+     * 
+     * @param name 指标名称
+     * @return 指标列（只读，与缓存和其他请求方共享）
+     */
+    public double[] get(String name) {
+        Output output = resolve(name);
+        return evaluate(output.node)[output.index];
+    }
+    
+    /**
+     * 计算指标并写入列表的指标列（序列视图上以只读共享的方式放入，不复制）
+     * 多输出指标（MACD、布林带）写入全部输出
+     * 
+     * @param names 指标名称
+     * @return 当前对象（链式调用）
+     */
+    public IndicatorGraph materialize(Collection<String> names) {
+        Set<Node> written = new HashSet<>();
+        for (String name : names) {
+            Node node = resolve(name).node;
+            if (!written.add(node)) {
+                continue;
+            }
+            double[][] values = evaluate(node);
+            for (int k = 0; k < node.slots.length; k++) {
+                write(node.slots[k], values[k]);
+            }
+        }
+        logger.debug("指标计算完成: {} (计算 {} 个节点, 缓存命中 {} 个)", names, computedCount, cachedCount);
+        return this;
+    }
+    
+    /**
+     * 计算给定指标还需要执行的节点（按依赖顺序，已计算或缓存中已有的节点不会出现）
+     * 
+     * @param names 指标名称
+     * @return 节点名称列表
+     */
+    public List<String> plan(Collection<String> names) {
+        List<String> steps = new ArrayList<>();
+        Set<Node> visited = new HashSet<>();
+        for (String name : names) {
+            collect(resolve(name).node, visited, steps);
+        }
+        return steps;
+    }
+    
+    private void collect(Node node, Set<Node> visited, List<String> steps) {
+        if (!visited.add(node) || node.values != null) {
+            return;
+        }
+        if (node.cacheSpec != null && cacheable()
+                && cache.contains(overlay.getSeries(), TechnicalIndicators.cacheKey(node.cacheSpec,
+                TechnicalIndicators.Engine.NATIVE, null))) {
+            steps.add(node.key + " (缓存)");
+            return;
+        }
+        for (Node input : node.inputs) {
+            collect(input, visited, steps);
+        }
+        steps.add(node.key);
+    }
+    
+    /**
+     * 打印计算计划
+     */
+    public void printPlan(Collection<String> names) {
+        List<String> steps = plan(names);
+        System.out.println("\n========== 指标计算计划 ==========");
+        System.out.println("请求指标: " + names);
+        for (int i = 0; i < steps.size(); i++) {
+            System.out.printf("  %2d. %s%n", i + 1, steps.get(i));
+        }
+        System.out.println("==================================");
+    }
+    
+    /**
+     * 已实际计算的节点数量（不含缓存命中）
+     */
+    public int getComputedCount() {
+        return computedCount;
+    }
+    
+    /**
+     * 从缓存取得结果的节点数量
+     */
+    public int getCachedCount() {
+        return cachedCount;
+    }
+    
+    // ========== 求值 ==========
+    
+    private double[][] evaluate(Node node) {
+        if (node.values != null) {
+            return node.values;
+        }
+        String key = node.cacheSpec != null && cacheable()
+                ? TechnicalIndicators.cacheKey(node.cacheSpec, TechnicalIndicators.Engine.NATIVE, null)
+                : null;
+        if (key != null) {
+            double[][] cached = cache.get(overlay.getSeries(), key);
+            if (cached != null) {
+                cachedCount++;
+                node.values = cached;
+                return cached;
+            }
+        }
+        
+        double[][] inputs = new double[node.inputs.length][];
+        for (int i = 0; i < inputs.length; i++) {
+            inputs[i] = evaluate(node.inputs[i])[0];
+        }
+        // 多输出的输入节点（±DM）整体传入
+        node.values = node.evaluator.evaluate(node.inputs.length == 1 && node.inputs[0].values.length > 1
+                ? node.inputs[0].values : inputs);
+        computedCount++;
+        
+        if (key != null) {
+            cache.put(overlay.getSeries(), key, node.values);
+        }
+        return node.values;
+    }
+    
+    private boolean cacheable() {
+        return cache != null && overlay != null && overlay.size() == size;
+    }
+    
+    private void write(int slot, double[] values) {
+        if (overlay != null) {
+            overlay.getIndicatorColumns().share(slot, values);
+            return;
+        }
+        for (int i = 0; i < size; i++) {
+            dataList.get(i).setIndicatorValue(slot, values[i]);
+        }
+    }
+    
+    // ========== 指标名称解析 ==========
+    
+    private Output resolve(String name) {
+        switch (name) {
+            case "MACD":
+                return new Output(macd(12, 26, 9), 0);
+            case "MACD_SIGNAL":
+                return new Output(macd(12, 26, 9), 1);
+            case "MACD_HIST":
+                return new Output(macd(12, 26, 9), 2);
+            case "BB_MIDDLE":
+                return new Output(bollinger(20, 2.0), 0);
+            case "BB_UPPER":
+                return new Output(bollinger(20, 2.0), 1);
+            case "BB_LOWER":
+                return new Output(bollinger(20, 2.0), 2);
+            case "BB_WIDTH":
+                return new Output(bollinger(20, 2.0), 3);
+            default:
+                break;
+        }
+        
+        Matcher matcher = MACD_SPEC.matcher(name);
+        if (matcher.matches()) {
+            return new Output(macd(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)),
+                    Integer.parseInt(matcher.group(3))), 0);
+        }
+        matcher = BB_SPEC.matcher(name);
+        if (matcher.matches()) {
+            return new Output(bollinger(Integer.parseInt(matcher.group(1)),
+                    Double.parseDouble(matcher.group(2))), 0);
+        }
+        matcher = PERIODIC.matcher(name);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("不支持的指标: " + name);
+        }
+        int period = Integer.parseInt(matcher.group(2));
+        if (period <= 0) {
+            throw new IllegalArgumentException("周期必须大于0: " + name);
+        }
+        switch (matcher.group(1)) {
+            case "MA":
+                return new Output(sma(period), 0);
+            case "EMA":
+                return new Output(ema(period), 0);
+            case "WMA":
+                return new Output(wma(period), 0);
+            case "RSI":
+                return new Output(rsi(period), 0);
+            case "ATR":
+                return new Output(atr(period), 0);
+            case "ADX":
+                return new Output(adx(period), 0);
+            default:
+                return new Output(historicalVolatility(period), 0);
+        }
+    }
+    
+    // ========== 节点定义 ==========
+    
+    private Node close() {
+        return node("CLOSE", null, in -> new double[][]{prices(PriceField.CLOSE)});
+    }
+    
+    private Node high() {
+        return node("HIGH", null, in -> new double[][]{prices(PriceField.HIGH)});
+    }
+    
+    private Node low() {
+        return node("LOW", null, in -> new double[][]{prices(PriceField.LOW)});
+    }
+    
+    private Node sma(int period) {
+        return output("MA" + period, in -> {
+            double[] out = new double[size];
+            BulkKernels.getDefault().sma(in[0], size, period, out);
+            return new double[][]{out};
+        }, close());
+    }
+    
+    private Node wma(int period) {
+        return output("WMA" + period, in -> {
+            double[] out = new double[size];
+            IndicatorKernels.wma(in[0], size, period, out);
+            return new double[][]{out};
+        }, close());
+    }
+    
+    private Node rsi(int period) {
+        return output("RSI" + period, in -> {
+            double[] out = new double[size];
+            IndicatorKernels.rsi(in[0], size, period, out);
+            return new double[][]{out};
+        }, close());
+    }
+    
+    /**
+     * 滑动总体标准差（布林带使用）
+     */
+    private Node std(int period) {
+        return node("STD(" + period + ")", null, in -> {
+            double[] out = new double[size];
+            IndicatorKernels.rollingStd(in[0], size, period, out);
+            return new double[][]{out};
+        }, close());
+    }
+    
+    /**
+     * EMA 递推（不截断预热期，EMA 与 MACD 共享）
+     */
+    private Node emaRaw(int period) {
+        return node("EMA_RAW(" + period + ")", null, in -> {
+            double[] out = new double[size];
+            IndicatorKernels.smooth(in[0], size, 2.0 / (period + 1), out);
+            return new double[][]{out};
+        }, close());
+    }
+    
+    private Node ema(int period) {
+        return output("EMA" + period, in -> new double[][]{warmUp(in[0], period - 1)}, emaRaw(period));
+    }
+    
+    private Node macd(int fastPeriod, int slowPeriod, int signalPeriod) {
+        String key = "MACD(" + fastPeriod + "," + slowPeriod + "," + signalPeriod + ")";
+        return node(key, key, new int[]{MACD_SLOT, MACD_SIGNAL_SLOT, MACD_HIST_SLOT}, in -> {
+            double[] macd = new double[size];
+            double[] signal = new double[size];
+            double[] histogram = new double[size];
+            for (int i = 0; i < size; i++) {
+                macd[i] = in[0][i] - in[1][i];
+            }
+            IndicatorKernels.smooth(macd, size, 2.0 / (signalPeriod + 1), signal);
+            for (int i = 0; i < size; i++) {
+                histogram[i] = macd[i] - signal[i];
+            }
+            int macdStart = Math.min(slowPeriod - 1, size);
+            int signalStart = Math.min(slowPeriod - 1 + signalPeriod - 1, size);
+            IndicatorKernels.fillNaN(macd, macdStart);
+            IndicatorKernels.fillNaN(signal, signalStart);
+            IndicatorKernels.fillNaN(histogram, signalStart);
+            return new double[][]{macd, signal, histogram};
+        }, emaRaw(fastPeriod), emaRaw(slowPeriod));
+    }
+    
+    private Node bollinger(int period, double numStd) {
+        String key = "BB(" + period + "," + numStd + ")";
+        return node(key, key, new int[]{BB_MIDDLE_SLOT, BB_UPPER_SLOT, BB_LOWER_SLOT, BB_WIDTH_SLOT}, in -> {
+            double[] upper = new double[size];
+            double[] lower = new double[size];
+            double[] width = new double[size];
+            IndicatorKernels.bollingerBands(in[0], in[1], size, numStd, upper, lower, width);
+            return new double[][]{in[0], upper, lower, width};
+        }, sma(period), std(period));
+    }
+    
+    private Node trueRange() {
+        return node("TR", null, in -> {
+            double[] out = new double[size];
+            BulkKernels.getDefault().trueRange(in[0], in[1], in[2], size, out);
+            return new double[][]{out};
+        }, high(), low(), close());
+    }
+    
+    /**
+     * 真实波幅的 Wilder 平滑（不截断预热期，ATR 与 ADX 共享）
+     */
+    private Node trueRangeAverage(int period) {
+        return node("TR_AVG(" + period + ")", null, in -> {
+            double[] out = new double[size];
+            IndicatorKernels.smooth(in[0], size, 1.0 / period, out);
+            return new double[][]{out};
+        }, trueRange());
+    }
+    
+    private Node atr(int period) {
+        return output("ATR" + period, in -> new double[][]{warmUp(in[0], period)}, trueRangeAverage(period));
+    }
+    
+    private Node directionalMovement() {
+        return node("DM", null, in -> {
+            double[] plusDM = new double[size];
+            double[] minusDM = new double[size];
+            IndicatorKernels.directionalMovement(in[0], in[1], size, plusDM, minusDM);
+            return new double[][]{plusDM, minusDM};
+        }, high(), low());
+    }
+    
+    private Node directionalMovementAverage(int period) {
+        return node("DM_AVG(" + period + ")", null, in -> {
+            double[] plus = new double[size];
+            double[] minus = new double[size];
+            IndicatorKernels.smooth(in[0], size, 1.0 / period, plus);
+            IndicatorKernels.smooth(in[1], size, 1.0 / period, minus);
+            return new double[][]{plus, minus};
+        }, directionalMovement());
+    }
+    
+    private Node adx(int period) {
+        Node dm = directionalMovementAverage(period);
+        Node tr = trueRangeAverage(period);
+        return output("ADX" + period, in -> {
+            double[] out = new double[size];
+            IndicatorKernels.directionalIndex(dm.values[0], dm.values[1], in[1], size, out);
+            IndicatorKernels.smooth(out, size, 1.0 / period, out);
+            IndicatorKernels.fillNaN(out, Math.min(2 * period, size));
+            return new double[][]{out};
+        }, dm, tr);
+    }
+    
+    private Node returns() {
+        return node("RETURNS", null, in -> {
+            double[] out = new double[size];
+            BulkKernels.getDefault().returns(in[0], size, out);
+            return new double[][]{out};
+        }, close());
+    }
+    
+    private Node historicalVolatility(int period) {
+        String name = "HV" + period;
+        // 收益率由收盘价计算（RETURNS 节点），与 TechnicalIndicators 共用缓存项
+        return output(name, in -> {
+            double[] out = new double[size];
+            IndicatorKernels.historicalVolatility(in[0], size, period, out);
+            return new double[][]{out};
+        }, returns());
+    }
+    
+    /**
+     * 复制一列并把前 count 根设为 NaN
+     */
+    private double[] warmUp(double[] values, int count) {
+        double[] out = new double[size];
+        System.arraycopy(values, 0, out, 0, size);
+        IndicatorKernels.fillNaN(out, Math.min(count, size));
+        return out;
+    }
+    
+    private enum PriceField { CLOSE, HIGH, LOW }
+    
+    private double[] prices(PriceField field) {
+        double[] values = new double[size];
+        StockSeries series = overlay != null ? overlay.getSeries() : null;
+        for (int i = 0; i < size; i++) {
+            if (series != null) {
+                values[i] = field == PriceField.CLOSE ? series.getClose(i)
+                        : field == PriceField.HIGH ? series.getHigh(i) : series.getLow(i);
+            } else {
+                StockData data = dataList.get(i);
+                values[i] = field == PriceField.CLOSE ? data.getClose()
+                        : field == PriceField.HIGH ? data.getHigh() : data.getLow();
+            }
+        }
+        return values;
+    }
+    
+    /**
+     * 与 TechnicalIndicators 同名的单输出指标节点（结果放入缓存，写入同名指标列）
+     */
+    private Node output(String name, Evaluator evaluator, Node... inputs) {
+        return node(name, name, new int[]{IndicatorRegistry.slotOf(name)}, evaluator, inputs);
+    }
+    
+    private Node node(String key, String cacheSpec, Evaluator evaluator, Node... inputs) {
+        return node(key, cacheSpec, new int[0], evaluator, inputs);
+    }
+    
+    private Node node(String key, String cacheSpec, int[] slots, Evaluator evaluator, Node... inputs) {
+        Node node = nodes.get(key);
+        if (node == null) {
+            node = new Node(key, cacheSpec, slots, evaluator, inputs);
+            nodes.put(key, node);
+        }
+        return node;
+    }
+    
+    /**
+     * 节点的计算函数：各输入节点的第一个输出（只有一个多输出输入节点时为它的全部输出）→ 本节点的全部输出
+     */
+    private interface Evaluator {
+        double[][] evaluate(double[][] inputs);
+    }
+    
+    private static final class Node {
+        
+        final String key;
+        // 与 TechnicalIndicators 相同的缓存名称（中间节点为 null）
+        final String cacheSpec;
+        // 写入的指标槽位（中间节点为空）
+        final int[] slots;
+        final Evaluator evaluator;
+        final Node[] inputs;
+        double[][] values;
+        
+        Node(String key, String cacheSpec, int[] slots, Evaluator evaluator, Node[] inputs) {
+            this.key = key;
+            this.cacheSpec = cacheSpec;
+            this.slots = slots;
+            this.evaluator = evaluator;
+            this.inputs = inputs;
+        }
+    }
+    
+    private static final class Output {
+        
+        final Node node;
+        final int index;
+        
+        Output(Node node, int index) {
+            this.node = node;
+            this.index = index;
+        }
+    }
+}
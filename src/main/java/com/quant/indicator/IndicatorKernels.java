@@ -0,0 +1,444 @@
+package com.quant.indicator;
+
+/**
+ * 原始 double 指标内核
+ * 输入输出都是 double[]，计算过程不分配对象，结果直接写入调用方提供的数组（例如指标列）
+ * 
+ * 递推方式与 ta4j 0.16 一致（EMA/MMA 以第一根K线为初值，RSI/ATR/ADX 使用 Wilder 平滑），
+ * 只是把 DecimalNum 运算换成 double 运算，两者结果的差异在浮点舍入误差范围内。
+ * 预热期（数据不足一个周期）的输出为 NaN，起点与 {@link TechnicalIndicators} 原有约定相同：
+ *   - SMA / EMA / WMA / 布林带：前 period - 1 根
+ *   - RSI / ATR：前 period 根
+ *   - ADX：前 2 × period 根
+ *   - MACD：前 slow - 1 根；信号线和柱状图再加 signal - 1 根
+ * 
+ * SMA / WMA 的窗口和在输入都是有限位小数时按十进制定点 (long) 精确累加，最后做一次除法，
+ * 结果与 DecimalNum 的精确值一致（收盘价恰好等于均线这类比较不会因累加误差翻转）；
+ * 其他输入使用补偿求和 (Neumaier)；输入含 NaN 时之后的滑动窗口结果都为 NaN
+ * 
+ * 所有方法只处理 [0, n)，输出数组可以比 n 长
+ */
+public final class IndicatorKernels {
+    
+    /**
+     * 价格差的相对比较容差
+     * 行情价格是十进制小数，两个价差在十进制下相等时 double 相减可能差一个舍入误差，
+     * 比较 +DM / -DM 时差值小于 价格 × 容差 视为相等
+     */
+    static final double TIE_TOLERANCE = 1e-9;
+    
+    // 十进制定点求和：价格放大 10^k 后按 long 精确累加
+    private static final int MAX_SCALE = 8;
+    static final long[] POWERS_OF_TEN = {1L, 10L, 100L, 1_000L, 10_000L, 100_000L,
+            1_000_000L, 10_000_000L, 100_000_000L};
+    static final double MAX_EXACT = 9007199254740992.0; // 2^53
+    
+    private IndicatorKernels() {
+    }
+    
+    /**
+     * 简单移动平均 (SMA)，滑动窗口求和，每根K线 O(1)
+     * 
+     * @param in 输入（通常是收盘价）
+     * @param n 数据长度
+     * @param period 周期
+     * @param out 输出
+     */
+    public static void sma(double[] in, int n, int period, double[] out) {
+        checkPeriod(period);
+        int scale = decimalScale(in, n, period);
+        if (scale >= 0) {
+            long factor = POWERS_OF_TEN[scale];
+            double divisor = (double) factor * period;
+            long sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += Math.round(in[i] * factor);
+                if (i >= period) {
+                    sum -= Math.round(in[i - period] * factor);
+                }
+                out[i] = i < period - 1 ? Double.NaN : sum / divisor;
+            }
+            return;
+        }
+        
+        double sum = 0;
+        double compensation = 0;
+        for (int i = 0; i < n; i++) {
+            double x = in[i];
+            double t = sum + x;
+            compensation += Math.abs(sum) >= Math.abs(x) ? (sum - t) + x : (x - t) + sum;
+            sum = t;
+            if (i >= period) {
+                x = -in[i - period];
+                t = sum + x;
+                compensation += Math.abs(sum) >= Math.abs(x) ? (sum - t) + x : (x - t) + sum;
+                sum = t;
+            }
+            out[i] = i < period - 1 ? Double.NaN : (sum + compensation) / period;
+        }
+    }
+    
+    /**
+     * 指数移动平均 (EMA)，平滑系数 2 / (period + 1)
+     */
+    public static void ema(double[] in, int n, int period, double[] out) {
+        checkPeriod(period);
+        smooth(in, n, 2.0 / (period + 1), out);
+        fillNaN(out, Math.min(period - 1, n));
+    }
+    
+    /**
+     * 加权移动平均 (WMA)，最近一根权重为 period，依次递减到 1
+     * 
+     * 十进制输入的加权和按 W(t) = W(t-1) + period × x(t) - S(t-1) 递推 (S 为上一窗口的简单和)，每根K线 O(1)
+     */
+    public static void wma(double[] in, int n, int period, double[] out) {
+        checkPeriod(period);
+        long weights = (long) period * (period + 1) / 2;
+        int scale = decimalScale(in, n, weights);
+        if (scale >= 0) {
+            long factor = POWERS_OF_TEN[scale];
+            double divisor = (double) factor * weights;
+            long weighted = 0;
+            long sum = 0;
+            for (int i = 0; i < n; i++) {
+                long x = Math.round(in[i] * factor);
+                if (i < period) {
+                    weighted += (i + 1) * x;
+                    sum += x;
+                } else {
+                    weighted += period * x - sum;
+                    sum += x - Math.round(in[i - period] * factor);
+                }
+                out[i] = i < period - 1 ? Double.NaN : weighted / divisor;
+            }
+            return;
+        }
+        
+        // 非十进制输入逐窗口求加权和
+        for (int i = 0; i < n; i++) {
+            if (i < period - 1) {
+                out[i] = Double.NaN;
+                continue;
+            }
+            double weighted = 0;
+            for (int w = 1; w <= period; w++) {
+                weighted += w * in[i - period + w];
+            }
+            out[i] = weighted / weights;
+        }
+    }
+    
+    /**
+     * MACD：快慢 EMA 之差、其 EMA 信号线和柱状图
+     * 
+     * @param close 收盘价
+     * @param n 数据长度
+     * @param fastPeriod 快线周期
+     * @param slowPeriod 慢线周期
+     * @param signalPeriod 信号线周期
+     * @param macd MACD 输出
+     * @param signal 信号线输出
+     * @param histogram 柱状图输出 (MACD - 信号线)
+     */
+    public static void macd(double[] close, int n, int fastPeriod, int slowPeriod, int signalPeriod,
+                            double[] macd, double[] signal, double[] histogram) {
+        checkPeriod(fastPeriod);
+        checkPeriod(slowPeriod);
+        checkPeriod(signalPeriod);
+        double fastAlpha = 2.0 / (fastPeriod + 1);
+        double slowAlpha = 2.0 / (slowPeriod + 1);
+        double signalAlpha = 2.0 / (signalPeriod + 1);
+        int macdStart = slowPeriod - 1;
+        int signalStart = macdStart + signalPeriod - 1;
+        
+        double fast = 0;
+        double slow = 0;
+        double sig = 0;
+        for (int i = 0; i < n; i++) {
+            double x = close[i];
+            if (i == 0) {
+                fast = x;
+                slow = x;
+            } else {
+                fast += (x - fast) * fastAlpha;
+                slow += (x - slow) * slowAlpha;
+            }
+            double m = fast - slow;
+            sig = i == 0 ? m : sig + (m - sig) * signalAlpha;
+            
+            macd[i] = i < macdStart ? Double.NaN : m;
+            if (i < signalStart) {
+                signal[i] = Double.NaN;
+                histogram[i] = Double.NaN;
+            } else {
+                signal[i] = sig;
+                histogram[i] = m - sig;
+            }
+        }
+    }
+    
+    /**
+     * 相对强弱指数 (RSI)，涨跌幅用 Wilder 平滑 (系数 1 / period)
+     */
+    public static void rsi(double[] close, int n, int period, double[] out) {
+        checkPeriod(period);
+        double alpha = 1.0 / period;
+        double avgGain = 0;
+        double avgLoss = 0;
+        for (int i = 0; i < n; i++) {
+            double change = i == 0 ? 0 : close[i] - close[i - 1];
+            double gain = change > 0 ? change : 0;
+            double loss = change < 0 ? -change : 0;
+            if (i == 0) {
+                avgGain = gain;
+                avgLoss = loss;
+            } else {
+                avgGain += (gain - avgGain) * alpha;
+                avgLoss += (loss - avgLoss) * alpha;
+            }
+            
+            if (i < period) {
+                out[i] = Double.NaN;
+            } else if (avgLoss == 0) {
+                out[i] = avgGain == 0 ? 0 : 100;
+            } else {
+                out[i] = 100 - 100 / (1 + avgGain / avgLoss);
+            }
+        }
+    }
+    
+    /**
+     * 布林带：中轨为 SMA，上下轨为中轨 ± numStd × 总体标准差，带宽为 (上轨 - 下轨) / 中轨
+     * 
+     * @param close 收盘价
+     * @param n 数据长度
+     * @param period 周期
+     * @param numStd 标准差倍数
+     * @param middle 中轨输出
+     * @param upper 上轨输出
+     * @param lower 下轨输出
+     * @param width 带宽输出（比例，不是百分比）
+     */
+    public static void bollinger(double[] close, int n, int period, double numStd,
+                                 double[] middle, double[] upper, double[] lower, double[] width) {
+        sma(close, n, period, middle);
+        // 标准差先写入 upper，再原地换算成上轨
+        rollingStd(close, n, period, upper);
+        bollingerBands(middle, upper, n, numStd, upper, lower, width);
+    }
+    
+    /**
+     * 由中轨和标准差计算布林带上下轨和带宽（std 可以与 upper 是同一个数组）
+     */
+    public static void bollingerBands(double[] middle, double[] std, int n, double numStd,
+                                      double[] upper, double[] lower, double[] width) {
+        for (int i = 0; i < n; i++) {
+            double mean = middle[i];
+            double band = numStd * std[i];
+            upper[i] = mean + band;
+            lower[i] = mean - band;
+            width[i] = 2 * band / mean;
+        }
+    }
+    
+    /**
+     * 滑动窗口总体标准差（前 period - 1 根为 NaN），滑动 Welford 增删，每根K线 O(1)
+     */
+    public static void rollingStd(double[] in, int n, int period, double[] out) {
+        checkPeriod(period);
+        RollingMoments moments = new RollingMoments(period);
+        for (int i = 0; i < n; i++) {
+            moments.add(in[i]);
+            out[i] = i < period - 1 ? Double.NaN : moments.getStd();
+        }
+    }
+    
+    /**
+     * 历史波动率：第 i 根为 [i - period, i - 1] 收益率的样本标准差 × √252，前 period 根为 NaN
+     */
+    public static void historicalVolatility(double[] returns, int n, int period, double[] out) {
+        checkPeriod(period);
+        double annualizationFactor = Math.sqrt(252);
+        RollingMoments moments = new RollingMoments(period);
+        for (int i = 0; i < n; i++) {
+            out[i] = i < period ? Double.NaN : moments.getSampleStd() * annualizationFactor;
+            moments.add(returns[i]);
+        }
+    }
+    
+    /**
+     * 真实波幅 (TR)：max(最高 - 最低, |最高 - 前收盘|, |最低 - 前收盘|)，第一根为最高 - 最低
+     */
+    public static void trueRange(double[] high, double[] low, double[] close, int n, double[] out) {
+        for (int i = 0; i < n; i++) {
+            double range = Math.abs(high[i] - low[i]);
+            if (i > 0) {
+                double prevClose = close[i - 1];
+                range = Math.max(range, Math.max(Math.abs(high[i] - prevClose), Math.abs(prevClose - low[i])));
+            }
+            out[i] = range;
+        }
+    }
+    
+    /**
+     * 平均真实波幅 (ATR)，真实波幅的 Wilder 平滑
+     */
+    public static void atr(double[] high, double[] low, double[] close, int n, int period, double[] out) {
+        checkPeriod(period);
+        trueRange(high, low, close, n, out);
+        smooth(out, n, 1.0 / period, out);
+        fillNaN(out, Math.min(period, n));
+    }
+    
+    /**
+     * 平均趋向指数 (ADX)
+     * +DM / -DM（上下移动在舍入误差内相等时都为 0）和真实波幅分别做 Wilder 平滑得到 +DI / -DI，
+     * DX = |+DI - -DI| / (+DI + -DI) × 100，ADX 为 DX 的 Wilder 平滑
+     */
+    public static void adx(double[] high, double[] low, double[] close, int n, int period, double[] out) {
+        checkPeriod(period);
+        double alpha = 1.0 / period;
+        double avgPlusDM = 0;
+        double avgMinusDM = 0;
+        double avgTR = 0;
+        double adx = 0;
+        for (int i = 0; i < n; i++) {
+            double plusDM = 0;
+            double minusDM = 0;
+            double range = Math.abs(high[i] - low[i]);
+            if (i > 0) {
+                double upMove = high[i] - high[i - 1];
+                double downMove = low[i - 1] - low[i];
+                double tolerance = Math.abs(high[i]) * TIE_TOLERANCE;
+                if (Math.abs(upMove - downMove) <= tolerance) {
+                    // 上下移动相等：都不计入
+                } else if (upMove > downMove && upMove > 0) {
+                    plusDM = upMove;
+                } else if (downMove > upMove && downMove > 0) {
+                    minusDM = downMove;
+                }
+                double prevClose = close[i - 1];
+                range = Math.max(range, Math.max(Math.abs(high[i] - prevClose), Math.abs(prevClose - low[i])));
+            }
+            
+            if (i == 0) {
+                avgPlusDM = plusDM;
+                avgMinusDM = minusDM;
+                avgTR = range;
+            } else {
+                avgPlusDM += (plusDM - avgPlusDM) * alpha;
+                avgMinusDM += (minusDM - avgMinusDM) * alpha;
+                avgTR += (range - avgTR) * alpha;
+            }
+            
+            double plusDI = avgPlusDM / avgTR * 100;
+            double minusDI = avgMinusDM / avgTR * 100;
+            double diSum = plusDI + minusDI;
+            double dx = diSum == 0 ? 0 : Math.abs(plusDI - minusDI) / diSum * 100;
+            adx = i == 0 ? dx : adx + (dx - adx) * alpha;
+            
+            out[i] = i < 2 * period ? Double.NaN : adx;
+        }
+    }
+    
+    /**
+     * 趋向变动 +DM / -DM：上移 = 最高 - 前最高，下移 = 前最低 - 最低，
+     * 取较大且为正的一方，另一方为 0；上下移动在舍入误差内相等时都为 0，第一根都为 0
+     */
+    public static void directionalMovement(double[] high, double[] low, int n, double[] plusDM, double[] minusDM) {
+        for (int i = 0; i < n; i++) {
+            double plus = 0;
+            double minus = 0;
+            if (i > 0) {
+                double upMove = high[i] - high[i - 1];
+                double downMove = low[i - 1] - low[i];
+                double tolerance = Math.abs(high[i]) * TIE_TOLERANCE;
+                if (Math.abs(upMove - downMove) <= tolerance) {
+                    // 上下移动相等：都不计入
+                } else if (upMove > downMove && upMove > 0) {
+                    plus = upMove;
+                } else if (downMove > upMove && downMove > 0) {
+                    minus = downMove;
+                }
+            }
+            plusDM[i] = plus;
+            minusDM[i] = minus;
+        }
+    }
+    
+    /**
+     * 趋向指数 DX = |+DI - -DI| / (+DI + -DI) × 100，
+     * 其中 +DI / -DI = 平滑后的 +DM / -DM ÷ 平滑后的真实波幅 × 100
+     */
+    public static void directionalIndex(double[] avgPlusDM, double[] avgMinusDM, double[] avgTR, int n,
+                                        double[] out) {
+        for (int i = 0; i < n; i++) {
+            double plusDI = avgPlusDM[i] / avgTR[i] * 100;
+            double minusDI = avgMinusDM[i] / avgTR[i] * 100;
+            double diSum = plusDI + minusDI;
+            out[i] = diSum == 0 ? 0 : Math.abs(plusDI - minusDI) / diSum * 100;
+        }
+    }
+    
+    /**
+     * 找到使所有输入都能由 整数 / 10^k 精确还原的最小 k，
+     * 并保证放大后的值乘以 multiplier 仍在 double 可精确表示的整数范围内
+     * 
+     * @return k，不存在时返回 -1（含 NaN、无穷或位数过多）
+     */
+    static int decimalScale(double[] in, int n, long multiplier) {
+        int scale = 0;
+        double limit = MAX_EXACT / multiplier;
+        for (int i = 0; i < n && scale >= 0; i++) {
+            scale = decimalScale(in[i], scale, limit);
+        }
+        return scale;
+    }
+    
+    /**
+     * 单个值的定点位数：从 minScale 开始找使 value 能由 整数 / 10^k 精确还原的最小 k，
+     * 且放大后的绝对值小于 limit
+     * 
+     * @return k，不存在时返回 -1
+     */
+    static int decimalScale(double value, int minScale, double limit) {
+        int scale = minScale;
+        while (true) {
+            double factor = POWERS_OF_TEN[scale];
+            double scaled = value * factor;
+            if (!(Math.abs(scaled) < limit)) {
+                return -1;
+            }
+            if (Math.round(scaled) / factor == value) {
+                return scale;
+            }
+            if (++scale > MAX_SCALE) {
+                return -1;
+            }
+        }
+    }
+    
+    /**
+     * 指数平滑：y(0) = x(0)，y(t) = y(t-1) + (x(t) - y(t-1)) × alpha（in 和 out 可以是同一个数组）
+     */
+    static void smooth(double[] in, int n, double alpha, double[] out) {
+        double value = 0;
+        for (int i = 0; i < n; i++) {
+            value = i == 0 ? in[0] : value + (in[i] - value) * alpha;
+            out[i] = value;
+        }
+    }
+    
+    static void fillNaN(double[] out, int count) {
+        for (int i = 0; i < count; i++) {
+            out[i] = Double.NaN;
+        }
+    }
+    
+    private static void checkPeriod(int period) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("周期必须大于0: " + period);
+        }
+    }
+}
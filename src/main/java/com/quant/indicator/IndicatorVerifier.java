@@ -0,0 +1,263 @@
+package com.quant.indicator;
+
+import com.quant.loader.ExcelDataLoader;
+import com.quant.model.IndicatorColumns;
+import com.quant.model.IndicatorRegistry;
+import com.quant.model.SeriesOverlay;
+import com.quant.model.StockData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 指标精度校验
+ * 以 ta4j DecimalNum（十进制精确运算）的结果为基准，
+ * 逐个指标统计其他引擎/精度（ta4j DoubleNum、原始 double 内核）与基准的最大偏差，
+ * 用来证明生产环境使用的快速路径误差有界
+ * 
+ * 每次计算都在共享行情之上新建的覆盖层中进行，不修改传入的数据
+ * 
+ * 使用示例：
+ *   IndicatorVerifier verifier = new IndicatorVerifier(dataList);
+ *   IndicatorVerifier.Report report = verifier.verify(TechnicalIndicators.Engine.NATIVE, null);
+ *   report.printReport();
+ * 
+ * 命令行：
+ *   mvn exec:java -Dexec.mainClass="com.quant.indicator.IndicatorVerifier" -Dexec.args="data/sample_data.xlsx"
+ */
+public class IndicatorVerifier {
+    
+    private static final Logger logger = LoggerFactory.getLogger(IndicatorVerifier.class);
+    
+    private final SeriesOverlay base;
+    private IndicatorColumns reference;
+    private long referenceMillis;
+    
+    /**
+     * 构造函数
+     * 
+     * @param dataList 股票数据列表
+     */
+    public IndicatorVerifier(List<StockData> dataList) {
+        if (dataList == null || dataList.isEmpty()) {
+            throw new IllegalArgumentException("数据列表不能为空");
+        }
+        this.base = SeriesOverlay.fork(dataList);
+    }
+    
+    /**
+     * 计算参与校验的全部指标
+     */
+    private static void calculateAll(TechnicalIndicators indicators) {
+        indicators.calculateAllBasic()
+                .calculateWMA(20)
+                .calculateADX(14);
+    }
+    
+    /**
+     * 在新的覆盖层中计算指标
+     * 
+     * @return 结果所在的指标列
+     */
+    private IndicatorColumns run(TechnicalIndicators.Engine engine, TechnicalIndicators.Precision precision,
+                                 long[] millis) {
+        // 不使用指标缓存，保证每次都实际计算并计时
+        SeriesOverlay overlay = base.newOverlay();
+        long start = System.nanoTime();
+        calculateAll(new TechnicalIndicators(overlay.asList(), engine, precision).withCache(null));
+        millis[0] = (System.nanoTime() - start) / 1_000_000;
+        return overlay.getIndicatorColumns();
+    }
+    
+    private IndicatorColumns reference() {
+        if (reference == null) {
+            long[] millis = new long[1];
+            reference = run(TechnicalIndicators.Engine.TA4J, TechnicalIndicators.Precision.DECIMAL, millis);
+            referenceMillis = millis[0];
+        }
+        return reference;
+    }
+    
+    /**
+     * 与 DecimalNum 基准比较
+     * 
+     * @param engine 被校验的引擎
+     * @param precision 被校验的精度（原始 double 引擎传 null）
+     * @return 校验报告
+     */
+    public Report verify(TechnicalIndicators.Engine engine, TechnicalIndicators.Precision precision) {
+        IndicatorColumns expected = reference();
+        long[] millis = new long[1];
+        IndicatorColumns actual = run(engine, precision != null ? precision : TechnicalIndicators.Precision.DOUBLE,
+                millis);
+        
+        int rows = base.size();
+        List<Divergence> divergences = new ArrayList<>();
+        for (int slot = 0; slot < expected.slotLimit(); slot++) {
+            if (!expected.hasOwnColumn(slot)) {
+                continue;
+            }
+            Divergence divergence = new Divergence(IndicatorRegistry.nameOf(slot));
+            for (int row = 0; row < rows; row++) {
+                divergence.add(row, expected.get(slot, row), actual.get(slot, row));
+            }
+            divergences.add(divergence);
+        }
+        
+        String label = engine == TechnicalIndicators.Engine.NATIVE ? "原始 double 内核" : "ta4j " + precision;
+        logger.debug("指标校验完成: {}", label);
+        return new Report(label, divergences, referenceMillis, millis[0]);
+    }
+    
+    /**
+     * 校验所有快速路径：ta4j DoubleNum 和原始 double 内核
+     * 
+     * @return 校验报告
+     */
+    public List<Report> verifyAll() {
+        List<Report> reports = new ArrayList<>();
+        reports.add(verify(TechnicalIndicators.Engine.TA4J, TechnicalIndicators.Precision.DOUBLE));
+        reports.add(verify(TechnicalIndicators.Engine.NATIVE, null));
+        return reports;
+    }
+    
+    /**
+     * 命令行入口：加载 Excel 数据并打印校验报告
+     * 
+     * @param args [Excel 文件路径]（默认 data/sample_data.xlsx）
+     */
+    public static void main(String[] args) throws Exception {
+        String path = args.length > 0 ? args[0] : "data/sample_data.xlsx";
+        List<StockData> dataList = new ExcelDataLoader().loadSeries(path).asList();
+        for (Report report : new IndicatorVerifier(dataList).verifyAll()) {
+            report.printReport();
+        }
+    }
+    
+    /**
+     * 单个指标的偏差统计
+     */
+    public static class Divergence {
+        
+        private final String indicatorName;
+        private int compared;
+        private int nanMismatches;
+        private double maxAbsError;
+        private double maxRelError;
+        private int worstIndex = -1;
+        
+        public Divergence(String indicatorName) {
+            this.indicatorName = indicatorName;
+        }
+        
+        void add(int row, double expected, double actual) {
+            if (Double.isNaN(expected) || Double.isNaN(actual)) {
+                if (Double.isNaN(expected) != Double.isNaN(actual)) {
+                    nanMismatches++;
+                }
+                return;
+            }
+            compared++;
+            double abs = Math.abs(actual - expected);
+            if (abs > maxAbsError) {
+                maxAbsError = abs;
+            }
+            if (expected != 0) {
+                double rel = abs / Math.abs(expected);
+                if (rel > maxRelError) {
+                    maxRelError = rel;
+                    worstIndex = row;
+                }
+            }
+        }
+        
+        public String getIndicatorName() { return indicatorName; }
+        public int getCompared() { return compared; }
+        public int getNanMismatches() { return nanMismatches; }
+        public double getMaxAbsError() { return maxAbsError; }
+        public double getMaxRelError() { return maxRelError; }
+        public int getWorstIndex() { return worstIndex; }
+        
+        @Override
+        public String toString() {
+            return String.format("%-12s 比较 %5d 个, 最大绝对偏差 %.3e, 最大相对偏差 %.3e%s",
+                    indicatorName, compared, maxAbsError, maxRelError,
+                    nanMismatches > 0 ? ", NaN 不一致 " + nanMismatches + " 个" : "");
+        }
+    }
+    
+    /**
+     * 一个引擎/精度相对基准的校验报告
+     */
+    public static class Report {
+        
+        private final String label;
+        private final List<Divergence> divergences;
+        private final long referenceMillis;
+        private final long millis;
+        
+        public Report(String label, List<Divergence> divergences, long referenceMillis, long millis) {
+            this.label = label;
+            this.divergences = Collections.unmodifiableList(divergences);
+            this.referenceMillis = referenceMillis;
+            this.millis = millis;
+        }
+        
+        public String getLabel() { return label; }
+        public List<Divergence> getDivergences() { return divergences; }
+        public long getReferenceMillis() { return referenceMillis; }
+        public long getMillis() { return millis; }
+        
+        /**
+         * 所有指标中的最大相对偏差
+         */
+        public double getMaxRelError() {
+            double max = 0;
+            for (Divergence divergence : divergences) {
+                max = Math.max(max, divergence.getMaxRelError());
+            }
+            return max;
+        }
+        
+        /**
+         * 所有指标中的最大绝对偏差
+         */
+        public double getMaxAbsError() {
+            double max = 0;
+            for (Divergence divergence : divergences) {
+                max = Math.max(max, divergence.getMaxAbsError());
+            }
+            return max;
+        }
+        
+        /**
+         * 是否所有指标的相对偏差都不超过容差，且 NaN 位置一致
+         * 
+         * @param relTolerance 相对容差
+         */
+        public boolean isWithin(double relTolerance) {
+            for (Divergence divergence : divergences) {
+                if (divergence.getNanMismatches() > 0 || divergence.getMaxRelError() > relTolerance) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        /**
+         * 打印校验报告
+         */
+        public void printReport() {
+            System.out.println("\n========== 指标精度校验: " + label + " vs ta4j DECIMAL ==========");
+            for (Divergence divergence : divergences) {
+                System.out.println("  " + divergence);
+            }
+            System.out.printf("最大相对偏差: %.3e, 最大绝对偏差: %.3e%n", getMaxRelError(), getMaxAbsError());
+            System.out.printf("耗时: %d ms (基准 %d ms)%n", millis, referenceMillis);
+            System.out.println("==================================================");
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.quant.indicator;
+
+/**
+ * 前缀和多周期均线引擎
+ * 对输入（通常是收盘价）只构建一次前缀和与平方前缀和，之后任意周期的 SMA 和滑动标准差都是每根K线 O(1)：
+ *   窗口和 = P[i + 1] - P[i + 1 - period]
+ * 适合参数优化、多均线策略这类在同一序列上需要大量不同周期均线的场景，
+ * 一次构建即可得到所有周期的均线矩阵 ({@link #smaMatrix(int...)})
+ * 
+ * 输入都是有限位小数时前缀和按十进制定点 (long) 精确累加：
+ *   - SMA 与 {@link IndicatorKernels#sma} 逐位相同
+ *   - 方差由精确的整数 period × Σx² - (Σx)² 得到（128 位整数运算），没有大数相消
+ * 其他输入的前缀和用 double 累加（先减去第一个值以降低量级），精度略低于滑动窗口内核；
+ * 输入含 NaN 时之后的结果都为 NaN
+ * 
+ * 使用示例：
+ *   PrefixSumAverages averages = new PrefixSumAverages(close, close.length);
+ *   double[][] ma = averages.smaMatrix(10, 20, 50, 200);   // ma[k][i]：第 k 个周期第 i 根K线的均线
+ *   double std = averages.std(20, i);
+ */
+public final class PrefixSumAverages {
+    
+    private final int n;
+    
+    // 定点放大倍数 10^k（输入不能精确定点表示时为 0）
+    private final long factor;
+    
+    // 定点前缀和：sums[i] = x[0] + ... + x[i - 1]（放大后）；平方和可能溢出时 squares 为 null
+    private final long[] sums;
+    private final long[] squares;
+    
+    // double 前缀和（定点前缀和不可用时使用），累加 x - offset
+    private final double offset;
+    private final double[] doubleSums;
+    private final double[] doubleSquares;
+    
+    /**
+     * 构造函数（构建前缀和，O(n)）
+     * 
+     * @param values 输入（通常是收盘价）
+     * @param n 数据长度
+     */
+    public PrefixSumAverages(double[] values, int n) {
+        if (n < 0 || n > values.length) {
+            throw new IllegalArgumentException("数据长度无效: " + n);
+        }
+        this.n = n;
+        
+        // 前缀和累加 n 个值，放大后的值乘以 n 仍需在 double 精确整数范围内
+        int scale = IndicatorKernels.decimalScale(values, n, Math.max(1, n));
+        if (scale >= 0) {
+            factor = IndicatorKernels.POWERS_OF_TEN[scale];
+            sums = new long[n + 1];
+            double maxAbs = 0;
+            for (int i = 0; i < n; i++) {
+                long x = Math.round(values[i] * factor);
+                sums[i + 1] = sums[i] + x;
+                maxAbs = Math.max(maxAbs, Math.abs((double) x));
+            }
+            // 平方前缀和最大为 n × max²，需在 long 范围内
+            if (maxAbs * maxAbs * n < Long.MAX_VALUE / 2.0) {
+                squares = new long[n + 1];
+                for (int i = 0; i < n; i++) {
+                    long x = Math.round(values[i] * factor);
+                    squares[i + 1] = squares[i] + x * x;
+                }
+            } else {
+                squares = null;
+            }
+        } else {
+            factor = 0;
+            sums = null;
+            squares = null;
+        }
+        
+        if (squares == null) {
+            offset = n > 0 ? values[0] : 0;
+            doubleSums = new double[n + 1];
+            doubleSquares = new double[n + 1];
+            for (int i = 0; i < n; i++) {
+                double x = values[i] - offset;
+                doubleSums[i + 1] = doubleSums[i] + x;
+                doubleSquares[i + 1] = doubleSquares[i] + x * x;
+            }
+        } else {
+            offset = 0;
+            doubleSums = null;
+            doubleSquares = null;
+        }
+    }
+    
+    public int size() {
+        return n;
+    }
+    
+    /**
+     * 是否按十进制定点精确累加（此时 SMA 与 {@link IndicatorKernels#sma} 逐位相同）
+     */
+    public boolean isExact() {
+        return sums != null;
+    }
+    
+    /**
+     * 第 index 根K线的简单移动平均（预热期返回 NaN）
+     * 
+     * @param period 周期
+     * @param index K线索引
+     * @return SMA
+     */
+    public double sma(int period, int index) {
+        checkPeriod(period);
+        if (index < period - 1) {
+            return Double.NaN;
+        }
+        int from = index + 1 - period;
+        if (sums != null) {
+            return (sums[index + 1] - sums[from]) / ((double) factor * period);
+        }
+        return (doubleSums[index + 1] - doubleSums[from]) / period + offset;
+    }
+    
+    /**
+     * 第 index 根K线的滑动窗口总体标准差（预热期返回 NaN）
+     * 
+     * @param period 周期
+     * @param index K线索引
+     * @return 标准差
+     */
+    public double std(int period, int index) {
+        checkPeriod(period);
+        if (index < period - 1) {
+            return Double.NaN;
+        }
+        int from = index + 1 - period;
+        if (squares != null) {
+            long sum = sums[index + 1] - sums[from];
+            long sumOfSquares = squares[index + 1] - squares[from];
+            double scaledPeriod = (double) factor * period;
+            return Math.sqrt(exactDifference(period, sumOfSquares, sum) / (scaledPeriod * scaledPeriod));
+        }
+        double sum = doubleSums[index + 1] - doubleSums[from];
+        double sumOfSquares = doubleSquares[index + 1] - doubleSquares[from];
+        return Math.sqrt(Math.max(0, (sumOfSquares - sum * sum / period) / period));
+    }
+    
+    /**
+     * 整列 SMA（前 period - 1 根为 NaN）
+     * 
+     * @param period 周期
+     * @param out 输出（长度至少为 n）
+     */
+    public void sma(int period, double[] out) {
+        for (int i = 0; i < n; i++) {
+            out[i] = sma(period, i);
+        }
+    }
+    
+    /**
+     * 整列滑动窗口总体标准差（前 period - 1 根为 NaN）
+     * 
+     * @param period 周期
+     * @param out 输出（长度至少为 n）
+     */
+    public void std(int period, double[] out) {
+        for (int i = 0; i < n; i++) {
+            out[i] = std(period, i);
+        }
+    }
+    
+    /**
+     * 多个周期的均线矩阵
+     * 
+     * @param periods 周期
+     * @return 矩阵，第 k 行为 periods[k] 周期的整列 SMA
+     */
+    public double[][] smaMatrix(int... periods) {
+        double[][] matrix = new double[periods.length][n];
+        for (int k = 0; k < periods.length; k++) {
+            sma(periods[k], matrix[k]);
+        }
+        return matrix;
+    }
+    
+    /**
+     * a × b - c × c，按 128 位整数精确计算后转换为 double（结果非负）
+     */
+    private static double exactDifference(long a, long b, long c) {
+        long low = a * b;
+        long high = Math.multiplyHigh(a, b);
+        long cLow = c * c;
+        long cHigh = Math.multiplyHigh(c, c);
+        long differenceLow = low - cLow;
+        long differenceHigh = high - cHigh - (Long.compareUnsigned(low, cLow) < 0 ? 1 : 0);
+        double unsignedLow = differenceLow >= 0
+                ? differenceLow
+                : (double) (differenceLow >>> 1) * 2 + (differenceLow & 1);
+        return differenceHigh * 18446744073709551616.0 + unsignedLow;
+    }
+    
+    private static void checkPeriod(int period) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("周期必须大于0: " + period);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.quant.indicator;
+
+/**
+ * 滑动窗口均值 / 方差 (Welford 增删法)
+ * 新值进入窗口时更新均值和离差平方和 M2，窗口满后同时移出最旧的值，
+ * 每次 {@link #add(double)} 为 O(1)，与窗口长度无关
+ * 
+ * 数值稳定性：增删公式只更新均值和 M2，不做"平方和 - 和的平方"这类相减，
+ * 不会出现大数相消；每滑动一整个窗口后按窗口内的原始值用两遍法重新计算一次，
+ * 摊销后仍为 O(1)，舍入误差不会随序列长度累积
+ * 
+ * 输入不应含 NaN（NaN 移出窗口之前的结果都为 NaN）
+ * 
+ * 使用示例：
+ *   RollingMoments moments = new RollingMoments(20);
+ *   for (double value : values) {
+ *       moments.add(value);
+ *       if (moments.isFull()) {
+ *           double std = moments.getSampleStd();
+ *       }
+ *   }
+ */
+public final class RollingMoments {
+    
+    private final double[] window;
+    private int head;
+    private int count;
+    private int slidesSinceResync;
+    
+    private double mean;
+    private double m2;
+    
+    /**
+     * 构造函数
+     * 
+     * @param period 窗口长度
+     */
+    public RollingMoments(int period) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("周期必须大于0: " + period);
+        }
+        this.window = new double[period];
+    }
+    
+    /**
+     * 加入一个值，窗口已满时移出最旧的值
+     */
+    public void add(double value) {
+        int period = window.length;
+        if (count < period) {
+            window[count++] = value;
+            double delta = value - mean;
+            mean += delta / count;
+            m2 += delta * (value - mean);
+            return;
+        }
+        
+        double removed = window[head];
+        window[head] = value;
+        head = head + 1 == period ? 0 : head + 1;
+        
+        if (++slidesSinceResync == period) {
+            resync();
+            return;
+        }
+        double oldMean = mean;
+        double delta = value - removed;
+        mean += delta / period;
+        m2 += delta * (value - mean + removed - oldMean);
+        if (m2 < 0) {
+            m2 = 0;
+        }
+    }
+    
+    /**
+     * 按窗口内的原始值用两遍法重新计算均值和 M2
+     */
+    private void resync() {
+        slidesSinceResync = 0;
+        double sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += window[i];
+        }
+        mean = sum / count;
+        double squares = 0;
+        for (int i = 0; i < count; i++) {
+            double diff = window[i] - mean;
+            squares += diff * diff;
+        }
+        m2 = squares;
+    }
+    
+    /**
+     * 清空窗口
+     */
+    public void reset() {
+        head = 0;
+        count = 0;
+        slidesSinceResync = 0;
+        mean = 0;
+        m2 = 0;
+    }
+    
+    public int getPeriod() {
+        return window.length;
+    }
+    
+    /**
+     * 窗口内的值个数
+     */
+    public int getCount() {
+        return count;
+    }
+    
+    public boolean isFull() {
+        return count == window.length;
+    }
+    
+    /**
+     * 窗口均值，窗口为空时返回 NaN
+     */
+    public double getMean() {
+        return count > 0 ? mean : Double.NaN;
+    }
+    
+    /**
+     * 总体方差 (除以 n)，窗口为空时返回 NaN
+     */
+    public double getVariance() {
+        return count > 0 ? m2 / count : Double.NaN;
+    }
+    
+    /**
+     * 样本方差 (除以 n - 1)，少于 2 个值时返回 0
+     */
+    public double getSampleVariance() {
+        return count > 1 ? m2 / (count - 1) : 0;
+    }
+    
+    /**
+     * 总体标准差
+     */
+    public double getStd() {
+        return Math.sqrt(getVariance());
+    }
+    
+    /**
+     * 样本标准差
+     */
+    public double getSampleStd() {
+        return Math.sqrt(getSampleVariance());
+    }
+}
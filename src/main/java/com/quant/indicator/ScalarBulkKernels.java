@@ -0,0 +1,121 @@
+package com.quant.indicator;
+
+/**
+ * 标量批量内核 (Java 11)
+ * 任何 JVM 上都可用，也是 SIMD 实现的参照和回退路径
+ */
+public class ScalarBulkKernels implements BulkKernels {
+    
+    @Override
+    public String getName() {
+        return "scalar";
+    }
+    
+    @Override
+    public void returns(double[] close, int n, double[] out) {
+        if (n > 0) {
+            out[0] = 0;
+        }
+        for (int i = 1; i < n; i++) {
+            out[i] = (close[i] - close[i - 1]) / close[i - 1];
+        }
+    }
+    
+    @Override
+    public void sma(double[] in, int n, int period, double[] out) {
+        IndicatorKernels.sma(in, n, period, out);
+    }
+    
+    @Override
+    public void trueRange(double[] high, double[] low, double[] close, int n, double[] out) {
+        IndicatorKernels.trueRange(high, low, close, n, out);
+    }
+    
+    @Override
+    public int crossovers(double[] fast, double[] slow, int n, int[] out) {
+        if (n > 0) {
+            out[0] = 0;
+        }
+        int count = 0;
+        for (int i = 1; i < n; i++) {
+            out[i] = crossover(fast[i - 1], slow[i - 1], fast[i], slow[i]);
+            if (out[i] != 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    static int crossover(double prevFast, double prevSlow, double fast, double slow) {
+        if (prevFast <= prevSlow && fast > slow) {
+            return 1;
+        }
+        if (prevFast >= prevSlow && fast < slow) {
+            return -1;
+        }
+        return 0;
+    }
+    
+    @Override
+    public void compound(double[] returns, int n, double initial, double[] equity) {
+        double cumulative = 1.0;
+        for (int i = 0; i < n; i++) {
+            if (i > 0) {
+                cumulative *= 1 + returns[i];
+            }
+            equity[i] = initial * cumulative;
+        }
+    }
+    
+    /**
+     * 十进制定点前缀和：sums[i] = x[0] + ... + x[i - 1]（放大 factor 倍后的整数）
+     * 窗口和由两个前缀和相减精确得到，结果与 {@link IndicatorKernels#sma} 的滑动窗口和是同一个整数
+     */
+    static final class ExactPrefix {
+        
+        final long factor;
+        final long[] sums;
+        
+        private ExactPrefix(long factor, long[] sums) {
+            this.factor = factor;
+            this.sums = sums;
+        }
+        
+        /**
+         * 构建前缀和
+         * 
+         * @return 前缀和，输入不能精确定点表示或整数可能溢出时返回 null
+         */
+        static ExactPrefix of(double[] in, int n, int period) {
+            if (period <= 0) {
+                throw new IllegalArgumentException("周期必须大于0: " + period);
+            }
+            int scale = IndicatorKernels.decimalScale(in, n, period);
+            if (scale < 0) {
+                return null;
+            }
+            long factor = IndicatorKernels.POWERS_OF_TEN[scale];
+            double maxAbs = 0;
+            for (int i = 0; i < n; i++) {
+                maxAbs = Math.max(maxAbs, Math.abs(Math.rint(in[i] * factor)));
+            }
+            // 前缀和要在 long 范围内
+            if (maxAbs * n >= Long.MAX_VALUE / 2.0) {
+                return null;
+            }
+            
+            long[] sums = new long[n + 1];
+            for (int i = 0; i < n; i++) {
+                sums[i + 1] = sums[i] + Math.round(in[i] * factor);
+            }
+            return new ExactPrefix(factor, sums);
+        }
+        
+        /**
+         * SMA = Σx / (factor × period)，与 {@link IndicatorKernels#sma} 的除数相同
+         */
+        double smaDivisor(int period) {
+            return (double) factor * period;
+        }
+    }
+}
@@ -0,0 +1,672 @@
+package com.quant.indicator;
+
+import com.quant.model.IndicatorRegistry;
+import com.quant.model.StockData;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 增量（流式）技术指标
+ * 每个指标保存递推状态，逐根K线调用 update，每根K线 O(1)，不需要重算整个序列，
+ * 适合实时行情和只追加的数据（如 {@link com.quant.loader.IngestionService} 的追加回调）
+ * 
+ * 与批量计算的关系：递推公式、初值和预热期与 {@link IndicatorKernels} 完全相同
+ * (预热期输出 NaN)，从第一根K线开始逐根 update 得到的值与批量计算逐位相同；
+ * SMA / 布林带中轨在输入不是有限位小数时使用补偿求和，与批量结果只有舍入误差
+ * 
+ * 指标集合按 {@link TechnicalIndicators} 的指标名称写回K线，批量和增量的结果可以互相替换：
+ *   StreamingIndicators indicators = StreamingIndicators.allBasic();
+ *   indicators.update(dataList, 0);              // 补齐历史
+ *   indicators.update(newBar);                   // 之后每来一根K线
+ * 
+ * 单个指标也可以单独使用：
+ *   StreamingIndicators.Rsi rsi = new StreamingIndicators.Rsi(14);
+ *   double value = rsi.update(bar);
+ * 
+ * 指标对象不是线程安全的，同一个对象只能按时间顺序喂入同一只股票的K线
+ */
+public class StreamingIndicators {
+    
+    private static final double ANNUALIZATION_FACTOR = Math.sqrt(252);
+    
+    private static final int MACD_SLOT = IndicatorRegistry.slotOf("MACD");
+    private static final int MACD_SIGNAL_SLOT = IndicatorRegistry.slotOf("MACD_SIGNAL");
+    private static final int MACD_HIST_SLOT = IndicatorRegistry.slotOf("MACD_HIST");
+    private static final int BB_MIDDLE_SLOT = IndicatorRegistry.slotOf("BB_MIDDLE");
+    private static final int BB_UPPER_SLOT = IndicatorRegistry.slotOf("BB_UPPER");
+    private static final int BB_LOWER_SLOT = IndicatorRegistry.slotOf("BB_LOWER");
+    private static final int BB_WIDTH_SLOT = IndicatorRegistry.slotOf("BB_WIDTH");
+    
+    private final List<Indicator> indicators = new ArrayList<>();
+    
+    /**
+     * 与 {@link TechnicalIndicators#calculateAllBasic()} 相同的指标集合
+     */
+    public static StreamingIndicators allBasic() {
+        return new StreamingIndicators()
+                .add(new Sma(5))
+                .add(new Sma(10))
+                .add(new Sma(20))
+                .add(new Sma(60))
+                .add(new Sma(50))
+                .add(new Sma(200))
+                .add(new Ema(12))
+                .add(new Ema(26))
+                .add(new Macd(12, 26, 9))
+                .add(new Rsi(14))
+                .add(new Bollinger(20, 2.0))
+                .add(new Atr(14))
+                .add(new HistoricalVolatility(20));
+    }
+    
+    /**
+     * 加入一个指标（链式调用）
+     */
+    public StreamingIndicators add(Indicator indicator) {
+        indicators.add(indicator);
+        return this;
+    }
+    
+    /**
+     * 用一根新K线更新所有指标，并把结果写回这根K线
+     */
+    public void update(StockData bar) {
+        for (Indicator indicator : indicators) {
+            indicator.update(bar);
+            indicator.writeTo(bar);
+        }
+    }
+    
+    /**
+     * 依次用 [fromIndex, size) 的K线更新所有指标
+     * fromIndex 必须等于已处理的K线数量（第一次为 0），保证每根K线只喂入一次
+     * 
+     * @param dataList 股票数据列表（按时间升序）
+     * @param fromIndex 第一根未处理K线的索引
+     */
+    public void update(List<StockData> dataList, int fromIndex) {
+        if (fromIndex != getCount()) {
+            throw new IllegalArgumentException("起始索引 " + fromIndex + " 与已处理的K线数量 " + getCount() + " 不一致");
+        }
+        for (int i = fromIndex; i < dataList.size(); i++) {
+            update(dataList.get(i));
+        }
+    }
+    
+    /**
+     * 已处理的K线数量
+     */
+    public int getCount() {
+        return indicators.isEmpty() ? 0 : indicators.get(0).getCount();
+    }
+    
+    public List<Indicator> getIndicators() {
+        return Collections.unmodifiableList(indicators);
+    }
+    
+    // ========== 指标 ==========
+    
+    /**
+     * 增量指标基类
+     */
+    public abstract static class Indicator {
+        
+        private final String name;
+        private final int slot;
+        private int count;
+        private double value = Double.NaN;
+        
+        protected Indicator(String name) {
+            this.name = name;
+            this.slot = IndicatorRegistry.slotOf(name);
+        }
+        
+        /**
+         * 喂入下一根K线
+         * 
+         * @return 这根K线上的指标值（预热期为 NaN）
+         */
+        public double update(StockData bar) {
+            return update(bar.getHigh(), bar.getLow(), bar.getClose());
+        }
+        
+        /**
+         * 喂入下一根K线的最高价、最低价和收盘价
+         * 
+         * @return 这根K线上的指标值（预热期为 NaN）
+         */
+        public double update(double high, double low, double close) {
+            value = next(high, low, close);
+            count++;
+            return value;
+        }
+        
+        /**
+         * 根据下一根K线计算指标值，此时 {@link #getCount()} 为这根K线的索引
+         */
+        protected abstract double next(double high, double low, double close);
+        
+        /**
+         * 把最近一次的结果写入K线的指标列（使用与批量计算相同的指标名称）
+         */
+        public void writeTo(StockData bar) {
+            bar.setIndicatorValue(slot, value);
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        /**
+         * 已喂入的K线数量
+         */
+        public int getCount() {
+            return count;
+        }
+        
+        /**
+         * 最近一次的指标值
+         */
+        public double getValue() {
+            return value;
+        }
+        
+        /**
+         * 是否已过预热期
+         */
+        public boolean isReady() {
+            return !Double.isNaN(value);
+        }
+    }
+    
+    /**
+     * 只依赖收盘价的指标，也可以直接喂入收盘价
+     */
+    public abstract static class CloseIndicator extends Indicator {
+        
+        protected CloseIndicator(String name) {
+            super(name);
+        }
+        
+        /**
+         * 喂入下一个收盘价
+         * 
+         * @return 指标值（预热期为 NaN）
+         */
+        public double update(double close) {
+            return update(close, close, close);
+        }
+    }
+    
+    /**
+     * 简单移动平均 (SMA)
+     * 输入都是有限位小数时按十进制定点 (long) 精确维护窗口和，遇到更多小数位时整体提高位数，
+     * 无法精确表示时退回补偿求和
+     */
+    public static class Sma extends CloseIndicator {
+        
+        private final int period;
+        private final double limit;
+        private final double[] window;
+        private int head;
+        
+        // 定点窗口和（scale < 0 表示已退回补偿求和）
+        private int scale;
+        private long sum;
+        
+        private double doubleSum;
+        private double compensation;
+        
+        public Sma(int period) {
+            super("MA" + period);
+            checkPeriod(period);
+            this.period = period;
+            this.limit = IndicatorKernels.MAX_EXACT / period;
+            this.window = new double[period];
+        }
+        
+        @Override
+        protected double next(double high, double low, double close) {
+            boolean full = getCount() >= period;
+            double removed = window[head];
+            window[head] = close;
+            head = head + 1 == period ? 0 : head + 1;
+            
+            if (scale >= 0) {
+                int newScale = IndicatorKernels.decimalScale(close, scale, limit);
+                if (newScale != scale) {
+                    rescale(newScale);
+                } else {
+                    long factor = IndicatorKernels.POWERS_OF_TEN[scale];
+                    sum += Math.round(close * factor);
+                    if (full) {
+                        sum -= Math.round(removed * factor);
+                    }
+                }
+            } else {
+                addCompensated(close);
+                if (full) {
+                    addCompensated(-removed);
+                }
+            }
+            
+            if (getCount() < period - 1) {
+                return Double.NaN;
+            }
+            return scale >= 0
+                    ? sum / ((double) IndicatorKernels.POWERS_OF_TEN[scale] * period)
+                    : (doubleSum + compensation) / period;
+        }
+        
+        /**
+         * 按新的位数重新计算窗口和（最多发生 MAX_SCALE 次），新位数不可用时退回补偿求和
+         */
+        private void rescale(int newScale) {
+            int filled = Math.min(getCount() + 1, period);
+            if (newScale >= 0) {
+                for (int i = 0; i < filled; i++) {
+                    if (IndicatorKernels.decimalScale(window[i], newScale, limit) != newScale) {
+                        newScale = -1;
+                        break;
+                    }
+                }
+            }
+            scale = newScale;
+            if (scale >= 0) {
+                long factor = IndicatorKernels.POWERS_OF_TEN[scale];
+                sum = 0;
+                for (int i = 0; i < filled; i++) {
+                    sum += Math.round(window[i] * factor);
+                }
+            } else {
+                doubleSum = 0;
+                compensation = 0;
+                for (int i = 0; i < filled; i++) {
+                    addCompensated(window[i]);
+                }
+            }
+        }
+        
+        private void addCompensated(double x) {
+            double t = doubleSum + x;
+            compensation += Math.abs(doubleSum) >= Math.abs(x) ? (doubleSum - t) + x : (x - t) + doubleSum;
+            doubleSum = t;
+        }
+        
+        public int getPeriod() {
+            return period;
+        }
+    }
+    
+    /**
+     * 指数移动平均 (EMA)，以第一根K线为初值，平滑系数 2 / (period + 1)
+     */
+    public static class Ema extends CloseIndicator {
+        
+        private final int period;
+        private final double alpha;
+        private double ema;
+        
+        public Ema(int period) {
+            super("EMA" + period);
+            checkPeriod(period);
+            this.period = period;
+            this.alpha = 2.0 / (period + 1);
+        }
+        
+        @Override
+        protected double next(double high, double low, double close) {
+            ema = getCount() == 0 ? close : ema + (close - ema) * alpha;
+            return getCount() < period - 1 ? Double.NaN : ema;
+        }
+        
+        public int getPeriod() {
+            return period;
+        }
+    }
+    
+    /**
+     * MACD：快慢 EMA 之差（主值）、其 EMA 信号线和柱状图
+     */
+    public static class Macd extends CloseIndicator {
+        
+        private final int signalStart;
+        private final int macdStart;
+        private final double fastAlpha;
+        private final double slowAlpha;
+        private final double signalAlpha;
+        private double fast;
+        private double slow;
+        private double sig;
+        
+        private double signal = Double.NaN;
+        private double histogram = Double.NaN;
+        
+        public Macd(int fastPeriod, int slowPeriod, int signalPeriod) {
+            super("MACD");
+            checkPeriod(fastPeriod);
+            checkPeriod(slowPeriod);
+            checkPeriod(signalPeriod);
+            this.fastAlpha = 2.0 / (fastPeriod + 1);
+            this.slowAlpha = 2.0 / (slowPeriod + 1);
+            this.signalAlpha = 2.0 / (signalPeriod + 1);
+            this.macdStart = slowPeriod - 1;
+            this.signalStart = macdStart + signalPeriod - 1;
+        }
+        
+        @Override
+        protected double next(double high, double low, double close) {
+            int i = getCount();
+            if (i == 0) {
+                fast = close;
+                slow = close;
+            } else {
+                fast += (close - fast) * fastAlpha;
+                slow += (close - slow) * slowAlpha;
+            }
+            double m = fast - slow;
+            sig = i == 0 ? m : sig + (m - sig) * signalAlpha;
+            
+            if (i < signalStart) {
+                signal = Double.NaN;
+                histogram = Double.NaN;
+            } else {
+                signal = sig;
+                histogram = m - sig;
+            }
+            return i < macdStart ? Double.NaN : m;
+        }
+        
+        @Override
+        public void writeTo(StockData bar) {
+            bar.setIndicatorValue(MACD_SLOT, getValue());
+            bar.setIndicatorValue(MACD_SIGNAL_SLOT, signal);
+            bar.setIndicatorValue(MACD_HIST_SLOT, histogram);
+        }
+        
+        public double getSignal() {
+            return signal;
+        }
+        
+        public double getHistogram() {
+            return histogram;
+        }
+    }
+    
+    /**
+     * 相对强弱指数 (RSI)，涨跌幅用 Wilder 平滑
+     */
+    public static class Rsi extends CloseIndicator {
+        
+        private final int period;
+        private final double alpha;
+        private double prevClose;
+        private double avgGain;
+        private double avgLoss;
+        
+        public Rsi(int period) {
+            super("RSI" + period);
+            checkPeriod(period);
+            this.period = period;
+            this.alpha = 1.0 / period;
+        }
+        
+        @Override
+        protected double next(double high, double low, double close) {
+            int i = getCount();
+            double change = i == 0 ? 0 : close - prevClose;
+            prevClose = close;
+            double gain = change > 0 ? change : 0;
+            double loss = change < 0 ? -change : 0;
+            if (i == 0) {
+                avgGain = gain;
+                avgLoss = loss;
+            } else {
+                avgGain += (gain - avgGain) * alpha;
+                avgLoss += (loss - avgLoss) * alpha;
+            }
+            
+            if (i < period) {
+                return Double.NaN;
+            } else if (avgLoss == 0) {
+                return avgGain == 0 ? 0 : 100;
+            }
+            return 100 - 100 / (1 + avgGain / avgLoss);
+        }
+        
+        public int getPeriod() {
+            return period;
+        }
+    }
+    
+    /**
+     * 布林带：中轨（主值）为 SMA，上下轨为中轨 ± numStd × 总体标准差，带宽为 (上轨 - 下轨) / 中轨
+     */
+    public static class Bollinger extends CloseIndicator {
+        
+        private final int period;
+        private final double numStd;
+        private final Sma middle;
+        private final RollingMoments moments;
+        
+        private double upper = Double.NaN;
+        private double lower = Double.NaN;
+        private double width = Double.NaN;
+        
+        public Bollinger(int period, double numStd) {
+            super("BB_MIDDLE");
+            this.period = period;
+            this.numStd = numStd;
+            this.middle = new Sma(period);
+            this.moments = new RollingMoments(period);
+        }
+        
+        @Override
+        protected double next(double high, double low, double close) {
+            double mean = middle.update(close);
+            moments.add(close);
+            if (getCount() < period - 1) {
+                upper = Double.NaN;
+                lower = Double.NaN;
+                width = Double.NaN;
+                return Double.NaN;
+            }
+            
+            double band = numStd * moments.getStd();
+            upper = mean + band;
+            lower = mean - band;
+            width = 2 * band / mean;
+            return mean;
+        }
+        
+        /**
+         * 写回布林带四条线，同时写回同周期的 MA（与批量计算一致）
+         */
+        @Override
+        public void writeTo(StockData bar) {
+            bar.setIndicatorValue(BB_MIDDLE_SLOT, getValue());
+            bar.setIndicatorValue(BB_UPPER_SLOT, upper);
+            bar.setIndicatorValue(BB_LOWER_SLOT, lower);
+            bar.setIndicatorValue(BB_WIDTH_SLOT, width);
+            middle.writeTo(bar);
+        }
+        
+        public double getMiddle() {
+            return getValue();
+        }
+        
+        public double getUpper() {
+            return upper;
+        }
+        
+        public double getLower() {
+            return lower;
+        }
+        
+        /**
+         * 带宽（比例，不是百分比）
+         */
+        public double getWidth() {
+            return width;
+        }
+    }
+    
+    /**
+     * 平均真实波幅 (ATR)，真实波幅的 Wilder 平滑
+     */
+    public static class Atr extends Indicator {
+        
+        private final int period;
+        private final double alpha;
+        private double prevClose;
+        private double atr;
+        
+        public Atr(int period) {
+            super("ATR" + period);
+            checkPeriod(period);
+            this.period = period;
+            this.alpha = 1.0 / period;
+        }
+        
+        @Override
+        protected double next(double high, double low, double close) {
+            int i = getCount();
+            double range = Math.abs(high - low);
+            if (i > 0) {
+                range = Math.max(range, Math.max(Math.abs(high - prevClose), Math.abs(prevClose - low)));
+            }
+            prevClose = close;
+            atr = i == 0 ? range : atr + (range - atr) * alpha;
+            return i < period ? Double.NaN : atr;
+        }
+        
+        public int getPeriod() {
+            return period;
+        }
+    }
+    
+    /**
+     * 平均趋向指数 (ADX)
+     */
+    public static class Adx extends Indicator {
+        
+        private final int period;
+        private final double alpha;
+        private double prevHigh;
+        private double prevLow;
+        private double prevClose;
+        private double avgPlusDM;
+        private double avgMinusDM;
+        private double avgTR;
+        private double adx;
+        
+        public Adx(int period) {
+            super("ADX" + period);
+            checkPeriod(period);
+            this.period = period;
+            this.alpha = 1.0 / period;
+        }
+        
+        @Override
+        protected double next(double high, double low, double close) {
+            int i = getCount();
+            double plusDM = 0;
+            double minusDM = 0;
+            double range = Math.abs(high - low);
+            if (i > 0) {
+                double upMove = high - prevHigh;
+                double downMove = prevLow - low;
+                double tolerance = Math.abs(high) * IndicatorKernels.TIE_TOLERANCE;
+                if (Math.abs(upMove - downMove) <= tolerance) {
+                    // 上下移动相等：都不计入
+                } else if (upMove > downMove && upMove > 0) {
+                    plusDM = upMove;
+                } else if (downMove > upMove && downMove > 0) {
+                    minusDM = downMove;
+                }
+                range = Math.max(range, Math.max(Math.abs(high - prevClose), Math.abs(prevClose - low)));
+            }
+            prevHigh = high;
+            prevLow = low;
+            prevClose = close;
+            
+            if (i == 0) {
+                avgPlusDM = plusDM;
+                avgMinusDM = minusDM;
+                avgTR = range;
+            } else {
+                avgPlusDM += (plusDM - avgPlusDM) * alpha;
+                avgMinusDM += (minusDM - avgMinusDM) * alpha;
+                avgTR += (range - avgTR) * alpha;
+            }
+            
+            double plusDI = avgPlusDM / avgTR * 100;
+            double minusDI = avgMinusDM / avgTR * 100;
+            double diSum = plusDI + minusDI;
+            double dx = diSum == 0 ? 0 : Math.abs(plusDI - minusDI) / diSum * 100;
+            adx = i == 0 ? dx : adx + (dx - adx) * alpha;
+            return i < 2 * period ? Double.NaN : adx;
+        }
+        
+        public int getPeriod() {
+            return period;
+        }
+    }
+    
+    /**
+     * 历史波动率 (HV)：第 i 根K线为 [i - period, i - 1] 日收益率的样本标准差 × √252，前 period 根为 NaN
+     */
+    public static class HistoricalVolatility extends CloseIndicator {
+        
+        private final int period;
+        private final RollingMoments moments;
+        private double prevClose;
+        private double dailyReturn;
+        
+        public HistoricalVolatility(int period) {
+            super("HV" + period);
+            this.period = period;
+            this.moments = new RollingMoments(period);
+        }
+        
+        @Override
+        protected double next(double high, double low, double close) {
+            int i = getCount();
+            double value = i < period ? Double.NaN : moments.getSampleStd() * ANNUALIZATION_FACTOR;
+            dailyReturn = i == 0 ? 0 : (close - prevClose) / prevClose;
+            prevClose = close;
+            moments.add(dailyReturn);
+            return value;
+        }
+        
+        /**
+         * 写回历史波动率和日收益率（与批量计算一致，第一根K线不写日收益率）
+         */
+        @Override
+        public void writeTo(StockData bar) {
+            super.writeTo(bar);
+            if (getCount() > 1) {
+                bar.setDailyReturn(dailyReturn);
+            }
+        }
+        
+        /**
+         * 最近一根K线的日收益率
+         */
+        public double getDailyReturn() {
+            return dailyReturn;
+        }
+        
+        public int getPeriod() {
+            return period;
+        }
+    }
+    
+    private static void checkPeriod(int period) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("周期必须大于0: " + period);
+        }
+    }
+}
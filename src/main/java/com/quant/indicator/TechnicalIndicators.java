@@ -1,11 +1,17 @@
 package com.quant.indicator;
 
+import com.quant.model.IndicatorColumns;
+import com.quant.model.IndicatorRegistry;
+import com.quant.model.SeriesOverlay;
 import com.quant.model.StockData;
+import com.quant.model.StockSeries;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.ta4j.core.BarSeries;
 import org.ta4j.core.BaseBarSeriesBuilder;
+import org.ta4j.core.Indicator;
 import org.ta4j.core.indicators.*;
+import org.ta4j.core.indicators.adx.ADXIndicator;
 import org.ta4j.core.indicators.bollinger.BollingerBandWidthIndicator;
 import org.ta4j.core.indicators.bollinger.BollingerBandsLowerIndicator;
 import org.ta4j.core.indicators.bollinger.BollingerBandsMiddleIndicator;
@@ -13,50 +19,150 @@ import org.ta4j.core.indicators.bollinger.BollingerBandsUpperIndicator;
 import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
 import org.ta4j.core.indicators.statistics.StandardDeviationIndicator;
 import org.ta4j.core.num.DecimalNum;
+import org.ta4j.core.num.DoubleNum;
+import org.ta4j.core.num.Num;
 
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.Arrays;
 import java.util.List;
 
 /**
- * 技术指标计算器 (基于 ta4j 库)
+ * 技术指标计算器
  * 负责计算各种技术指标：MA、EMA、MACD、RSI、布林带、ATR等
  * 
- * 使用 ta4j 库提供的经过验证的指标计算方法，确保计算准确性
+ * 两种计算引擎：
+ *   - {@link Engine#NATIVE}（默认）：{@link IndicatorKernels} 中的原始 double 内核，
+ *     列表是序列视图时结果直接写入指标列，不经过 StockData 对象
+ *   - {@link Engine#TA4J}：ta4j 库的指标，作为参考实现用于交叉校验；
+ *     数值类型由 {@link Precision} 选择（DecimalNum 精确 / DoubleNum 快速），可按实例或全局设置
+ *     列表是序列视图时，ta4j 的 BarSeries 由 {@link BarSeriesCache} 按序列共享，只转换一次
+ * 两种引擎的递推方式相同，结果只有浮点舍入误差，差异上界可用 {@link IndicatorVerifier} 校验
+ * 
+ * 列表是序列视图时，MA/EMA/MACD/RSI/布林带/ATR/ADX/WMA 的结果按 (序列, 版本, 指标参数, 引擎)
+ * 放入共享的 {@link IndicatorCache}，同一份行情上的其他策略再次请求时直接复用，不重新计算
  */
 public class TechnicalIndicators {
     
     private static final Logger logger = LoggerFactory.getLogger(TechnicalIndicators.class);
     
+    /**
+     * 指标计算引擎
+     */
+    public enum Engine {
+        /** 原始 double 内核 */
+        NATIVE,
+        /** ta4j 参考实现 */
+        TA4J
+    }
+    
+    /**
+     * ta4j 引擎的数值精度
+     */
+    public enum Precision {
+        /** DoubleNum：double 运算，速度快 */
+        DOUBLE,
+        /** DecimalNum：十进制精确运算 */
+        DECIMAL
+    }
+    
+    // 未指定精度时使用的全局默认值
+    private static volatile Precision defaultPrecision = Precision.DECIMAL;
+    
+    // 全局共享的指标缓存（null 表示不缓存）
+    private static volatile IndicatorCache defaultCache = new IndicatorCache();
+    
+    // 全局共享的 ta4j BarSeries（每个序列、每种精度只转换一次）
+    private static final BarSeriesCache barSeriesCache = new BarSeriesCache();
+    
+    // 固定名称指标的槽位
+    private static final int MACD_SLOT = IndicatorRegistry.slotOf("MACD");
+    private static final int MACD_SIGNAL_SLOT = IndicatorRegistry.slotOf("MACD_SIGNAL");
+    private static final int MACD_HIST_SLOT = IndicatorRegistry.slotOf("MACD_HIST");
+    private static final int BB_MIDDLE_SLOT = IndicatorRegistry.slotOf("BB_MIDDLE");
+    private static final int BB_UPPER_SLOT = IndicatorRegistry.slotOf("BB_UPPER");
+    private static final int BB_LOWER_SLOT = IndicatorRegistry.slotOf("BB_LOWER");
+    private static final int BB_WIDTH_SLOT = IndicatorRegistry.slotOf("BB_WIDTH");
+    
     private final List<StockData> dataList;
-    private final BarSeries barSeries;
-    private final ClosePriceIndicator closePrice;
+    private final Engine engine;
+    private final Precision precision;
+    private final int size;
+    
+    // 列表背后可写的覆盖层（列表不是序列视图或只读时为 null）
+    private final SeriesOverlay overlay;
+    
+    // 指标缓存（null 表示不缓存）
+    private IndicatorCache cache = defaultCache;
+    
+    // 按需提取的价格列
+    private double[] close;
+    private double[] high;
+    private double[] low;
+    
+    // ta4j 引擎按需构建
+    private BarSeries barSeries;
+    private ClosePriceIndicator closePrice;
     
     /**
-     * 构造函数
+     * 构造函数（使用原始 double 引擎）
      * 
      * @param dataList 股票数据列表
      */
     public TechnicalIndicators(List<StockData> dataList) {
+        this(dataList, Engine.NATIVE);
+    }
+    
+    /**
+     * 构造函数
+     * 
+     * @param dataList 股票数据列表
+     * @param engine 计算引擎
+     */
+    public TechnicalIndicators(List<StockData> dataList, Engine engine) {
+        this(dataList, engine, defaultPrecision);
+    }
+    
+    /**
+     * 构造函数
+     * 
+     * @param dataList 股票数据列表
+     * @param engine 计算引擎
+     * @param precision ta4j 引擎的数值精度（原始 double 引擎忽略）
+     */
+    public TechnicalIndicators(List<StockData> dataList, Engine engine, Precision precision) {
         if (dataList == null || dataList.isEmpty()) {
             throw new IllegalArgumentException("数据列表不能为空");
         }
         this.dataList = dataList;
+        this.engine = engine;
+        this.precision = precision;
+        this.size = dataList.size();
         
-        // 构建 ta4j BarSeries
-        this.barSeries = buildBarSeries(dataList);
-        this.closePrice = new ClosePriceIndicator(barSeries);
+        SeriesOverlay source = SeriesOverlay.of(dataList);
+        this.overlay = source != null && !source.isReadOnly() ? source : null;
         
-        logger.debug("初始化 TechnicalIndicators，数据量: {}", dataList.size());
+        logger.debug("初始化 TechnicalIndicators，数据量: {}, 引擎: {}, 精度: {}", size, engine, precision);
+    }
+    
+    /**
+     * 构造函数
+     * 
+     * @param series 列式K线序列（指标写入其指标列）
+     */
+    public TechnicalIndicators(StockSeries series) {
+        this(series.asList());
     }
     
     /**
      * 将 StockData 列表转换为 ta4j BarSeries
      */
     private BarSeries buildBarSeries(List<StockData> dataList) {
+        String name = !dataList.isEmpty() && dataList.get(0).getSymbol() != null
+                ? dataList.get(0).getSymbol() : "UNKNOWN";
         BarSeries series = new BaseBarSeriesBuilder()
-                .withName("QQQ")
-                .withNumTypeOf(DecimalNum.class)
+                .withName(name)
+                .withNumTypeOf(precision == Precision.DOUBLE ? DoubleNum.class : DecimalNum.class)
                 .build();
         
         for (StockData data : dataList) {
@@ -77,56 +183,227 @@ public class TechnicalIndicators {
         return series;
     }
     
+    private ClosePriceIndicator closePrice() {
+        if (closePrice == null) {
+            closePrice = new ClosePriceIndicator(getBarSeries());
+        }
+        return closePrice;
+    }
+    
+    // ========== 价格列与指标列 ==========
+    
+    private double[] closes() {
+        if (close == null) {
+            close = new double[size];
+            StockSeries series = overlay != null ? overlay.getSeries() : null;
+            for (int i = 0; i < size; i++) {
+                close[i] = series != null ? series.getClose(i) : dataList.get(i).getClose();
+            }
+        }
+        return close;
+    }
+    
+    private void loadHighLow() {
+        if (high == null) {
+            high = new double[size];
+            low = new double[size];
+            StockSeries series = overlay != null ? overlay.getSeries() : null;
+            for (int i = 0; i < size; i++) {
+                if (series != null) {
+                    high[i] = series.getHigh(i);
+                    low[i] = series.getLow(i);
+                } else {
+                    StockData data = dataList.get(i);
+                    high[i] = data.getHigh();
+                    low[i] = data.getLow();
+                }
+            }
+        }
+    }
+    
+    /**
+     * 指标的输出数组：列表是序列视图时直接返回指标列，否则返回临时数组
+     */
+    private double[] target(int slot) {
+        return overlay != null
+                ? overlay.getIndicatorColumns().columnForWrite(slot, size)
+                : new double[size];
+    }
+    
+    /**
+     * 把临时数组中的结果写回 StockData（结果已在指标列中时不需要写回）
+     */
+    private void commit(int slot, double[] values) {
+        if (overlay == null) {
+            for (int i = 0; i < size; i++) {
+                dataList.get(i).setIndicatorValue(slot, values[i]);
+            }
+        }
+    }
+    
+    /**
+     * 把 ta4j 指标的值复制到数组，前 unstable 根为 NaN
+     */
+    private void copy(Indicator<Num> indicator, int unstable, double[] out) {
+        for (int i = 0; i < size; i++) {
+            out[i] = i < unstable ? Double.NaN : indicator.getValue(i).doubleValue();
+        }
+    }
+    
+    /**
+     * 从缓存取出指标列，以只读共享的方式放入覆盖层
+     * 
+     * @param spec 指标名称与参数
+     * @param slots 指标的输出槽位（顺序与放入缓存时一致）
+     * @return 是否命中
+     */
+    private boolean loadCached(String spec, int... slots) {
+        if (!cacheable()) {
+            return false;
+        }
+        double[][] columns = cache.get(overlay.getSeries(), cacheKey(spec));
+        if (columns == null) {
+            return false;
+        }
+        IndicatorColumns indicators = overlay.getIndicatorColumns();
+        for (int k = 0; k < slots.length; k++) {
+            indicators.share(slots[k], columns[k]);
+        }
+        logger.debug("命中缓存 ({}): {}", engine, spec);
+        return true;
+    }
+    
+    /**
+     * 把刚算出的指标列放入缓存（不复制，列标记为共享，本层之后修改时先复制）
+     */
+    private void storeCached(String spec, int... slots) {
+        if (!cacheable()) {
+            return;
+        }
+        IndicatorColumns indicators = overlay.getIndicatorColumns();
+        double[][] columns = new double[slots.length][];
+        for (int k = 0; k < slots.length; k++) {
+            columns[k] = indicators.column(slots[k]);
+            indicators.share(slots[k], columns[k]);
+        }
+        cache.put(overlay.getSeries(), cacheKey(spec), columns);
+    }
+    
+    /**
+     * 只有序列视图上的结果可以缓存（序列在创建本对象后追加过数据时不缓存）
+     */
+    private boolean cacheable() {
+        return cache != null && overlay != null && overlay.size() == size;
+    }
+    
+    private String cacheKey(String spec) {
+        return cacheKey(spec, engine, precision);
+    }
+    
+    /**
+     * 缓存键：指标名称与参数 + 计算引擎（ta4j 引擎再加上精度）
+     */
+    static String cacheKey(String spec, Engine engine, Precision precision) {
+        return engine == Engine.TA4J ? spec + "@" + engine + "/" + precision : spec + "@" + engine;
+    }
+    
     /**
-     * 计算简单移动平均线 (SMA) - 使用 ta4j
+     * 计算简单移动平均线 (SMA)
      * 
      * @param period 周期
      * @return 当前对象（链式调用）
      */
     public TechnicalIndicators calculateMA(int period) {
         String indicatorName = "MA" + period;
+        int slot = IndicatorRegistry.slotOf(indicatorName);
+        
+        if (loadCached(indicatorName, slot)) {
+            return this;
+        }
         
-        SMAIndicator sma = new SMAIndicator(closePrice, period);
+        double[] out = target(slot);
+        if (engine == Engine.TA4J) {
+            copy(new SMAIndicator(closePrice(), period), period - 1, out);
+        } else {
+            IndicatorKernels.sma(closes(), size, period, out);
+        }
+        commit(slot, out);
+        storeCached(indicatorName, slot);
         
-        for (int i = 0; i < dataList.size(); i++) {
-            if (i < period - 1) {
-                dataList.get(i).setIndicator(indicatorName, null);
-            } else {
-                double value = sma.getValue(i).doubleValue();
-                dataList.get(i).setIndicator(indicatorName, value);
+        logger.debug("计算完成 ({}): {}", engine, indicatorName);
+        return this;
+    }
+    
+    /**
+     * 一次计算多个周期的简单移动平均线
+     * 原始 double 引擎下对收盘价只构建一次前缀和 ({@link PrefixSumAverages})，每个周期每根K线 O(1)；
+     * 收盘价都是有限位小数时结果与逐个 {@link #calculateMA(int)} 逐位相同，否则逐个周期使用滑动窗口内核
+     * 
+     * @param periods 周期
+     * @return 当前对象（链式调用）
+     */
+    public TechnicalIndicators calculateMA(int... periods) {
+        if (engine == Engine.TA4J) {
+            for (int period : periods) {
+                calculateMA(period);
             }
+            return this;
         }
         
-        logger.debug("计算完成 (ta4j): {}", indicatorName);
+        PrefixSumAverages averages = null;
+        for (int period : periods) {
+            String indicatorName = "MA" + period;
+            int slot = IndicatorRegistry.slotOf(indicatorName);
+            if (loadCached(indicatorName, slot)) {
+                continue;
+            }
+            if (averages == null) {
+                averages = new PrefixSumAverages(closes(), size);
+            }
+            if (!averages.isExact()) {
+                calculateMA(period);
+                continue;
+            }
+            
+            double[] out = target(slot);
+            averages.sma(period, out);
+            commit(slot, out);
+            storeCached(indicatorName, slot);
+        }
+        
+        logger.debug("计算完成 ({}): MA{}", engine, Arrays.toString(periods));
         return this;
     }
     
     /**
-     * 计算指数移动平均线 (EMA) - 使用 ta4j
+     * 计算指数移动平均线 (EMA)
      * 
      * @param period 周期
      * @return 当前对象（链式调用）
      */
     public TechnicalIndicators calculateEMA(int period) {
         String indicatorName = "EMA" + period;
+        int slot = IndicatorRegistry.slotOf(indicatorName);
         
-        EMAIndicator ema = new EMAIndicator(closePrice, period);
+        if (loadCached(indicatorName, slot)) {
+            return this;
+        }
         
-        for (int i = 0; i < dataList.size(); i++) {
-            if (i < period - 1) {
-                dataList.get(i).setIndicator(indicatorName, null);
-            } else {
-                double value = ema.getValue(i).doubleValue();
-                dataList.get(i).setIndicator(indicatorName, value);
-            }
+        double[] out = target(slot);
+        if (engine == Engine.TA4J) {
+            copy(new EMAIndicator(closePrice(), period), period - 1, out);
+        } else {
+            IndicatorKernels.ema(closes(), size, period, out);
         }
+        commit(slot, out);
+        storeCached(indicatorName, slot);
         
-        logger.debug("计算完成 (ta4j): {}", indicatorName);
+        logger.debug("计算完成 ({}): {}", engine, indicatorName);
         return this;
     }
     
     /**
-     * 计算MACD指标 - 使用 ta4j
+     * 计算MACD指标
      * 
      * @param fastPeriod 快线周期 (默认12)
      * @param slowPeriod 慢线周期 (默认26)
@@ -134,33 +411,36 @@ public class TechnicalIndicators {
      * @return 当前对象（链式调用）
      */
     public TechnicalIndicators calculateMACD(int fastPeriod, int slowPeriod, int signalPeriod) {
-        MACDIndicator macd = new MACDIndicator(closePrice, fastPeriod, slowPeriod);
-        EMAIndicator signal = new EMAIndicator(macd, signalPeriod);
-        
-        int startIndex = slowPeriod - 1;
-        
-        for (int i = 0; i < dataList.size(); i++) {
-            if (i < startIndex) {
-                dataList.get(i).setIndicator("MACD", null);
-                dataList.get(i).setIndicator("MACD_SIGNAL", null);
-                dataList.get(i).setIndicator("MACD_HIST", null);
-            } else {
-                double macdValue = macd.getValue(i).doubleValue();
-                dataList.get(i).setIndicator("MACD", macdValue);
-                
-                if (i >= startIndex + signalPeriod - 1) {
-                    double signalValue = signal.getValue(i).doubleValue();
-                    dataList.get(i).setIndicator("MACD_SIGNAL", signalValue);
-                    dataList.get(i).setIndicator("MACD_HIST", macdValue - signalValue);
+        String spec = "MACD(" + fastPeriod + "," + slowPeriod + "," + signalPeriod + ")";
+        if (!loadCached(spec, MACD_SLOT, MACD_SIGNAL_SLOT, MACD_HIST_SLOT)) {
+            double[] macdOut = target(MACD_SLOT);
+            double[] signalOut = target(MACD_SIGNAL_SLOT);
+            double[] histOut = target(MACD_HIST_SLOT);
+            
+            if (engine == Engine.TA4J) {
+                MACDIndicator macd = new MACDIndicator(closePrice(), fastPeriod, slowPeriod);
+                EMAIndicator signal = new EMAIndicator(macd, signalPeriod);
+                int startIndex = slowPeriod - 1;
+                copy(macd, startIndex, macdOut);
+                copy(signal, startIndex + signalPeriod - 1, signalOut);
+                for (int i = 0; i < size; i++) {
+                    histOut[i] = macdOut[i] - signalOut[i];
                 }
+            } else {
+                IndicatorKernels.macd(closes(), size, fastPeriod, slowPeriod, signalPeriod,
+                        macdOut, signalOut, histOut);
             }
+            commit(MACD_SLOT, macdOut);
+            commit(MACD_SIGNAL_SLOT, signalOut);
+            commit(MACD_HIST_SLOT, histOut);
+            storeCached(spec, MACD_SLOT, MACD_SIGNAL_SLOT, MACD_HIST_SLOT);
         }
         
         // 同时计算 EMA 指标（兼容旧代码）
         calculateEMA(fastPeriod);
         calculateEMA(slowPeriod);
         
-        logger.debug("计算完成 (ta4j): MACD({}, {}, {})", fastPeriod, slowPeriod, signalPeriod);
+        logger.debug("计算完成 ({}): MACD({}, {}, {})", engine, fastPeriod, slowPeriod, signalPeriod);
         return this;
     }
     
@@ -174,26 +454,29 @@ public class TechnicalIndicators {
     }
     
     /**
-     * 计算RSI指标 - 使用 ta4j
+     * 计算RSI指标
      * 
      * @param period 周期 (默认14)
      * @return 当前对象（链式调用）
      */
     public TechnicalIndicators calculateRSI(int period) {
         String indicatorName = "RSI" + period;
+        int slot = IndicatorRegistry.slotOf(indicatorName);
         
-        RSIIndicator rsi = new RSIIndicator(closePrice, period);
+        if (loadCached(indicatorName, slot)) {
+            return this;
+        }
         
-        for (int i = 0; i < dataList.size(); i++) {
-            if (i < period) {
-                dataList.get(i).setIndicator(indicatorName, null);
-            } else {
-                double value = rsi.getValue(i).doubleValue();
-                dataList.get(i).setIndicator(indicatorName, value);
-            }
+        double[] out = target(slot);
+        if (engine == Engine.TA4J) {
+            copy(new RSIIndicator(closePrice(), period), period, out);
+        } else {
+            IndicatorKernels.rsi(closes(), size, period, out);
         }
+        commit(slot, out);
+        storeCached(indicatorName, slot);
         
-        logger.debug("计算完成 (ta4j): {}", indicatorName);
+        logger.debug("计算完成 ({}): {}", engine, indicatorName);
         return this;
     }
     
@@ -207,40 +490,53 @@ public class TechnicalIndicators {
     }
     
     /**
-     * 计算布林带 - 使用 ta4j
+     * 计算布林带
      * 
      * @param period 周期 (默认20)
      * @param numStd 标准差倍数 (默认2)
      * @return 当前对象（链式调用）
      */
     public TechnicalIndicators calculateBollingerBands(int period, double numStd) {
-        SMAIndicator sma = new SMAIndicator(closePrice, period);
-        StandardDeviationIndicator sd = new StandardDeviationIndicator(closePrice, period);
-        
-        BollingerBandsMiddleIndicator bbMiddle = new BollingerBandsMiddleIndicator(sma);
-        BollingerBandsUpperIndicator bbUpper = new BollingerBandsUpperIndicator(bbMiddle, sd, DecimalNum.valueOf(numStd));
-        BollingerBandsLowerIndicator bbLower = new BollingerBandsLowerIndicator(bbMiddle, sd, DecimalNum.valueOf(numStd));
-        BollingerBandWidthIndicator bbWidth = new BollingerBandWidthIndicator(bbUpper, bbMiddle, bbLower);
-        
-        for (int i = 0; i < dataList.size(); i++) {
-            if (i < period - 1) {
-                dataList.get(i).setIndicator("BB_MIDDLE", null);
-                dataList.get(i).setIndicator("BB_UPPER", null);
-                dataList.get(i).setIndicator("BB_LOWER", null);
-                dataList.get(i).setIndicator("BB_WIDTH", null);
-            } else {
-                dataList.get(i).setIndicator("BB_MIDDLE", bbMiddle.getValue(i).doubleValue());
-                dataList.get(i).setIndicator("BB_UPPER", bbUpper.getValue(i).doubleValue());
-                dataList.get(i).setIndicator("BB_LOWER", bbLower.getValue(i).doubleValue());
+        String spec = "BB(" + period + "," + numStd + ")";
+        if (!loadCached(spec, BB_MIDDLE_SLOT, BB_UPPER_SLOT, BB_LOWER_SLOT, BB_WIDTH_SLOT)) {
+            double[] middleOut = target(BB_MIDDLE_SLOT);
+            double[] upperOut = target(BB_UPPER_SLOT);
+            double[] lowerOut = target(BB_LOWER_SLOT);
+            double[] widthOut = target(BB_WIDTH_SLOT);
+            
+            if (engine == Engine.TA4J) {
+                SMAIndicator sma = new SMAIndicator(closePrice(), period);
+                StandardDeviationIndicator sd = new StandardDeviationIndicator(closePrice(), period);
+                
+                BollingerBandsMiddleIndicator bbMiddle = new BollingerBandsMiddleIndicator(sma);
+                Num k = getBarSeries().numOf(numStd);
+                BollingerBandsUpperIndicator bbUpper = new BollingerBandsUpperIndicator(bbMiddle, sd, k);
+                BollingerBandsLowerIndicator bbLower = new BollingerBandsLowerIndicator(bbMiddle, sd, k);
+                BollingerBandWidthIndicator bbWidth = new BollingerBandWidthIndicator(bbUpper, bbMiddle, bbLower);
+                
+                copy(bbMiddle, period - 1, middleOut);
+                copy(bbUpper, period - 1, upperOut);
+                copy(bbLower, period - 1, lowerOut);
+                copy(bbWidth, period - 1, widthOut);
                 // BB_WIDTH 在 ta4j 中是百分比形式
-                dataList.get(i).setIndicator("BB_WIDTH", bbWidth.getValue(i).doubleValue() / 100);
+                for (int i = 0; i < size; i++) {
+                    widthOut[i] /= 100;
+                }
+            } else {
+                IndicatorKernels.bollinger(closes(), size, period, numStd,
+                        middleOut, upperOut, lowerOut, widthOut);
             }
+            commit(BB_MIDDLE_SLOT, middleOut);
+            commit(BB_UPPER_SLOT, upperOut);
+            commit(BB_LOWER_SLOT, lowerOut);
+            commit(BB_WIDTH_SLOT, widthOut);
+            storeCached(spec, BB_MIDDLE_SLOT, BB_UPPER_SLOT, BB_LOWER_SLOT, BB_WIDTH_SLOT);
         }
         
         // 同时计算 MA（兼容旧代码）
         calculateMA(period);
         
-        logger.debug("计算完成 (ta4j): Bollinger Bands({}, {})", period, numStd);
+        logger.debug("计算完成 ({}): Bollinger Bands({}, {})", engine, period, numStd);
         return this;
     }
     
@@ -254,26 +550,30 @@ public class TechnicalIndicators {
     }
     
     /**
-     * 计算ATR (平均真实波幅) - 使用 ta4j
+     * 计算ATR (平均真实波幅)
      * 
      * @param period 周期 (默认14)
      * @return 当前对象（链式调用）
      */
     public TechnicalIndicators calculateATR(int period) {
         String indicatorName = "ATR" + period;
+        int slot = IndicatorRegistry.slotOf(indicatorName);
         
-        ATRIndicator atr = new ATRIndicator(barSeries, period);
+        if (loadCached(indicatorName, slot)) {
+            return this;
+        }
         
-        for (int i = 0; i < dataList.size(); i++) {
-            if (i < period) {
-                dataList.get(i).setIndicator(indicatorName, null);
-            } else {
-                double value = atr.getValue(i).doubleValue();
-                dataList.get(i).setIndicator(indicatorName, value);
-            }
+        double[] out = target(slot);
+        if (engine == Engine.TA4J) {
+            copy(new ATRIndicator(getBarSeries(), period), period, out);
+        } else {
+            loadHighLow();
+            IndicatorKernels.atr(high, low, closes(), size, period, out);
         }
+        commit(slot, out);
+        storeCached(indicatorName, slot);
         
-        logger.debug("计算完成 (ta4j): {}", indicatorName);
+        logger.debug("计算完成 ({}): {}", engine, indicatorName);
         return this;
     }
     
@@ -303,40 +603,24 @@ public class TechnicalIndicators {
      */
     public TechnicalIndicators calculateHistoricalVolatility(int period) {
         String indicatorName = "HV" + period;
+        int slot = IndicatorRegistry.slotOf(indicatorName);
         
         // 先确保日收益率已计算
         calculateReturns();
         
-        // 年化因子
-        double annualizationFactor = Math.sqrt(252);
-        
-        for (int i = period; i < dataList.size(); i++) {
-            // 计算过去 period 天的收益率标准差
-            double sum = 0;
-            int count = 0;
-            
-            for (int j = i - period; j < i; j++) {
-                sum += dataList.get(j).getDailyReturn();
-                count++;
-            }
-            
-            double mean = count > 0 ? sum / count : 0;
-            
-            double sumSquares = 0;
-            for (int j = i - period; j < i; j++) {
-                double diff = dataList.get(j).getDailyReturn() - mean;
-                sumSquares += diff * diff;
-            }
-            
-            // 日波动率
-            double dailyVol = count > 1 ? Math.sqrt(sumSquares / (count - 1)) : 0;
-            
-            // 年化波动率
-            double annualizedVol = dailyVol * annualizationFactor;
-            
-            dataList.get(i).setIndicator(indicatorName, annualizedVol);
+        if (loadCached(indicatorName, slot)) {
+            return this;
         }
         
+        // 第 i 天使用 [i - period, i - 1] 的收益率（样本标准差年化），滑动窗口每根K线 O(1)
+        // 收益率由收盘价计算（第一根为 0，与 IndicatorGraph 的 RETURNS 节点相同），不读覆盖层，因此可以缓存
+        double[] returns = new double[size];
+        BulkKernels.getDefault().returns(closes(), size, returns);
+        double[] out = target(slot);
+        IndicatorKernels.historicalVolatility(returns, size, period, out);
+        commit(slot, out);
+        storeCached(indicatorName, slot);
+        
         logger.debug("计算完成: {} (历史波动率)", indicatorName);
         return this;
     }
@@ -351,51 +635,57 @@ public class TechnicalIndicators {
     }
     
     /**
-     * 计算 ADX 指标 (Average Directional Index) - ta4j 新增
+     * 计算 ADX 指标 (Average Directional Index)
      * 
      * @param period 周期（默认14）
      * @return 当前对象（链式调用）
      */
     public TechnicalIndicators calculateADX(int period) {
         String indicatorName = "ADX" + period;
+        int slot = IndicatorRegistry.slotOf(indicatorName);
         
-        org.ta4j.core.indicators.adx.ADXIndicator adx = 
-                new org.ta4j.core.indicators.adx.ADXIndicator(barSeries, period);
+        if (loadCached(indicatorName, slot)) {
+            return this;
+        }
         
-        for (int i = 0; i < dataList.size(); i++) {
-            if (i < period * 2) {
-                dataList.get(i).setIndicator(indicatorName, null);
-            } else {
-                double value = adx.getValue(i).doubleValue();
-                dataList.get(i).setIndicator(indicatorName, value);
-            }
+        double[] out = target(slot);
+        if (engine == Engine.TA4J) {
+            copy(new ADXIndicator(getBarSeries(), period), period * 2, out);
+        } else {
+            loadHighLow();
+            IndicatorKernels.adx(high, low, closes(), size, period, out);
         }
+        commit(slot, out);
+        storeCached(indicatorName, slot);
         
-        logger.debug("计算完成 (ta4j): {}", indicatorName);
+        logger.debug("计算完成 ({}): {}", engine, indicatorName);
         return this;
     }
     
     /**
-     * 计算 WMA (加权移动平均) - ta4j 新增
+     * 计算 WMA (加权移动平均)
      * 
      * @param period 周期
      * @return 当前对象（链式调用）
      */
     public TechnicalIndicators calculateWMA(int period) {
         String indicatorName = "WMA" + period;
+        int slot = IndicatorRegistry.slotOf(indicatorName);
         
-        WMAIndicator wma = new WMAIndicator(closePrice, period);
+        if (loadCached(indicatorName, slot)) {
+            return this;
+        }
         
-        for (int i = 0; i < dataList.size(); i++) {
-            if (i < period - 1) {
-                dataList.get(i).setIndicator(indicatorName, null);
-            } else {
-                double value = wma.getValue(i).doubleValue();
-                dataList.get(i).setIndicator(indicatorName, value);
-            }
+        double[] out = target(slot);
+        if (engine == Engine.TA4J) {
+            copy(new WMAIndicator(closePrice(), period), period - 1, out);
+        } else {
+            IndicatorKernels.wma(closes(), size, period, out);
         }
+        commit(slot, out);
+        storeCached(indicatorName, slot);
         
-        logger.debug("计算完成 (ta4j): {}", indicatorName);
+        logger.debug("计算完成 ({}): {}", engine, indicatorName);
         return this;
     }
     
@@ -420,7 +710,7 @@ public class TechnicalIndicators {
         calculateReturns();
         calculateHistoricalVolatility(20);  // 波动率目标策略使用
         
-        logger.info("✓ 所有基础指标计算完成 (使用 ta4j)");
+        logger.info("✓ 所有基础指标计算完成 (引擎: {})", engine);
         return this;
     }
     
@@ -433,12 +723,78 @@ public class TechnicalIndicators {
         return dataList;
     }
     
+    public Engine getEngine() {
+        return engine;
+    }
+    
+    public Precision getPrecision() {
+        return precision;
+    }
+    
+    /**
+     * 设置 ta4j 引擎的全局默认精度（只影响之后创建的实例）
+     * 
+     * @param precision 数值精度
+     */
+    public static void setDefaultPrecision(Precision precision) {
+        if (precision == null) {
+            throw new IllegalArgumentException("精度不能为空");
+        }
+        defaultPrecision = precision;
+    }
+    
+    public static Precision getDefaultPrecision() {
+        return defaultPrecision;
+    }
+    
+    /**
+     * 指定本实例使用的指标缓存（链式调用）
+     * 
+     * @param cache 指标缓存，null 表示不使用缓存
+     * @return 当前对象
+     */
+    public TechnicalIndicators withCache(IndicatorCache cache) {
+        this.cache = cache;
+        return this;
+    }
+    
+    public IndicatorCache getCache() {
+        return cache;
+    }
+    
+    /**
+     * 设置全局共享的指标缓存（只影响之后创建的实例）
+     * 
+     * @param cache 指标缓存，null 表示默认不缓存
+     */
+    public static void setDefaultCache(IndicatorCache cache) {
+        defaultCache = cache;
+    }
+    
+    public static IndicatorCache getDefaultCache() {
+        return defaultCache;
+    }
+    
     /**
-     * 获取 ta4j BarSeries（供高级用途）
+     * 获取 ta4j BarSeries（供高级用途，首次调用时获取）
+     * 列表是序列视图时从 {@link BarSeriesCache} 取得共享的 BarSeries（只读），否则按列表构建
      * 
      * @return BarSeries
      */
     public BarSeries getBarSeries() {
+        if (barSeries == null) {
+            SeriesOverlay source = SeriesOverlay.of(dataList);
+            barSeries = source != null && source.size() == size && source.getSeries().size() == size
+                    ? barSeriesCache.get(source.getSeries(), precision)
+                    : buildBarSeries(dataList);
+        }
         return barSeries;
     }
+    
+    /**
+     * 全局共享的 ta4j BarSeries 缓存（列表是序列视图时使用）
+     */
+    public static BarSeriesCache getBarSeriesCache() {
+        return barSeriesCache;
+    }
 }
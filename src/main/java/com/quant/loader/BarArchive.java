@@ -0,0 +1,624 @@
+package com.quant.loader;
+
+import com.quant.model.StockSeries;
+import com.quant.model.StringDictionary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * 压缩列式K线归档
+ * 面向长历史（如多年分钟线）的压缩存储格式，按行块分段压缩，读取时只解压需要的日期块
+ * 
+ * 文件布局（大端序）：
+ *   - 文件头: magic "QARC", 版本号, 行数, 块大小, 块数
+ *   - 字符串表: 条目数 + (长度, UTF-8 字节)...，即序列字典
+ *   - 块索引: 每块 (行数, 最小交易日, 最大交易日, 偏移, 长度)
+ *   - 数据块: 每块内按列依次编码，块之间字节对齐，可以独立解压
+ * 
+ * 列编码：
+ *   - 交易日、time、id、symbolId、sessionId、volume、count: 与上一行的差值，ZigZag + 变长整数
+ *   - 股票代码、K线类型、市场代码: 字典编码的游程编码 (编码, 连续行数)
+ *   - 价格、vwap、amount: 块内所有值都是有限位小数时，按 10^k 放大为整数后做差值编码；
+ *     否则使用 Gorilla 风格的 XOR 编码（与上一个值异或，只保存有效位）
+ * 
+ * 按日期过滤读取时，最小/最大交易日与过滤范围不相交的块直接跳过，不解压
+ */
+public final class BarArchive {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BarArchive.class);
+    
+    /** 文件魔数 "QARC" */
+    public static final int MAGIC = 0x51415243;
+    
+    /** 格式版本 */
+    public static final int VERSION = 1;
+    
+    /** 默认每块行数 */
+    public static final int DEFAULT_BLOCK_SIZE = 4096;
+    
+    // 块索引条目: rows(4) + minDay(4) + maxDay(4) + offset(8) + length(4)
+    private static final int INDEX_ENTRY_SIZE = 24;
+    
+    // 浮点列的小数放大倍数 10^k (k = 0..MAX_SCALE)
+    private static final int MAX_SCALE = 8;
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8};
+    
+    // 放大后的整数不超过 2^53，保证 long 与 double 之间的转换精确
+    private static final double MAX_SCALED = 9007199254740992.0;
+    
+    private BarArchive() {
+    }
+    
+    // ========== 写入 ==========
+    
+    /**
+     * 保存序列（默认块大小）
+     * 
+     * @param series 股票序列
+     * @param path 目标文件
+     * @throws IOException 文件写入异常
+     */
+    public static void write(StockSeries series, Path path) throws IOException {
+        write(series, path, DEFAULT_BLOCK_SIZE);
+    }
+    
+    /**
+     * 保存序列
+     * 先写入同目录下的临时文件再原子替换
+     * 
+     * @param series 股票序列（按日期排序时块索引最有效）
+     * @param path 目标文件
+     * @param blockSize 每块行数
+     * @throws IOException 文件写入异常
+     */
+    public static void write(StockSeries series, Path path, int blockSize) throws IOException {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("块大小必须大于0");
+        }
+        int rows = series.size();
+        int blockCount = (rows + blockSize - 1) / blockSize;
+        
+        StringDictionary dictionary = series.getDictionary();
+        byte[][] strings = new byte[dictionary.size()][];
+        int headerBytes = 20 + 4;
+        for (int code = 0; code < strings.length; code++) {
+            strings[code] = dictionary.decode(code).getBytes(StandardCharsets.UTF_8);
+            headerBytes += 4 + strings[code].length;
+        }
+        headerBytes += blockCount * INDEX_ENTRY_SIZE;
+        
+        // 逐块编码
+        BitWriter writer = new BitWriter((int) Math.min(1 << 30, Math.max(1024, rows * 16L)));
+        int[] blockStart = new int[blockCount + 1];
+        int[] minDay = new int[blockCount];
+        int[] maxDay = new int[blockCount];
+        for (int b = 0; b < blockCount; b++) {
+            int from = b * blockSize;
+            int to = Math.min(rows, from + blockSize);
+            blockStart[b] = writer.size();
+            encodeBlock(series, from, to, writer);
+            writer.alignToByte();
+            minDay[b] = Integer.MAX_VALUE;
+            maxDay[b] = Integer.MIN_VALUE;
+            for (int i = from; i < to; i++) {
+                minDay[b] = Math.min(minDay[b], series.getEpochDay(i));
+                maxDay[b] = Math.max(maxDay[b], series.getEpochDay(i));
+            }
+        }
+        blockStart[blockCount] = writer.size();
+        
+        ByteBuffer header = ByteBuffer.allocate(headerBytes);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putInt(rows);
+        header.putInt(blockSize);
+        header.putInt(blockCount);
+        header.putInt(strings.length);
+        for (byte[] bytes : strings) {
+            header.putInt(bytes.length);
+            header.put(bytes);
+        }
+        for (int b = 0; b < blockCount; b++) {
+            header.putInt(Math.min(rows, (b + 1) * blockSize) - b * blockSize);
+            header.putInt(minDay[b]);
+            header.putInt(maxDay[b]);
+            header.putLong(headerBytes + (long) blockStart[b]);
+            header.putInt(blockStart[b + 1] - blockStart[b]);
+        }
+        header.flip();
+        
+        Path dir = path.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(dir, path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer payload = ByteBuffer.wrap(writer.bytes(), 0, writer.size());
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+                while (payload.hasRemaining()) {
+                    channel.write(payload);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        
+        logger.debug("已写入压缩归档 {}: {} 行, {} 块, {} 字节 (定长格式约 {} 字节)",
+                path, rows, blockCount, headerBytes + writer.size(), (long) rows * BinaryBarFile.RECORD_SIZE);
+    }
+    
+    private static void encodeBlock(StockSeries series, int from, int to, BitWriter out) {
+        encodeDeltas(out, from, to, series::getEpochDay);
+        encodeDeltas(out, from, to, series::getTime);
+        encodeDeltas(out, from, to, series::getId);
+        encodeDeltas(out, from, to, series::getSymbolId);
+        encodeDeltas(out, from, to, series::getSessionId);
+        encodeDeltas(out, from, to, series::getVolume);
+        encodeDeltas(out, from, to, series::getCount);
+        
+        encodeRuns(out, from, to, series::getSymbolCode);
+        encodeRuns(out, from, to, series::getKlineTypeCode);
+        encodeRuns(out, from, to, series::getMarketCcCode);
+        
+        encodeDoubles(out, from, to, series::getOpen);
+        encodeDoubles(out, from, to, series::getHigh);
+        encodeDoubles(out, from, to, series::getLow);
+        encodeDoubles(out, from, to, series::getClose);
+        encodeDoubles(out, from, to, series::getVwap);
+        encodeDoubles(out, from, to, series::getAmount);
+    }
+    
+    /**
+     * 差值编码：与上一行的差值 (块内第一行与 0 的差值)，缺失值标记的溢出在解码时按补码还原
+     */
+    private static void encodeDeltas(BitWriter out, int from, int to, LongColumn column) {
+        long prev = 0;
+        for (int i = from; i < to; i++) {
+            long value = column.get(i);
+            out.writeVarLong(value - prev);
+            prev = value;
+        }
+    }
+    
+    /**
+     * 游程编码：(编码 + 1, 连续行数)，编码 -1 (null) 存为 0
+     */
+    private static void encodeRuns(BitWriter out, int from, int to, IntColumn column) {
+        int i = from;
+        while (i < to) {
+            int code = column.get(i);
+            int run = 1;
+            while (i + run < to && column.get(i + run) == code) {
+                run++;
+            }
+            out.writeVarLong(code + 1L);
+            out.writeVarLong(run);
+            i += run;
+        }
+    }
+    
+    /**
+     * 浮点列编码
+     * 先写 4 位模式：0 表示 Gorilla XOR 编码，k + 1 表示放大 10^k 后的整数差值编码
+     */
+    private static void encodeDoubles(BitWriter out, int from, int to, DoubleColumn column) {
+        int scale = decimalScale(from, to, column);
+        if (scale < 0) {
+            out.writeBits(0, 4);
+            encodeXor(out, from, to, column);
+            return;
+        }
+        out.writeBits(scale + 1, 4);
+        double factor = POWERS_OF_TEN[scale];
+        long prev = 0;
+        for (int i = from; i < to; i++) {
+            long value = Math.round(column.get(i) * factor);
+            out.writeVarLong(value - prev);
+            prev = value;
+        }
+    }
+    
+    /**
+     * 找到使块内所有值都能由 整数 / 10^k 精确还原的最小 k
+     * 
+     * @return k，不存在时返回 -1（含 NaN、无穷、-0.0 或位数过多）
+     */
+    private static int decimalScale(int from, int to, DoubleColumn column) {
+        int scale = 0;
+        for (int i = from; i < to; i++) {
+            double value = column.get(i);
+            while (!isExactDecimal(value, scale)) {
+                if (++scale > MAX_SCALE) {
+                    return -1;
+                }
+            }
+        }
+        return scale;
+    }
+    
+    private static boolean isExactDecimal(double value, int scale) {
+        double factor = POWERS_OF_TEN[scale];
+        double scaled = value * factor;
+        if (!(Math.abs(scaled) < MAX_SCALED)) {
+            return false;
+        }
+        return Double.doubleToRawLongBits(Math.round(scaled) / factor) == Double.doubleToRawLongBits(value);
+    }
+    
+    /**
+     * Gorilla XOR 编码
+     *   - 第一个值保存完整的 64 位
+     *   - 与上一个值相同: 写 '0'
+     *   - 有效位落在上一次的窗口内: 写 '10' + 窗口内的位
+     *   - 否则: 写 '11' + 前导零个数 (5 位) + 有效位数 - 1 (6 位) + 有效位
+     */
+    private static void encodeXor(BitWriter out, int from, int to, DoubleColumn column) {
+        if (from >= to) {
+            return;
+        }
+        long prev = Double.doubleToRawLongBits(column.get(from));
+        out.writeBits(prev, 64);
+        int prevLeading = -1;
+        int prevTrailing = 0;
+        for (int i = from + 1; i < to; i++) {
+            long bits = Double.doubleToRawLongBits(column.get(i));
+            long xor = bits ^ prev;
+            prev = bits;
+            if (xor == 0) {
+                out.writeBits(0, 1);
+                continue;
+            }
+            out.writeBits(1, 1);
+            int leading = Math.min(31, Long.numberOfLeadingZeros(xor));
+            int trailing = Long.numberOfTrailingZeros(xor);
+            if (prevLeading >= 0 && leading >= prevLeading && trailing >= prevTrailing) {
+                out.writeBits(0, 1);
+                out.writeBits(xor >>> prevTrailing, 64 - prevLeading - prevTrailing);
+            } else {
+                int significant = 64 - leading - trailing;
+                out.writeBits(1, 1);
+                out.writeBits(leading, 5);
+                out.writeBits(significant - 1, 6);
+                out.writeBits(xor >>> trailing, significant);
+                prevLeading = leading;
+                prevTrailing = trailing;
+            }
+        }
+    }
+    
+    // ========== 读取 ==========
+    
+    /**
+     * 读取整个归档
+     * 
+     * @param path 归档文件
+     * @return 股票序列
+     * @throws IOException 文件读取异常或格式错误
+     */
+    public static StockSeries read(Path path) throws IOException {
+        return read(path, LoadFilter.ALL);
+    }
+    
+    /**
+     * 读取归档，只解压与日期范围相交的块，并只保留符合过滤条件的行
+     * 
+     * @param path 归档文件
+     * @param filter 股票代码/日期过滤条件
+     * @return 股票序列
+     * @throws IOException 文件读取异常或格式错误
+     */
+    public static StockSeries read(Path path, LoadFilter filter) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 24 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("不是有效的压缩K线归档: " + path);
+            }
+            int rows = buffer.getInt();
+            int blockSize = buffer.getInt();
+            int blockCount = buffer.getInt();
+            
+            boolean unfiltered = filter.isUnfiltered();
+            StockSeries series = new StockSeries(unfiltered ? rows : 16);
+            StringDictionary dictionary = series.getDictionary();
+            
+            int stringCount = buffer.getInt();
+            int[] codes = new int[stringCount];
+            boolean[] acceptedSymbols = new boolean[stringCount + 1];
+            for (int i = 0; i < stringCount; i++) {
+                byte[] bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                String value = new String(bytes, StandardCharsets.UTF_8);
+                codes[i] = dictionary.encode(value);
+                acceptedSymbols[i + 1] = filter.acceptsSymbol(value);
+            }
+            acceptedSymbols[0] = filter.acceptsSymbol(null);
+            
+            Block block = new Block(blockSize);
+            int decodedBlocks = 0;
+            for (int b = 0; b < blockCount; b++) {
+                int entry = buffer.position() + b * INDEX_ENTRY_SIZE;
+                int blockRows = buffer.getInt(entry);
+                int minDay = buffer.getInt(entry + 4);
+                int maxDay = buffer.getInt(entry + 8);
+                long offset = buffer.getLong(entry + 12);
+                if (!unfiltered && !filter.overlapsDays(minDay, maxDay)) {
+                    continue;
+                }
+                if (offset > Integer.MAX_VALUE) {
+                    throw new IOException("归档文件过大: " + path);
+                }
+                
+                block.decode(new BitReader(buffer, (int) offset), blockRows);
+                decodedBlocks++;
+                for (int i = 0; i < blockRows; i++) {
+                    if (!unfiltered && (!acceptedSymbols[block.symbol[i] + 1] || !filter.acceptsDay(block.epochDay[i]))) {
+                        continue;
+                    }
+                    series.appendEncoded(block.id[i], lookup(codes, block.symbol[i]), block.symbolId[i],
+                            lookup(codes, block.klineType[i]), block.time[i], lookup(codes, block.marketCc[i]),
+                            block.epochDay[i], block.open[i], block.high[i], block.low[i], block.close[i],
+                            block.vwap[i], block.volume[i], block.amount[i], block.count[i], block.sessionId[i]);
+                }
+            }
+            
+            logger.debug("读取压缩归档 {}: 解压 {}/{} 块, {} 行", path, decodedBlocks, blockCount, series.size());
+            return series;
+        }
+    }
+    
+    private static int lookup(int[] codes, int ref) {
+        return ref == StringDictionary.NULL_CODE ? StringDictionary.NULL_CODE : codes[ref];
+    }
+    
+    /**
+     * 解压后的一个数据块（整个读取过程复用）
+     */
+    private static final class Block {
+        final int[] epochDay;
+        final long[] time;
+        final long[] id;
+        final long[] symbolId;
+        final int[] sessionId;
+        final long[] volume;
+        final long[] count;
+        final int[] symbol;
+        final int[] klineType;
+        final int[] marketCc;
+        final double[] open;
+        final double[] high;
+        final double[] low;
+        final double[] close;
+        final double[] vwap;
+        final double[] amount;
+        
+        Block(int capacity) {
+            epochDay = new int[capacity];
+            time = new long[capacity];
+            id = new long[capacity];
+            symbolId = new long[capacity];
+            sessionId = new int[capacity];
+            volume = new long[capacity];
+            count = new long[capacity];
+            symbol = new int[capacity];
+            klineType = new int[capacity];
+            marketCc = new int[capacity];
+            open = new double[capacity];
+            high = new double[capacity];
+            low = new double[capacity];
+            close = new double[capacity];
+            vwap = new double[capacity];
+            amount = new double[capacity];
+        }
+        
+        void decode(BitReader in, int rows) {
+            long prev = 0;
+            for (int i = 0; i < rows; i++) {
+                prev += in.readVarLong();
+                epochDay[i] = (int) prev;
+            }
+            decodeDeltas(in, rows, time);
+            decodeDeltas(in, rows, id);
+            decodeDeltas(in, rows, symbolId);
+            prev = 0;
+            for (int i = 0; i < rows; i++) {
+                prev += in.readVarLong();
+                sessionId[i] = (int) prev;
+            }
+            decodeDeltas(in, rows, volume);
+            decodeDeltas(in, rows, count);
+            decodeRuns(in, rows, symbol);
+            decodeRuns(in, rows, klineType);
+            decodeRuns(in, rows, marketCc);
+            decodeDoubles(in, rows, open);
+            decodeDoubles(in, rows, high);
+            decodeDoubles(in, rows, low);
+            decodeDoubles(in, rows, close);
+            decodeDoubles(in, rows, vwap);
+            decodeDoubles(in, rows, amount);
+        }
+        
+        private static void decodeDeltas(BitReader in, int rows, long[] column) {
+            long prev = 0;
+            for (int i = 0; i < rows; i++) {
+                prev += in.readVarLong();
+                column[i] = prev;
+            }
+        }
+        
+        private static void decodeRuns(BitReader in, int rows, int[] column) {
+            int i = 0;
+            while (i < rows) {
+                int code = (int) in.readVarLong() - 1;
+                int run = (int) in.readVarLong();
+                Arrays.fill(column, i, i + run, code);
+                i += run;
+            }
+        }
+        
+        private static void decodeDoubles(BitReader in, int rows, double[] column) {
+            int mode = (int) in.readBits(4);
+            if (mode > 0) {
+                double factor = POWERS_OF_TEN[mode - 1];
+                long prev = 0;
+                for (int i = 0; i < rows; i++) {
+                    prev += in.readVarLong();
+                    column[i] = prev / factor;
+                }
+                return;
+            }
+            if (rows == 0) {
+                return;
+            }
+            long prev = in.readBits(64);
+            column[0] = Double.longBitsToDouble(prev);
+            int leading = 0;
+            int trailing = 0;
+            for (int i = 1; i < rows; i++) {
+                if (in.readBits(1) != 0) {
+                    if (in.readBits(1) != 0) {
+                        leading = (int) in.readBits(5);
+                        int significant = (int) in.readBits(6) + 1;
+                        trailing = 64 - leading - significant;
+                    }
+                    prev ^= in.readBits(64 - leading - trailing) << trailing;
+                }
+                column[i] = Double.longBitsToDouble(prev);
+            }
+        }
+    }
+    
+    private interface LongColumn {
+        long get(int index);
+    }
+    
+    private interface IntColumn {
+        int get(int index);
+    }
+    
+    private interface DoubleColumn {
+        double get(int index);
+    }
+    
+    /**
+     * 位写入器（高位在前）
+     */
+    private static final class BitWriter {
+        
+        private byte[] bytes;
+        private int size;
+        private long acc;
+        private int accBits;
+        
+        BitWriter(int capacity) {
+            bytes = new byte[capacity];
+        }
+        
+        void writeBits(long value, int n) {
+            if (n > 32) {
+                writeBits(value >>> 32, n - 32);
+                writeBits(value & 0xFFFFFFFFL, 32);
+                return;
+            }
+            acc = (acc << n) | (value & ((1L << n) - 1));
+            accBits += n;
+            while (accBits >= 8) {
+                accBits -= 8;
+                put((byte) (acc >>> accBits));
+            }
+            acc &= (1L << accBits) - 1;
+        }
+        
+        /**
+         * ZigZag + 变长整数（每字节 7 位）
+         */
+        void writeVarLong(long value) {
+            long zigzag = (value << 1) ^ (value >> 63);
+            while ((zigzag & ~0x7FL) != 0) {
+                writeBits((zigzag & 0x7F) | 0x80, 8);
+                zigzag >>>= 7;
+            }
+            writeBits(zigzag, 8);
+        }
+        
+        /**
+         * 补齐到字节边界（块结束时调用）
+         */
+        void alignToByte() {
+            if (accBits > 0) {
+                writeBits(0, 8 - accBits);
+            }
+        }
+        
+        private void put(byte b) {
+            if (size == bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length + (bytes.length >> 1));
+            }
+            bytes[size++] = b;
+        }
+        
+        int size() {
+            return size;
+        }
+        
+        byte[] bytes() {
+            return bytes;
+        }
+    }
+    
+    /**
+     * 位读取器（直接读取映射的缓冲区）
+     */
+    private static final class BitReader {
+        
+        private final ByteBuffer buffer;
+        private int position;
+        private long acc;
+        private int accBits;
+        
+        BitReader(ByteBuffer buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+        
+        long readBits(int n) {
+            if (n > 32) {
+                long high = readBits(n - 32);
+                return (high << 32) | readBits(32);
+            }
+            while (accBits < n) {
+                acc = (acc << 8) | (buffer.get(position++) & 0xFF);
+                accBits += 8;
+            }
+            accBits -= n;
+            long value = (acc >>> accBits) & ((1L << n) - 1);
+            acc &= (1L << accBits) - 1;
+            return value;
+        }
+        
+        long readVarLong() {
+            long zigzag = 0;
+            int shift = 0;
+            long b;
+            do {
+                b = readBits(8);
+                zigzag |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+    }
+}
@@ -0,0 +1,410 @@
+package com.quant.loader;
+
+import com.quant.model.StockSeries;
+import com.quant.model.StringDictionary;
+import com.quant.model.Universe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 批量数据加载器
+ * 在固定大小的线程池上并发解码多个文件 / 多个工作表，
+ * 然后按股票代码合并为按交易日期排序的序列，并记录每个文件的耗时
+ * 
+ * 支持 .xlsx / .xls (通过 {@link ExcelDataLoader}) 和 .csv / .tsv / .txt (通过 {@link CsvDataLoader})
+ * 
+ * 使用示例：
+ *   BatchDataLoader.BatchResult result = new BatchDataLoader(8).loadFiles(paths);
+ *   StockSeries qqq = result.getSeries("QQQ.NB");
+ *   result.printReport();
+ */
+public class BatchDataLoader {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BatchDataLoader.class);
+    
+    private final int threads;
+    private final ExcelDataLoader excelLoader;
+    private final CsvDataLoader csvLoader;
+    
+    /**
+     * 构造函数（线程数等于 CPU 核数）
+     */
+    public BatchDataLoader() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+    
+    /**
+     * 构造函数
+     * 
+     * @param threads 并发线程数
+     */
+    public BatchDataLoader(int threads) {
+        this(threads, new ExcelDataLoader(), new CsvDataLoader());
+    }
+    
+    /**
+     * 构造函数
+     * 
+     * @param threads 并发线程数
+     * @param excelLoader Excel 加载器（共享配置，如缓存和流式解析阈值）
+     * @param csvLoader CSV 加载器
+     */
+    public BatchDataLoader(int threads, ExcelDataLoader excelLoader, CsvDataLoader csvLoader) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("线程数必须大于0");
+        }
+        this.threads = threads;
+        this.excelLoader = excelLoader;
+        this.csvLoader = csvLoader;
+    }
+    
+    /**
+     * 加载每个文件的第一个工作表
+     * 
+     * @param filePaths 文件路径列表
+     * @return 批量加载结果
+     */
+    public BatchResult loadFiles(Collection<String> filePaths) {
+        return loadFiles(filePaths, false, LoadFilter.ALL);
+    }
+    
+    /**
+     * 批量加载
+     * 
+     * @param filePaths 文件路径列表
+     * @param allSheets 是否加载 Excel 文件的所有工作表（否则只加载第一个）
+     * @param filter 股票代码/日期过滤条件（在解码时应用）
+     * @return 批量加载结果
+     */
+    public BatchResult loadFiles(Collection<String> filePaths, boolean allSheets, LoadFilter filter) {
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, Math.max(1, filePaths.size())));
+        
+        try {
+            // 第一阶段：确定每个文件要加载的工作表
+            // 通过 Workbook (DOM) 解析的 Excel 文件加载所有工作表时整体作为一个任务，工作簿只解析一次（不单独统计工作表数量）
+            List<Future<Integer>> sheetCounts = new ArrayList<>();
+            for (String path : filePaths) {
+                sheetCounts.add(allSheets && isWholeWorkbook(path) ? null
+                        : executor.submit(() -> allSheets ? sheetCount(path) : 1));
+            }
+            
+            // 第二阶段：每个 (文件, 工作表) 作为一个独立任务解码
+            List<Task> tasks = new ArrayList<>();
+            List<FileTiming> failures = new ArrayList<>();
+            Iterator<Future<Integer>> counts = sheetCounts.iterator();
+            for (String path : filePaths) {
+                Future<Integer> count = counts.next();
+                if (count == null) {
+                    Task task = new Task(path, 0);
+                    task.future = executor.submit(() -> loadWorkbook(task.path, filter));
+                    tasks.add(task);
+                    continue;
+                }
+                int sheets;
+                try {
+                    sheets = count.get();
+                } catch (ExecutionException e) {
+                    failures.add(new FileTiming(path, 0, 0, 0, e.getCause().getMessage()));
+                    continue;
+                }
+                for (int sheet = 0; sheet < sheets; sheet++) {
+                    Task task = new Task(path, sheet);
+                    task.future = executor.submit(() -> Collections.singletonList(
+                            loadOne(task.path, task.sheetIndex, filter)));
+                    tasks.add(task);
+                }
+            }
+            
+            // 合并：按任务顺序追加，保证结果与线程调度无关；合并后的序列共享一个字典
+            StringDictionary dictionary = new StringDictionary();
+            Map<String, StockSeries> seriesBySymbol = new TreeMap<>();
+            List<FileTiming> timings = new ArrayList<>(failures);
+            for (Task task : tasks) {
+                List<Loaded> loadedSheets;
+                try {
+                    loadedSheets = task.future.get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    logger.warn("加载失败: {} [sheet {}]: {}", task.path, task.sheetIndex, cause.getMessage());
+                    timings.add(new FileTiming(task.path, task.sheetIndex, 0, 0, cause.getMessage()));
+                    continue;
+                }
+                for (Loaded loaded : loadedSheets) {
+                    timings.add(loaded.timing);
+                    if (loaded.series != null) {
+                        merge(loaded.series, defaultSymbol(task.path), dictionary, seriesBySymbol);
+                    }
+                }
+            }
+            
+            for (StockSeries series : seriesBySymbol.values()) {
+                series.sortByTradeDate();
+            }
+            
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            BatchResult result = new BatchResult(seriesBySymbol, timings, elapsedMillis);
+            logger.info("✓ 批量加载完成: {} 个任务, {} 个股票, {} 条记录, 耗时 {} ms (线程数 {})",
+                    timings.size(), seriesBySymbol.size(), result.getTotalRows(), elapsedMillis, threads);
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("批量加载被中断", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    /**
+     * 加载单个 (文件, 工作表)
+     */
+    private Loaded loadOne(String path, int sheetIndex, LoadFilter filter) throws IOException {
+        long start = System.nanoTime();
+        StockSeries series = isCsv(path)
+                ? csvLoader.loadSeries(path, filter)
+                : excelLoader.loadSeries(path, sheetIndex, filter);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        logger.debug("已加载 {} [sheet {}]: {} 条记录, {} ms", path, sheetIndex, series.size(), millis);
+        return new Loaded(series, new FileTiming(path, sheetIndex, series.size(), millis, null));
+    }
+    
+    /**
+     * 加载 Excel 文件的所有工作表（工作簿只解析一次，耗时记在第一个需要解析的工作表上）
+     * 单个工作表失败时只记录该工作表的失败，不影响其余工作表
+     */
+    private List<Loaded> loadWorkbook(String path, LoadFilter filter) throws IOException {
+        try (ExcelDataLoader.Sheets sheets = excelLoader.openSheets(path)) {
+            int count = sheets.getCount();
+            List<Loaded> result = new ArrayList<>(count);
+            for (int sheet = 0; sheet < count; sheet++) {
+                long start = System.nanoTime();
+                try {
+                    StockSeries series = sheets.load(sheet, filter);
+                    long millis = (System.nanoTime() - start) / 1_000_000;
+                    logger.debug("已加载 {} [sheet {}]: {} 条记录, {} ms", path, sheet, series.size(), millis);
+                    result.add(new Loaded(series, new FileTiming(path, sheet, series.size(), millis, null)));
+                } catch (IOException | RuntimeException e) {
+                    logger.warn("加载失败: {} [sheet {}]: {}", path, sheet, e.getMessage());
+                    result.add(new Loaded(null, new FileTiming(path, sheet, 0, 0, e.getMessage())));
+                }
+            }
+            return result;
+        }
+    }
+    
+    /**
+     * 按股票代码把一个序列的行分配到合并结果中（无股票代码的行使用文件名）
+     */
+    private static void merge(StockSeries source, String fallbackSymbol, StringDictionary dictionary,
+                              Map<String, StockSeries> seriesBySymbol) {
+        // 按源序列的股票代码编码缓存目标序列，每个代码只查一次 Map（最后一格对应 null）
+        StockSeries[] targets = new StockSeries[source.getDictionary().size() + 1];
+        int[] rowCounts = countRowsBySymbol(source);
+        for (int i = 0; i < source.size(); i++) {
+            int slot = symbolSlot(source, i, targets.length);
+            StockSeries target = targets[slot];
+            if (target == null) {
+                String symbol = source.getSymbol(i);
+                String key = symbol != null && !symbol.isEmpty() ? symbol : fallbackSymbol;
+                int capacity = rowCounts[slot];
+                target = seriesBySymbol.computeIfAbsent(key, k -> new StockSeries(capacity, dictionary));
+                targets[slot] = target;
+            }
+            target.append(source, i);
+        }
+    }
+    
+    /**
+     * 统计源序列中每个股票代码编码的行数（最后一格对应 null），用于按实际行数创建目标序列，
+     * 避免每个股票都按整个源序列的长度分配列数组
+     */
+    static int[] countRowsBySymbol(StockSeries source) {
+        int[] counts = new int[source.getDictionary().size() + 1];
+        for (int i = 0; i < source.size(); i++) {
+            counts[symbolSlot(source, i, counts.length)]++;
+        }
+        return counts;
+    }
+    
+    /**
+     * 第 i 行的股票代码编码在按编码索引的数组中的位置（null 放在最后一格）
+     */
+    static int symbolSlot(StockSeries source, int i, int length) {
+        int code = source.getSymbolCode(i);
+        return code == StringDictionary.NULL_CODE ? length - 1 : code;
+    }
+    
+    /**
+     * 获取文件中的工作表数量（CSV 视为 1 个）
+     */
+    static int sheetCount(String path) throws IOException {
+        return isCsv(path) ? 1 : ExcelDataLoader.sheetCount(path);
+    }
+    
+    /**
+     * 是否整体加载所有工作表：通过 Workbook (DOM) 解析的 Excel 文件按工作表拆分任务会重复解析整个工作簿
+     */
+    private boolean isWholeWorkbook(String path) {
+        return !isCsv(path) && !excelLoader.isStreamed(path);
+    }
+    
+    static boolean isCsv(String path) {
+        String lower = path.toLowerCase();
+        return lower.endsWith(".csv") || lower.endsWith(".tsv") || lower.endsWith(".txt");
+    }
+    
+    static String defaultSymbol(String path) {
+        String name = new File(path).getName();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+    
+    /**
+     * 单个加载任务（一个工作表，或整体加载时一个工作簿的所有工作表）
+     */
+    private static final class Task {
+        final String path;
+        final int sheetIndex;
+        Future<List<Loaded>> future;
+        
+        Task(String path, int sheetIndex) {
+            this.path = path;
+            this.sheetIndex = sheetIndex;
+        }
+    }
+    
+    /**
+     * 单个工作表的加载结果（失败时 series 为 null）
+     */
+    private static final class Loaded {
+        final StockSeries series;
+        final FileTiming timing;
+        
+        Loaded(StockSeries series, FileTiming timing) {
+            this.series = series;
+            this.timing = timing;
+        }
+    }
+    
+    /**
+     * 单个文件 / 工作表的加载耗时
+     */
+    public static class FileTiming {
+        private final String path;
+        private final int sheetIndex;
+        private final int rows;
+        private final long millis;
+        private final String error;
+        
+        public FileTiming(String path, int sheetIndex, int rows, long millis, String error) {
+            this.path = path;
+            this.sheetIndex = sheetIndex;
+            this.rows = rows;
+            this.millis = millis;
+            this.error = error;
+        }
+        
+        public String getPath() { return path; }
+        public int getSheetIndex() { return sheetIndex; }
+        public int getRows() { return rows; }
+        public long getMillis() { return millis; }
+        public String getError() { return error; }
+        public boolean isSuccess() { return error == null; }
+        
+        @Override
+        public String toString() {
+            if (error != null) {
+                return String.format("%s [sheet %d]: 失败 - %s", path, sheetIndex, error);
+            }
+            return String.format("%s [sheet %d]: %d 条记录, %d ms", path, sheetIndex, rows, millis);
+        }
+    }
+    
+    /**
+     * 批量加载结果
+     */
+    public static class BatchResult {
+        private final Map<String, StockSeries> seriesBySymbol;
+        private final List<FileTiming> timings;
+        private final long elapsedMillis;
+        
+        public BatchResult(Map<String, StockSeries> seriesBySymbol, List<FileTiming> timings, long elapsedMillis) {
+            this.seriesBySymbol = Collections.unmodifiableMap(seriesBySymbol);
+            this.timings = Collections.unmodifiableList(timings);
+            this.elapsedMillis = elapsedMillis;
+        }
+        
+        /**
+         * 获取某个股票的序列（按交易日期升序）
+         * 
+         * @param symbol 股票代码
+         * @return 序列，不存在时返回 null
+         */
+        public StockSeries getSeries(String symbol) {
+            return seriesBySymbol.get(symbol);
+        }
+        
+        public Map<String, StockSeries> getSeriesBySymbol() { return seriesBySymbol; }
+        
+        /**
+         * 把所有股票对齐到统一的交易日历上
+         * 
+         * @return 多股票数据集
+         */
+        public Universe toUniverse() {
+            return new Universe(seriesBySymbol.values());
+        }
+
+        public List<FileTiming> getTimings() { return timings; }
+        public long getElapsedMillis() { return elapsedMillis; }
+        
+        public int getTotalRows() {
+            int total = 0;
+            for (StockSeries series : seriesBySymbol.values()) {
+                total += series.size();
+            }
+            return total;
+        }
+        
+        public int getFailureCount() {
+            int failures = 0;
+            for (FileTiming timing : timings) {
+                if (!timing.isSuccess()) {
+                    failures++;
+                }
+            }
+            return failures;
+        }
+        
+        /**
+         * 打印每个文件的耗时报告
+         */
+        public void printReport() {
+            System.out.println("\n========== 批量加载报告 ==========");
+            long decodeMillis = 0;
+            for (FileTiming timing : timings) {
+                System.out.println("  " + timing);
+                decodeMillis += timing.getMillis();
+            }
+            System.out.println("----------------------------------");
+            System.out.printf("  任务数: %d (失败 %d)\n", timings.size(), getFailureCount());
+            System.out.printf("  股票数: %d, 记录数: %d\n", seriesBySymbol.size(), getTotalRows());
+            System.out.printf("  解码耗时合计: %d ms, 实际耗时: %d ms\n", decodeMillis, elapsedMillis);
+            System.out.println("==================================\n");
+        }
+    }
+}
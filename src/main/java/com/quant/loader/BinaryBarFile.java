@@ -0,0 +1,404 @@
+package com.quant.loader;
+
+import com.quant.model.StockSeries;
+import com.quant.model.StringDictionary;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.zip.CRC32C;
+
+/**
+ * 定长二进制K线文件
+ * 紧凑的定长记录二进制格式，通过 FileChannel.map 读取，加载时不为每行创建对象
+ * 
+ * 文件布局（大端序）：
+ *   - 文件头: magic "QBAR", 版本号, 来源文件标记 (大小/修改时间/CRC32C/工作表), 行数
+ *   - 字符串表: 条目数 + (长度, UTF-8 字节)...，行内字符串字段以表索引保存 (-1 表示 null)
+ *   - 行记录: 每行 {@value #RECORD_SIZE} 字节的定长记录
+ * 
+ * 主要用作 Excel 等慢速来源的旁路缓存 (sidecar)，见 {@link ExcelDataLoader}
+ */
+public final class BinaryBarFile {
+    
+    /** 文件魔数 "QBAR" */
+    public static final int MAGIC = 0x51424152;
+    
+    /** 格式版本（布局变化时递增，旧缓存自动失效） */
+    public static final int VERSION = 1;
+    
+    // 文件头: magic(4) + version(4) + size(8) + mtime(8) + hash(8) + sheet(4) + rows(4)
+    private static final int HEADER_SIZE = 40;
+    
+    // 行记录: id, symbolId, time, epochDay, sessionId, symbol, klineType, marketCc,
+    //         open, high, low, close, vwap, volume, amount, count
+    static final int RECORD_SIZE = 8 + 8 + 8 + 4 + 4 + 4 + 4 + 4 + 8 * 5 + 8 + 8 + 8;
+    
+    // 记录内字段偏移（过滤时直接读取）
+    private static final int EPOCH_DAY_OFFSET = 24;
+    private static final int SYMBOL_OFFSET = 32;
+    
+    private static final int NULL_STRING = StringDictionary.NULL_CODE;
+    
+    private BinaryBarFile() {
+    }
+    
+    /**
+     * 来源文件标记
+     * 缓存文件记录生成时来源文件的大小、修改时间和内容哈希：
+     * 大小和修改时间都相同时直接视为有效，不读取来源文件；
+     * 只有大小相同而修改时间变化时才计算内容哈希确认内容是否改变
+     */
+    public static final class SourceStamp {
+        
+        /** 无来源（独立保存的文件） */
+        public static final SourceStamp NONE = new SourceStamp(0, 0, 0, 0);
+        
+        private final long size;
+        private final long lastModified;
+        private final long hash;
+        private final int sheetIndex;
+        
+        public SourceStamp(long size, long lastModified, long hash, int sheetIndex) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hash = hash;
+            this.sheetIndex = sheetIndex;
+        }
+        
+        /**
+         * 计算来源文件的标记（内容哈希为 CRC32C）
+         * 
+         * @param source 来源文件
+         * @param sheetIndex 工作表索引
+         * @return 来源文件标记
+         * @throws IOException 文件读取异常
+         */
+        public static SourceStamp of(Path source, int sheetIndex) throws IOException {
+            return metadata(source, sheetIndex).withHash(source);
+        }
+        
+        /**
+         * 只读取来源文件的大小和修改时间（不读取文件内容，内容哈希为 0）
+         * 
+         * @param source 来源文件
+         * @param sheetIndex 工作表索引
+         * @return 来源文件标记
+         * @throws IOException 文件读取异常
+         */
+        public static SourceStamp metadata(Path source, int sheetIndex) throws IOException {
+            long size = Files.size(source);
+            long lastModified = Files.getLastModifiedTime(source).toMillis();
+            return new SourceStamp(size, lastModified, 0, sheetIndex);
+        }
+        
+        /**
+         * 计算来源文件的内容哈希 (CRC32C)，返回带哈希的标记
+         * 
+         * @param source 来源文件
+         * @return 来源文件标记
+         * @throws IOException 文件读取异常
+         */
+        public SourceStamp withHash(Path source) throws IOException {
+            CRC32C crc = new CRC32C();
+            try (InputStream in = Files.newInputStream(source)) {
+                byte[] buffer = new byte[64 * 1024];
+                int read;
+                while ((read = in.read(buffer)) > 0) {
+                    crc.update(buffer, 0, read);
+                }
+            }
+            return new SourceStamp(size, lastModified, crc.getValue(), sheetIndex);
+        }
+        
+        /**
+         * 大小、修改时间和工作表是否相同（不比较内容哈希）
+         */
+        public boolean sameMetadata(SourceStamp other) {
+            return other != null && size == other.size && lastModified == other.lastModified
+                    && sheetIndex == other.sheetIndex;
+        }
+        
+        /**
+         * 大小、内容哈希和工作表是否相同（不比较修改时间）
+         */
+        public boolean sameContent(SourceStamp other) {
+            return other != null && size == other.size && hash == other.hash && sheetIndex == other.sheetIndex;
+        }
+        
+        public long getSize() {
+            return size;
+        }
+        
+        public long getLastModified() {
+            return lastModified;
+        }
+        
+        public long getHash() {
+            return hash;
+        }
+        
+        public int getSheetIndex() {
+            return sheetIndex;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof SourceStamp)) return false;
+            SourceStamp that = (SourceStamp) o;
+            return size == that.size && lastModified == that.lastModified
+                    && hash == that.hash && sheetIndex == that.sheetIndex;
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(size, lastModified, hash, sheetIndex);
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("SourceStamp{size=%d, mtime=%d, crc=%08x, sheet=%d}",
+                    size, lastModified, hash, sheetIndex);
+        }
+    }
+    
+    /**
+     * 保存序列（无来源标记）
+     * 
+     * @param series 股票序列
+     * @param path 目标文件
+     * @throws IOException 文件写入异常
+     */
+    public static void write(StockSeries series, Path path) throws IOException {
+        write(series, path, SourceStamp.NONE);
+    }
+    
+    /**
+     * 保存序列
+     * 先写入同目录下的临时文件再原子替换，读取方永远不会看到写了一半的文件
+     * 
+     * @param series 股票序列
+     * @param path 目标文件
+     * @param stamp 来源文件标记
+     * @throws IOException 文件写入异常
+     */
+    public static void write(StockSeries series, Path path, SourceStamp stamp) throws IOException {
+        int rows = series.size();
+        
+        // 字符串表直接使用序列的字典，记录中的字符串引用即字典编码
+        StringDictionary dictionary = series.getDictionary();
+        byte[][] strings = new byte[dictionary.size()][];
+        long stringBytes = 4;
+        for (int code = 0; code < strings.length; code++) {
+            strings[code] = dictionary.decode(code).getBytes(StandardCharsets.UTF_8);
+            stringBytes += 4 + strings[code].length;
+        }
+        long fileSize = HEADER_SIZE + stringBytes + (long) rows * RECORD_SIZE;
+        
+        Path dir = path.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(dir, path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+                
+                buffer.putInt(MAGIC);
+                buffer.putInt(VERSION);
+                buffer.putLong(stamp.getSize());
+                buffer.putLong(stamp.getLastModified());
+                buffer.putLong(stamp.getHash());
+                buffer.putInt(stamp.getSheetIndex());
+                buffer.putInt(rows);
+                
+                buffer.putInt(strings.length);
+                for (byte[] bytes : strings) {
+                    buffer.putInt(bytes.length);
+                    buffer.put(bytes);
+                }
+                
+                for (int i = 0; i < rows; i++) {
+                    buffer.putLong(series.getId(i));
+                    buffer.putLong(series.getSymbolId(i));
+                    buffer.putLong(series.getTime(i));
+                    buffer.putInt(series.getEpochDay(i));
+                    buffer.putInt(series.getSessionId(i));
+                    buffer.putInt(series.getSymbolCode(i));
+                    buffer.putInt(series.getKlineTypeCode(i));
+                    buffer.putInt(series.getMarketCcCode(i));
+                    buffer.putDouble(series.getOpen(i));
+                    buffer.putDouble(series.getHigh(i));
+                    buffer.putDouble(series.getLow(i));
+                    buffer.putDouble(series.getClose(i));
+                    buffer.putDouble(series.getVwap(i));
+                    buffer.putLong(series.getVolume(i));
+                    buffer.putDouble(series.getAmount(i));
+                    buffer.putLong(series.getCount(i));
+                }
+                buffer.force();
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+    
+    /**
+     * 读取文件头中的来源文件标记
+     * 
+     * @param path 二进制K线文件
+     * @return 来源文件标记，文件格式或版本不匹配时返回 null
+     * @throws IOException 文件读取异常
+     */
+    public static SourceStamp readStamp(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                return null;
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header) > 0) {
+                // 读满文件头
+            }
+            header.flip();
+            return readHeader(header);
+        }
+    }
+    
+    /**
+     * 更新文件头中的来源文件标记（来源文件只有修改时间变化、内容未变时使用，不重写记录）
+     * 
+     * @param path 二进制K线文件
+     * @param stamp 新的来源文件标记
+     * @throws IOException 文件写入异常
+     */
+    public static void updateStamp(Path path, SourceStamp stamp) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(8 + 8 + 8 + 4);
+            buffer.putLong(stamp.getSize());
+            buffer.putLong(stamp.getLastModified());
+            buffer.putLong(stamp.getHash());
+            buffer.putInt(stamp.getSheetIndex());
+            buffer.flip();
+            // 标记位于 magic 和版本号之后
+            long position = 8;
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        }
+    }
+    
+    /**
+     * 读取序列
+     * 
+     * @param path 二进制K线文件
+     * @return 股票序列
+     * @throws IOException 文件读取异常或格式错误
+     */
+    public static StockSeries read(Path path) throws IOException {
+        return read(path, LoadFilter.ALL);
+    }
+    
+    /**
+     * 读取序列，只保留符合过滤条件的记录
+     * 先读取记录中的交易日和股票代码索引，不符合条件的记录整体跳过
+     * 
+     * @param path 二进制K线文件
+     * @param filter 股票代码/日期过滤条件
+     * @return 股票序列
+     * @throws IOException 文件读取异常或格式错误
+     */
+    public static StockSeries read(Path path, LoadFilter filter) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (readHeader(buffer) == null) {
+                throw new IOException("不是有效的二进制K线文件: " + path);
+            }
+            int rows = buffer.getInt();
+            
+            int stringCount = buffer.getInt();
+            String[] strings = new String[stringCount];
+            for (int i = 0; i < stringCount; i++) {
+                byte[] bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            
+            if (buffer.remaining() < (long) rows * RECORD_SIZE) {
+                throw new IOException("二进制K线文件不完整: " + path);
+            }
+            
+            // 按字符串表预先计算每个股票代码是否符合条件
+            boolean[] acceptedSymbols = new boolean[stringCount];
+            for (int i = 0; i < stringCount; i++) {
+                acceptedSymbols[i] = filter.acceptsSymbol(strings[i]);
+            }
+            boolean acceptsNullSymbol = filter.acceptsSymbol(null);
+            boolean unfiltered = filter.isUnfiltered();
+            
+            StockSeries series = new StockSeries(unfiltered ? rows : 16);
+            int[] codes = new int[stringCount];
+            for (int i = 0; i < stringCount; i++) {
+                codes[i] = series.getDictionary().encode(strings[i]);
+            }
+            for (int i = 0; i < rows; i++) {
+                if (!unfiltered) {
+                    int record = buffer.position();
+                    int symbolRef = buffer.getInt(record + SYMBOL_OFFSET);
+                    boolean symbolOk = symbolRef == NULL_STRING ? acceptsNullSymbol : acceptedSymbols[symbolRef];
+                    if (!symbolOk || !filter.acceptsDay(buffer.getInt(record + EPOCH_DAY_OFFSET))) {
+                        buffer.position(record + RECORD_SIZE);
+                        continue;
+                    }
+                }
+                
+                long id = buffer.getLong();
+                long symbolId = buffer.getLong();
+                long time = buffer.getLong();
+                int epochDay = buffer.getInt();
+                int sessionId = buffer.getInt();
+                int symbol = lookup(codes, buffer.getInt());
+                int klineType = lookup(codes, buffer.getInt());
+                int marketCc = lookup(codes, buffer.getInt());
+                double open = buffer.getDouble();
+                double high = buffer.getDouble();
+                double low = buffer.getDouble();
+                double close = buffer.getDouble();
+                double vwap = buffer.getDouble();
+                long volume = buffer.getLong();
+                double amount = buffer.getDouble();
+                long count = buffer.getLong();
+                series.appendEncoded(id, symbol, symbolId, klineType, time, marketCc, epochDay,
+                        open, high, low, close, vwap, volume, amount, count, sessionId);
+            }
+            return series;
+        }
+    }
+    
+    /**
+     * 解析文件头（读取到行数之前）
+     * 
+     * @return 来源文件标记，魔数或版本不匹配时返回 null
+     */
+    private static SourceStamp readHeader(ByteBuffer buffer) {
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            return null;
+        }
+        long size = buffer.getLong();
+        long lastModified = buffer.getLong();
+        long hash = buffer.getLong();
+        int sheetIndex = buffer.getInt();
+        return new SourceStamp(size, lastModified, hash, sheetIndex);
+    }
+    
+    private static int lookup(int[] codes, int ref) {
+        return ref == NULL_STRING ? StringDictionary.NULL_CODE : codes[ref];
+    }
+}
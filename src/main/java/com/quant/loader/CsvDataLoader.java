@@ -0,0 +1,803 @@
+package com.quant.loader;
+
+import com.quant.model.StockData;
+import com.quant.model.StockSeries;
+import com.quant.model.StringDictionary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * CSV/TSV 数据加载器
+ * 列格式与 {@link ExcelDataLoader} 相同（表头不区分大小写）
+ * 
+ * 设计说明：
+ *   - 文件通过 FileChannel.map 分段映射，直接在字节上切分字段，不为字段创建 String
+ *   - 表头解析一次，每一列根据列名编译为专用的解码器 (日期/浮点/整数/字符串/忽略)
+ *   - 浮点数、整数和日期使用无分配的解析例程，只有罕见格式才回退到 JDK 解析
+ *   - 字符串列 (symbol、kline_type、market_cc) 直接编码为序列字典中的编码，与上一行相同时不创建 String
+ * 
+ * 分隔符根据表头自动识别：包含制表符时按 TSV 解析，否则按逗号分隔；
+ * 字段两端的引号会被去掉，但不支持引号内包含分隔符或换行的字段
+ */
+public class CsvDataLoader {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CsvDataLoader.class);
+    
+    // 每次映射的最大字节数（按行边界切分）
+    private static final int MAX_CHUNK_SIZE = 256 * 1024 * 1024;
+    
+    // 0000-01-01 到 1970-01-01 的天数（与 LocalDate.toEpochDay 一致）
+    private static final long DAYS_0000_TO_1970 = 719528L;
+    
+    private int chunkSize = MAX_CHUNK_SIZE;
+    
+    /**
+     * 从 CSV 文件加载数据
+     * 
+     * @param filePath CSV 文件路径
+     * @return 股票数据列表
+     * @throws IOException 文件读取异常
+     */
+    public List<StockData> loadFromCsv(String filePath) throws IOException {
+        return loadSeries(filePath).toStockDataList();
+    }
+    
+    /**
+     * 从 CSV 文件加载数据，解码时按条件过滤
+     * 
+     * @param filePath CSV 文件路径
+     * @param filter 股票代码/日期过滤条件
+     * @return 股票数据列表
+     * @throws IOException 文件读取异常
+     */
+    public List<StockData> loadFromCsv(String filePath, LoadFilter filter) throws IOException {
+        return loadSeries(filePath, filter).toStockDataList();
+    }
+    
+    /**
+     * 从 CSV 文件加载列式序列
+     * 
+     * @param filePath CSV 文件路径
+     * @return 列式K线序列（按交易日期升序）
+     * @throws IOException 文件读取异常
+     */
+    public StockSeries loadSeries(String filePath) throws IOException {
+        return loadSeries(filePath, LoadFilter.ALL);
+    }
+    
+    /**
+     * 从 CSV 文件加载列式序列，解码时按条件过滤（谓词下推）
+     * 每行先只解码日期和股票代码列，不符合条件的行不解析其余字段
+     * 
+     * @param filePath CSV 文件路径
+     * @param filter 股票代码/日期过滤条件
+     * @return 列式K线序列（按交易日期升序）
+     * @throws IOException 文件读取异常
+     */
+    public StockSeries loadSeries(String filePath, LoadFilter filter) throws IOException {
+        File file = new File(filePath);
+        if (!file.exists()) {
+            throw new IOException("文件不存在: " + filePath);
+        }
+        
+        StockSeries series = new StockSeries();
+        
+        ReadPosition position = new ReadPosition();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            decodeLines(channel, channel.size(), position, true, filter, series);
+        }
+        if (position.decoder == null) {
+            throw new IllegalArgumentException("CSV文件缺少表头: " + filePath);
+        }
+        
+        // 按日期排序
+        series.sortByTradeDate();
+        
+        logger.info("✓ 成功加载数据: {} 条记录", series.size());
+        if (!series.isEmpty()) {
+            logger.info("  股票代码: {}", series.getSymbol(0));
+            logger.info("  日期范围: {} ~ {}", series.getTradeDate(0), series.getTradeDate(series.size() - 1));
+        }
+        
+        return series;
+    }
+    
+    /**
+     * 从上次读取的位置继续解码文件末尾新追加的行（增量读取）
+     * 只处理以换行结尾的完整行，正在写入的最后一行留到下次读取；
+     * 文件变短（被截断或重写）时从头重新读取；修改时间变化时再比较已读部分的指纹
+     * （表头和开头几行的哈希，以及上次读到的位置之前是否为换行），不一致说明文件被重新生成，同样从头重新读取
+     * 
+     * @param filePath CSV 文件路径
+     * @param position 读取位置，首次读取传新建的实例，之后每次传同一个实例
+     * @param filter 股票代码/日期过滤条件（首次读取表头时绑定）
+     * @param dictionary 新序列使用的字符串字典
+     * @return 新追加的行（保持文件中的顺序，未排序）
+     * @throws IOException 文件读取异常
+     */
+    StockSeries loadAppended(String filePath, ReadPosition position, LoadFilter filter,
+                             StringDictionary dictionary) throws IOException {
+        StockSeries series = new StockSeries(64, dictionary);
+        Path path = Paths.get(filePath);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long lastModified = Files.getLastModifiedTime(path).toMillis();
+            long fileSize = channel.size();
+            if (fileSize < position.offset) {
+                logger.info("文件被截断，重新读取: {}", filePath);
+                position.reset();
+            } else if (position.offset > 0 && lastModified != position.lastModified
+                    && position.isRewritten(channel)) {
+                logger.info("文件被重写，重新读取: {}", filePath);
+                position.reset();
+            }
+            decodeLines(channel, fileSize, position, false, filter, series);
+            position.lastModified = lastModified;
+            position.updateFingerprint(channel);
+        }
+        return series;
+    }
+    
+    /**
+     * 按段映射文件，从 position 处逐行解码到文件末尾
+     * 第一行为表头，解码器保存在 position 中供后续增量读取复用
+     * 
+     * @param consumeUnterminated 文件末尾没有换行的最后一行是否也解码
+     */
+    private void decodeLines(FileChannel channel, long fileSize, ReadPosition position,
+                             boolean consumeUnterminated, LoadFilter filter, StockSeries series) throws IOException {
+        while (position.offset < fileSize) {
+            long length = Math.min(chunkSize, fileSize - position.offset);
+            boolean atEnd = position.offset + length >= fileSize;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position.offset, length);
+            
+            int pos = 0;
+            int limit = (int) length;
+            while (pos < limit) {
+                int lineEnd = indexOf(buffer, (byte) '\n', pos, limit);
+                if (lineEnd < 0) {
+                    if (!atEnd || !consumeUnterminated) {
+                        break; // 不完整的行留给下一段
+                    }
+                    lineEnd = limit;
+                }
+                position.lineNumber++;
+                
+                int end = lineEnd;
+                if (end > pos && buffer.get(end - 1) == '\r') {
+                    end--;
+                }
+                
+                if (position.decoder == null) {
+                    position.decoder = compileHeader(buffer, pos, end, filter, series.getDictionary());
+                } else if (end > pos) {
+                    try {
+                        position.decoder.decode(buffer, pos, end, series);
+                    } catch (Exception e) {
+                        logger.warn("解析第 {} 行数据失败: {}", position.lineNumber, e.getMessage());
+                    }
+                }
+                pos = lineEnd + 1;
+            }
+            
+            if (pos == 0 && !atEnd) {
+                throw new IOException("行长度超过映射段大小: 第 " + (position.lineNumber + 1) + " 行");
+            }
+            position.offset += Math.min(pos, limit);
+            if (atEnd) {
+                break;
+            }
+        }
+    }
+    
+    /**
+     * 设置每段映射的字节数（主要用于超大文件调优）
+     */
+    void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+    
+    // ========== 表头与解码器编译 ==========
+    
+    /**
+     * 解析表头，为每一列编译解码器
+     */
+    private RowDecoder compileHeader(MappedByteBuffer buffer, int start, int end, LoadFilter filter,
+                                     StringDictionary dictionary) {
+        // UTF-8 BOM
+        if (end - start >= 3 && buffer.get(start) == (byte) 0xEF
+                && buffer.get(start + 1) == (byte) 0xBB && buffer.get(start + 2) == (byte) 0xBF) {
+            start += 3;
+        }
+        
+        byte delimiter = indexOf(buffer, (byte) '\t', start, end) >= 0 ? (byte) '\t' : (byte) ',';
+        
+        Map<String, Integer> columnIndexMap = new HashMap<>();
+        int fieldIndex = 0;
+        int pos = start;
+        while (pos <= end) {
+            int fieldEnd = indexOf(buffer, delimiter, pos, end);
+            if (fieldEnd < 0) {
+                fieldEnd = end;
+            }
+            String name = unquote(decodeString(buffer, pos, fieldEnd)).toLowerCase().trim();
+            if (!name.isEmpty()) {
+                columnIndexMap.put(name, fieldIndex);
+            }
+            fieldIndex++;
+            pos = fieldEnd + 1;
+        }
+        
+        logger.debug("检测到的列: {}", columnIndexMap.keySet());
+        ExcelDataLoader.validateColumns(columnIndexMap);
+        
+        FieldDecoder[] decoders = new FieldDecoder[fieldIndex];
+        for (Map.Entry<String, Integer> entry : columnIndexMap.entrySet()) {
+            decoders[entry.getValue()] = decoderFor(entry.getKey());
+        }
+        return new RowDecoder(delimiter, decoders, columnIndexMap, filter, dictionary);
+    }
+    
+    /**
+     * 根据列名选择解码器（未知列返回 null，解析时跳过）
+     */
+    private static FieldDecoder decoderFor(String column) {
+        switch (column) {
+            case ExcelDataLoader.COL_ID:
+                return (buf, s, e, row) -> row.id = parseLong(buf, s, e);
+            case ExcelDataLoader.COL_SYMBOL:
+                return (buf, s, e, row) -> row.symbol = row.symbolCodes.get(buf, s, e);
+            case ExcelDataLoader.COL_SYMBOL_ID:
+                return (buf, s, e, row) -> row.symbolId = parseLong(buf, s, e);
+            case ExcelDataLoader.COL_KLINE_TYPE:
+                return (buf, s, e, row) -> row.klineType = row.klineCodes.get(buf, s, e);
+            case ExcelDataLoader.COL_TIME:
+                return (buf, s, e, row) -> row.time = parseLong(buf, s, e);
+            case ExcelDataLoader.COL_MARKET_CC:
+                return (buf, s, e, row) -> row.marketCc = row.marketCodes.get(buf, s, e);
+            case ExcelDataLoader.COL_TRADE_DATE:
+                return (buf, s, e, row) -> row.epochDay = parseDate(buf, s, e);
+            case ExcelDataLoader.COL_OPEN:
+                return (buf, s, e, row) -> row.open = parseDouble(buf, s, e);
+            case ExcelDataLoader.COL_HIGH:
+                return (buf, s, e, row) -> row.high = parseDouble(buf, s, e);
+            case ExcelDataLoader.COL_LOW:
+                return (buf, s, e, row) -> row.low = parseDouble(buf, s, e);
+            case ExcelDataLoader.COL_CLOSE:
+                return (buf, s, e, row) -> row.close = parseDouble(buf, s, e);
+            case ExcelDataLoader.COL_VWAP:
+                return (buf, s, e, row) -> row.vwap = parseDouble(buf, s, e);
+            case ExcelDataLoader.COL_VOLUME:
+                return (buf, s, e, row) -> row.volume = (long) parseDouble(buf, s, e);
+            case ExcelDataLoader.COL_AMOUNT:
+                return (buf, s, e, row) -> row.amount = parseDouble(buf, s, e);
+            case ExcelDataLoader.COL_COUNT:
+                return (buf, s, e, row) -> row.count = (long) parseDouble(buf, s, e);
+            case ExcelDataLoader.COL_SESSION_ID:
+                return (buf, s, e, row) -> row.sessionId = (int) parseDouble(buf, s, e);
+            default:
+                return null;
+        }
+    }
+    
+    /**
+     * 增量读取位置：已解码到的字节偏移、行号、表头编译出的解码器，以及判断文件是否被重写的指纹
+     */
+    static final class ReadPosition {
+        
+        // 指纹覆盖的最大字节数（表头和开头几行）
+        private static final int FINGERPRINT_BYTES = 4096;
+        
+        private RowDecoder decoder;
+        private long offset;
+        private int lineNumber;
+        private long lastModified;
+        private long fingerprint;
+        private int fingerprintLength;
+        
+        /**
+         * 已读取的字节数
+         */
+        long getOffset() {
+            return offset;
+        }
+        
+        void reset() {
+            decoder = null;
+            offset = 0;
+            lineNumber = 0;
+            lastModified = 0;
+            fingerprint = 0;
+            fingerprintLength = 0;
+        }
+        
+        /**
+         * 已读部分是否被改写：开头的指纹不同，或上次读到的位置之前不是换行（继续读取会从行中间开始）
+         */
+        boolean isRewritten(FileChannel channel) throws IOException {
+            ByteBuffer last = ByteBuffer.allocate(1);
+            if (channel.read(last, offset - 1) != 1 || last.get(0) != '\n') {
+                return true;
+            }
+            return hash(channel, fingerprintLength) != fingerprint;
+        }
+        
+        /**
+         * 已读部分超出指纹覆盖的长度时重新计算指纹（最多 FINGERPRINT_BYTES 字节）
+         */
+        void updateFingerprint(FileChannel channel) throws IOException {
+            int length = (int) Math.min(offset, FINGERPRINT_BYTES);
+            if (length != fingerprintLength) {
+                fingerprint = hash(channel, length);
+                fingerprintLength = length;
+            }
+        }
+        
+        private static long hash(FileChannel channel, int length) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            int read;
+            do {
+                read = channel.read(buffer, buffer.position());
+            } while (read > 0 && buffer.hasRemaining());
+            buffer.flip();
+            CRC32C crc = new CRC32C();
+            crc.update(buffer);
+            return crc.getValue();
+        }
+    }
+    
+    /**
+     * 字段解码器：把 [start, end) 范围内的字节解码到行缓冲的对应字段
+     */
+    private interface FieldDecoder {
+        void decode(MappedByteBuffer buffer, int start, int end, RowBuffer row);
+    }
+    
+    /**
+     * 行缓冲（整个文件复用同一个实例，字符串列保存字典编码）
+     */
+    private static final class RowBuffer {
+        long id;
+        int symbol;
+        long symbolId;
+        int klineType;
+        long time;
+        int marketCc;
+        int epochDay;
+        double open;
+        double high;
+        double low;
+        double close;
+        double vwap;
+        long volume;
+        double amount;
+        long count;
+        int sessionId;
+        
+        final CodeCache symbolCodes;
+        final CodeCache klineCodes;
+        final CodeCache marketCodes;
+        
+        RowBuffer(StringDictionary dictionary) {
+            symbolCodes = new CodeCache(dictionary);
+            klineCodes = new CodeCache(dictionary);
+            marketCodes = new CodeCache(dictionary);
+        }
+    }
+    
+    /**
+     * 行解码器
+     */
+    private static final class RowDecoder {
+        
+        private final byte delimiter;
+        private final FieldDecoder[] decoders;
+        private final RowBuffer row;
+        private final StringDictionary dictionary;
+        
+        // 谓词下推：只包含日期和股票代码列的解码器（无过滤条件时为 null）
+        private final LoadFilter filter;
+        private final FieldDecoder[] filterDecoders;
+        private int lastSymbol = Integer.MIN_VALUE;
+        private boolean lastSymbolAccepted;
+        
+        // 列不存在时的默认值与 ExcelDataLoader 一致：整数列为缺失值标记，字符串列为 null
+        private final long idDefault;
+        private final long symbolIdDefault;
+        private final long timeDefault;
+        private final int symbolDefault;
+        private final int klineTypeDefault;
+        private final int marketCcDefault;
+        
+        RowDecoder(byte delimiter, FieldDecoder[] decoders, Map<String, Integer> columnIndexMap, LoadFilter filter,
+                   StringDictionary dictionary) {
+            this.delimiter = delimiter;
+            this.decoders = decoders;
+            this.filter = filter;
+            this.dictionary = dictionary;
+            this.row = new RowBuffer(dictionary);
+            if (filter.isUnfiltered()) {
+                this.filterDecoders = null;
+            } else {
+                int dateIndex = columnIndexMap.get(ExcelDataLoader.COL_TRADE_DATE);
+                Integer symbolIndex = columnIndexMap.get(ExcelDataLoader.COL_SYMBOL);
+                int length = Math.max(dateIndex, symbolIndex != null ? symbolIndex : -1) + 1;
+                this.filterDecoders = new FieldDecoder[length];
+                filterDecoders[dateIndex] = decoders[dateIndex];
+                if (symbolIndex != null) {
+                    filterDecoders[symbolIndex] = decoders[symbolIndex];
+                }
+            }
+            this.idDefault = columnIndexMap.containsKey(ExcelDataLoader.COL_ID) ? 0 : StockSeries.NULL_LONG;
+            this.symbolIdDefault = columnIndexMap.containsKey(ExcelDataLoader.COL_SYMBOL_ID) ? 0 : StockSeries.NULL_LONG;
+            this.timeDefault = columnIndexMap.containsKey(ExcelDataLoader.COL_TIME) ? 0 : StockSeries.NULL_LONG;
+            this.symbolDefault = dictionary.encode(columnIndexMap.containsKey(ExcelDataLoader.COL_SYMBOL) ? "" : null);
+            this.klineTypeDefault = dictionary.encode(columnIndexMap.containsKey(ExcelDataLoader.COL_KLINE_TYPE) ? "" : null);
+            this.marketCcDefault = dictionary.encode(columnIndexMap.containsKey(ExcelDataLoader.COL_MARKET_CC) ? "" : null);
+        }
+        
+        void decode(MappedByteBuffer buffer, int start, int end, StockSeries series) {
+            reset();
+            
+            // 先只解码日期和股票代码，不符合条件的行直接跳过
+            if (filterDecoders != null) {
+                decodeFields(buffer, start, end, filterDecoders);
+                if (!filter.acceptsDay(row.epochDay) || !acceptsSymbol(row.symbol)) {
+                    return;
+                }
+            }
+            
+            decodeFields(buffer, start, end, decoders);
+            
+            // 日期无效时跳过此行；收盘价无效时跳过此行
+            if (row.epochDay == StockSeries.NULL_DAY) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("跳过无效数据行: 无法解析交易日期: {}", decodeString(buffer, start, end));
+                }
+                return;
+            }
+            if (row.close <= 0) {
+                logger.debug("跳过无效数据行: close <= 0");
+                return;
+            }
+            
+            series.appendEncoded(row.id, row.symbol, row.symbolId, row.klineType, row.time, row.marketCc,
+                    row.epochDay, row.open, row.high, row.low, row.close, row.vwap,
+                    row.volume, row.amount, row.count, row.sessionId);
+        }
+        
+        /**
+         * 切分字段并调用对应的解码器（去掉首尾空白和引号）
+         */
+        private void decodeFields(MappedByteBuffer buffer, int start, int end, FieldDecoder[] decoders) {
+            int fieldIndex = 0;
+            int pos = start;
+            while (pos <= end && fieldIndex < decoders.length) {
+                int fieldEnd = indexOf(buffer, delimiter, pos, end);
+                if (fieldEnd < 0) {
+                    fieldEnd = end;
+                }
+                
+                FieldDecoder decoder = decoders[fieldIndex];
+                if (decoder != null) {
+                    // 去掉首尾空白和引号
+                    int s = pos;
+                    int e = fieldEnd;
+                    while (s < e && buffer.get(s) == ' ') s++;
+                    while (e > s && buffer.get(e - 1) == ' ') e--;
+                    if (e - s >= 2 && buffer.get(s) == '"' && buffer.get(e - 1) == '"') {
+                        s++;
+                        e--;
+                    }
+                    decoder.decode(buffer, s, e, row);
+                }
+                
+                fieldIndex++;
+                pos = fieldEnd + 1;
+            }
+        }
+        
+        /**
+         * 股票代码是否符合条件（相同编码的连续行复用上一次的判断结果）
+         */
+        private boolean acceptsSymbol(int symbol) {
+            if (symbol != lastSymbol) {
+                lastSymbol = symbol;
+                lastSymbolAccepted = filter.acceptsSymbol(dictionary.decode(symbol));
+            }
+            return lastSymbolAccepted;
+        }
+        
+        private void reset() {
+            row.id = idDefault;
+            row.symbol = symbolDefault;
+            row.symbolId = symbolIdDefault;
+            row.klineType = klineTypeDefault;
+            row.time = timeDefault;
+            row.marketCc = marketCcDefault;
+            row.epochDay = StockSeries.NULL_DAY;
+            row.open = 0;
+            row.high = 0;
+            row.low = 0;
+            row.close = 0;
+            row.vwap = 0;
+            row.volume = 0;
+            row.amount = 0;
+            row.count = 0;
+            row.sessionId = 0;
+        }
+    }
+    
+    /**
+     * 字符串编码缓存：字节内容与上一次相同时直接返回上一次的字典编码，不创建 String
+     */
+    private static final class CodeCache {
+        
+        private final StringDictionary dictionary;
+        private byte[] lastBytes = new byte[0];
+        private int lastLength = -1;
+        private int lastCode;
+        
+        CodeCache(StringDictionary dictionary) {
+            this.dictionary = dictionary;
+        }
+        
+        int get(MappedByteBuffer buffer, int start, int end) {
+            int length = end - start;
+            if (length == lastLength) {
+                boolean same = true;
+                for (int i = 0; i < length; i++) {
+                    if (buffer.get(start + i) != lastBytes[i]) {
+                        same = false;
+                        break;
+                    }
+                }
+                if (same) {
+                    return lastCode;
+                }
+            }
+            
+            if (lastBytes.length < length) {
+                lastBytes = new byte[length];
+            }
+            for (int i = 0; i < length; i++) {
+                lastBytes[i] = buffer.get(start + i);
+            }
+            lastLength = length;
+            lastCode = dictionary.encode(new String(lastBytes, 0, length, StandardCharsets.UTF_8));
+            return lastCode;
+        }
+    }
+    
+    // ========== 无分配解析例程 ==========
+    
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    
+    /**
+     * 解析浮点数
+     * 快速路径：不超过 15 位有效数字的普通小数 (如 "-123.45")，尾数和 10 的幂都能精确表示，
+     * 一次除法即得到与 Double.parseDouble 相同的正确舍入结果；其余情况回退到 Double.parseDouble
+     * 
+     * @return 解析结果，空字段或格式错误时返回 0
+     */
+    static double parseDouble(MappedByteBuffer buffer, int start, int end) {
+        if (start >= end) {
+            return 0;
+        }
+        
+        int pos = start;
+        boolean negative = false;
+        byte b = buffer.get(pos);
+        if (b == '-' || b == '+') {
+            negative = b == '-';
+            pos++;
+        }
+        
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        boolean sawDigit = false;
+        for (; pos < end; pos++) {
+            b = buffer.get(pos);
+            if (b >= '0' && b <= '9') {
+                sawDigit = true;
+                if (digits < 15) {
+                    mantissa = mantissa * 10 + (b - '0');
+                    if (mantissa != 0) {
+                        digits++;
+                    }
+                    if (fractionDigits >= 0) {
+                        fractionDigits++;
+                    }
+                } else {
+                    return parseDoubleSlow(buffer, start, end);
+                }
+            } else if (b == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else {
+                return parseDoubleSlow(buffer, start, end);
+            }
+        }
+        
+        if (!sawDigit) {
+            return parseDoubleSlow(buffer, start, end);
+        }
+        
+        double value = mantissa;
+        if (fractionDigits > 0) {
+            if (fractionDigits >= POWERS_OF_TEN.length) {
+                return parseDoubleSlow(buffer, start, end);
+            }
+            value /= POWERS_OF_TEN[fractionDigits];
+        }
+        return negative ? -value : value;
+    }
+    
+    private static double parseDoubleSlow(MappedByteBuffer buffer, int start, int end) {
+        try {
+            return Double.parseDouble(decodeString(buffer, start, end));
+        } catch (NumberFormatException e) {
+            logger.debug("数值解析失败: {}", e.getMessage());
+            return 0;
+        }
+    }
+    
+    /**
+     * 解析整数（包含小数点或指数时按浮点数解析后截断，与 Excel 路径一致）
+     */
+    static long parseLong(MappedByteBuffer buffer, int start, int end) {
+        if (start >= end) {
+            return 0;
+        }
+        
+        int pos = start;
+        boolean negative = false;
+        byte b = buffer.get(pos);
+        if (b == '-' || b == '+') {
+            negative = b == '-';
+            pos++;
+        }
+        if (pos >= end || end - pos > 18) {
+            return (long) parseDouble(buffer, start, end);
+        }
+        
+        long value = 0;
+        for (; pos < end; pos++) {
+            b = buffer.get(pos);
+            if (b < '0' || b > '9') {
+                return (long) parseDouble(buffer, start, end);
+            }
+            value = value * 10 + (b - '0');
+        }
+        return negative ? -value : value;
+    }
+    
+    /**
+     * 解析日期为 epochDay
+     * 支持 yyyy-MM-dd、yyyy/MM/dd、yyyyMMdd、yyyy-M-d、yyyy/M/d
+     * 
+     * @return epochDay，无法解析时返回 {@link StockSeries#NULL_DAY}
+     */
+    static int parseDate(MappedByteBuffer buffer, int start, int end) {
+        int length = end - start;
+        // 8 个字节的 yyyy-M-d / yyyy/M/d 第 5 个字节是分隔符，只有纯数字时才按 yyyyMMdd 解析
+        if (length == 8 && isDigit(buffer.get(start + 4))) {
+            int year = parseDigits(buffer, start, start + 4);
+            int month = parseDigits(buffer, start + 4, start + 6);
+            int day = parseDigits(buffer, start + 6, end);
+            return epochDay(year, month, day);
+        }
+        if (length < 8 || length > 10) {
+            return StockSeries.NULL_DAY;
+        }
+        
+        byte separator = buffer.get(start + 4);
+        if (separator != '-' && separator != '/') {
+            return StockSeries.NULL_DAY;
+        }
+        int year = parseDigits(buffer, start, start + 4);
+        int monthEnd = indexOf(buffer, separator, start + 5, end);
+        if (monthEnd < 0 || monthEnd - (start + 5) < 1 || monthEnd - (start + 5) > 2 || end - (monthEnd + 1) < 1) {
+            return StockSeries.NULL_DAY;
+        }
+        int month = parseDigits(buffer, start + 5, monthEnd);
+        int day = parseDigits(buffer, monthEnd + 1, end);
+        return epochDay(year, month, day);
+    }
+    
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+    
+    /**
+     * 解析纯数字片段
+     * 
+     * @return 数值，包含非数字字符时返回 -1
+     */
+    private static int parseDigits(MappedByteBuffer buffer, int start, int end) {
+        if (start >= end || end - start > 4) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b < '0' || b > '9') {
+                return -1;
+            }
+            value = value * 10 + (b - '0');
+        }
+        return value;
+    }
+    
+    /**
+     * 计算公历日期对应的 epochDay（算法与 LocalDate.toEpochDay 相同，但不创建对象）
+     * 
+     * @return epochDay，日期非法时返回 {@link StockSeries#NULL_DAY}
+     */
+    static int epochDay(int year, int month, int day) {
+        if (year < 0 || month < 1 || month > 12 || day < 1) {
+            return StockSeries.NULL_DAY;
+        }
+        boolean leap = (year % 4 == 0) && (year % 100 != 0 || year % 400 == 0);
+        int monthLength = month == 2 ? (leap ? 29 : 28) : (month == 4 || month == 6 || month == 9 || month == 11) ? 30 : 31;
+        if (day > monthLength) {
+            return StockSeries.NULL_DAY;
+        }
+        
+        long total = 365L * year;
+        total += (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!leap) {
+                total--;
+            }
+        }
+        return (int) (total - DAYS_0000_TO_1970);
+    }
+    
+    // ========== 字节工具 ==========
+    
+    private static int indexOf(MappedByteBuffer buffer, byte target, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    private static String decodeString(MappedByteBuffer buffer, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    private static String unquote(String value) {
+        String trimmed = value.trim();
+        if (trimmed.length() >= 2 && trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
+            return trimmed.substring(1, trimmed.length() - 1);
+        }
+        return trimmed;
+    }
+}
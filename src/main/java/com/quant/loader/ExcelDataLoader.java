@@ -1,15 +1,24 @@
 package com.quant.loader;
 
+import com.quant.model.SeriesOverlay;
 import com.quant.model.StockData;
+import com.quant.model.StockSeries;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
 import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
@@ -22,28 +31,32 @@ import java.util.*;
  * 支持的Excel列格式:
  * id, symbol, symbol_id, kline_type, time, market_cc, trade_date, 
  * open, high, low, close, vwap, volume, amount, count, session_id
+ * 
+ * 旁路缓存：首次解析后在源文件旁写入二进制缓存 (sample_data.xlsx → sample_data.xlsx.s0.qbar)，
+ * 之后只要源文件的大小和修改时间不变，就直接映射读取缓存，跳过 Excel 解析；
+ * 只有修改时间变化而大小相同时才计算内容哈希 (CRC32C)，内容未变则更新缓存中的修改时间后继续使用
  */
 public class ExcelDataLoader {
     
     private static final Logger logger = LoggerFactory.getLogger(ExcelDataLoader.class);
     
     // 列名常量
-    private static final String COL_ID = "id";
-    private static final String COL_SYMBOL = "symbol";
-    private static final String COL_SYMBOL_ID = "symbol_id";
-    private static final String COL_KLINE_TYPE = "kline_type";
-    private static final String COL_TIME = "time";
-    private static final String COL_MARKET_CC = "market_cc";
-    private static final String COL_TRADE_DATE = "trade_date";
-    private static final String COL_OPEN = "open";
-    private static final String COL_HIGH = "high";
-    private static final String COL_LOW = "low";
-    private static final String COL_CLOSE = "close";
-    private static final String COL_VWAP = "vwap";
-    private static final String COL_VOLUME = "volume";
-    private static final String COL_AMOUNT = "amount";
-    private static final String COL_COUNT = "count";
-    private static final String COL_SESSION_ID = "session_id";
+    static final String COL_ID = "id";
+    static final String COL_SYMBOL = "symbol";
+    static final String COL_SYMBOL_ID = "symbol_id";
+    static final String COL_KLINE_TYPE = "kline_type";
+    static final String COL_TIME = "time";
+    static final String COL_MARKET_CC = "market_cc";
+    static final String COL_TRADE_DATE = "trade_date";
+    static final String COL_OPEN = "open";
+    static final String COL_HIGH = "high";
+    static final String COL_LOW = "low";
+    static final String COL_CLOSE = "close";
+    static final String COL_VWAP = "vwap";
+    static final String COL_VOLUME = "volume";
+    static final String COL_AMOUNT = "amount";
+    static final String COL_COUNT = "count";
+    static final String COL_SESSION_ID = "session_id";
     
     // 日期格式
     private static final DateTimeFormatter[] DATE_FORMATTERS = {
@@ -54,6 +67,39 @@ public class ExcelDataLoader {
         DateTimeFormatter.ofPattern("yyyy/M/d")
     };
     
+    // 二进制缓存文件后缀
+    private static final String CACHE_SUFFIX = ".qbar";
+    
+    // 是否启用旁路缓存
+    private boolean cacheEnabled = true;
+    
+    // 超过此大小的 .xlsx 文件使用流式 (SAX) 解析，默认 16MB
+    private long streamingThreshold = 16L * 1024 * 1024;
+    
+    public boolean isCacheEnabled() {
+        return cacheEnabled;
+    }
+    
+    /**
+     * 设置是否启用二进制旁路缓存（默认启用）
+     */
+    public void setCacheEnabled(boolean cacheEnabled) {
+        this.cacheEnabled = cacheEnabled;
+    }
+    
+    public long getStreamingThreshold() {
+        return streamingThreshold;
+    }
+    
+    /**
+     * 设置流式解析阈值（字节）
+     * 不小于该大小的 .xlsx 文件通过 {@link XlsxStreamingReader} 逐行解析，避免构建整个工作簿 DOM；
+     * 设为 0 表示所有 .xlsx 文件都使用流式解析
+     */
+    public void setStreamingThreshold(long streamingThreshold) {
+        this.streamingThreshold = streamingThreshold;
+    }
+    
     /**
      * 从Excel文件加载数据
      * 
@@ -74,53 +120,328 @@ public class ExcelDataLoader {
      * @throws IOException 文件读取异常
      */
     public List<StockData> loadFromExcel(String filePath, int sheetIndex) throws IOException {
+        return loadSeries(filePath, sheetIndex).toStockDataList();
+    }
+    
+    /**
+     * 从Excel文件加载数据，解码时按条件过滤
+     * 
+     * @param filePath Excel文件路径
+     * @param filter 股票代码/日期过滤条件
+     * @return 股票数据列表
+     * @throws IOException 文件读取异常
+     */
+    public List<StockData> loadFromExcel(String filePath, LoadFilter filter) throws IOException {
+        return loadFromExcel(filePath, 0, filter);
+    }
+    
+    /**
+     * 从Excel文件加载数据，解码时按条件过滤
+     * 
+     * @param filePath Excel文件路径
+     * @param sheetIndex 工作表索引
+     * @param filter 股票代码/日期过滤条件
+     * @return 股票数据列表
+     * @throws IOException 文件读取异常
+     */
+    public List<StockData> loadFromExcel(String filePath, int sheetIndex, LoadFilter filter) throws IOException {
+        return loadSeries(filePath, sheetIndex, filter).toStockDataList();
+    }
+    
+    /**
+     * 从Excel文件加载列式序列
+     * 
+     * @param filePath Excel文件路径
+     * @return 列式K线序列
+     * @throws IOException 文件读取异常
+     */
+    public StockSeries loadSeries(String filePath) throws IOException {
+        return loadSeries(filePath, 0);
+    }
+    
+    /**
+     * 从Excel文件加载列式序列
+     * 数据行直接解码到列数组中，不为每行创建 StockData 对象
+     * 
+     * @param filePath Excel文件路径
+     * @param sheetIndex 工作表索引
+     * @return 列式K线序列（按交易日期升序）
+     * @throws IOException 文件读取异常
+     */
+    public StockSeries loadSeries(String filePath, int sheetIndex) throws IOException {
+        return loadSeries(filePath, sheetIndex, LoadFilter.ALL);
+    }
+    
+    /**
+     * 从Excel文件加载列式序列，解码时按条件过滤（谓词下推）
+     * 不符合条件的行在读取日期和股票代码后立即跳过，不解析其余列；
+     * 旁路缓存有效时同样在缓存记录上过滤，过滤加载不会写入缓存
+     * 
+     * @param filePath Excel文件路径
+     * @param sheetIndex 工作表索引
+     * @param filter 股票代码/日期过滤条件
+     * @return 列式K线序列（按交易日期升序）
+     * @throws IOException 文件读取异常
+     */
+    public StockSeries loadSeries(String filePath, int sheetIndex, LoadFilter filter) throws IOException {
+        try (Sheets sheets = openSheets(filePath)) {
+            return sheets.load(sheetIndex, filter);
+        }
+    }
+    
+    /**
+     * 加载 Excel 文件的所有工作表，解码时按条件过滤
+     * 通过 Workbook (DOM) 解析的文件只构建一次工作簿，所有缓存未命中的工作表都从这一个工作簿解码；
+     * 流式解析的 .xlsx 文件逐个工作表读取
+     * 
+     * @param filePath Excel文件路径
+     * @param filter 股票代码/日期过滤条件
+     * @return 按工作表顺序排列的列式K线序列（各自按交易日期升序）
+     * @throws IOException 文件读取异常
+     */
+    public List<StockSeries> loadAllSheets(String filePath, LoadFilter filter) throws IOException {
+        try (Sheets sheets = openSheets(filePath)) {
+            int count = sheets.getCount();
+            List<StockSeries> result = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                result.add(sheets.load(i, filter));
+            }
+            return result;
+        }
+    }
+    
+    /**
+     * 打开 Excel 文件，按工作表逐个加载（共享同一个按需构建的工作簿）
+     * 
+     * @param filePath Excel文件路径
+     * @return 工作表加载器（使用完毕后关闭）
+     * @throws IOException 文件不存在
+     */
+    Sheets openSheets(String filePath) throws IOException {
         File file = new File(filePath);
         if (!file.exists()) {
             throw new IOException("文件不存在: " + filePath);
         }
+        return new Sheets(file, filePath);
+    }
+    
+    /**
+     * 文件是否通过 {@link XlsxStreamingReader} 流式解析（不小于阈值的 .xlsx 文件）
+     * 
+     * @param filePath Excel文件路径
+     */
+    public boolean isStreamed(String filePath) {
+        return isXlsx(filePath) && new File(filePath).length() >= streamingThreshold;
+    }
+    
+    /**
+     * 加载单个工作表：先读旁路缓存，未命中时流式解析或从（按需构建的）工作簿解码
+     */
+    private StockSeries loadSheet(File file, String filePath, int sheetIndex, LoadFilter filter,
+                                  Sheets workbook) throws IOException {
+        BinaryBarFile.SourceStamp stamp = null;
+        if (cacheEnabled) {
+            stamp = BinaryBarFile.SourceStamp.metadata(file.toPath(), sheetIndex);
+            StockSeries cached = loadCache(file, stamp, filter);
+            if (cached != null) {
+                logLoaded(cached);
+                return cached;
+            }
+        }
         
-        List<StockData> dataList = new ArrayList<>();
+        StockSeries series;
         
-        try (FileInputStream fis = new FileInputStream(file);
-             Workbook workbook = createWorkbook(fis, filePath)) {
-            
-            Sheet sheet = workbook.getSheetAt(sheetIndex);
-            
-            // 读取表头，建立列索引映射
-            Row headerRow = sheet.getRow(0);
-            Map<String, Integer> columnIndexMap = parseHeader(headerRow);
-            
-            // 验证必要的列是否存在
-            validateColumns(columnIndexMap);
+        if (isStreamed(filePath)) {
+            series = new XlsxStreamingReader().read(file, sheetIndex, filter);
+        } else {
+            series = parseSheet(workbook.getWorkbook().getSheetAt(sheetIndex), filter);
+        }
+        
+        // 按日期排序
+        series.sortByTradeDate();
+        
+        if (cacheEnabled && filter.isUnfiltered()) {
+            saveCache(file, stamp, series);
+        }
+        
+        logLoaded(series);
+        return series;
+    }
+    
+    /**
+     * 通过 Workbook (DOM) 解析工作表
+     */
+    private StockSeries parseSheet(Sheet sheet, LoadFilter filter) throws IOException {
+        StockSeries series = new StockSeries(sheet.getLastRowNum());
+        
+        // 读取表头，建立列索引映射
+        Row headerRow = sheet.getRow(0);
+        Map<String, Integer> columnIndexMap = parseHeader(headerRow);
+        
+        // 验证必要的列是否存在
+        validateColumns(columnIndexMap);
+        
+        // 读取数据行
+        for (int i = 1; i <= sheet.getLastRowNum(); i++) {
+            Row row = sheet.getRow(i);
+            if (row == null) continue;
             
-            // 读取数据行
-            for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-                Row row = sheet.getRow(i);
-                if (row == null) continue;
-                
-                try {
-                    StockData data = parseRow(row, columnIndexMap);
-                    if (data != null) {
-                        dataList.add(data);
-                    }
-                } catch (Exception e) {
-                    logger.warn("解析第 {} 行数据失败: {}", i + 1, e.getMessage());
-                }
+            try {
+                parseRow(row, columnIndexMap, series, filter);
+            } catch (Exception e) {
+                logger.warn("解析第 {} 行数据失败: {}", i + 1, e.getMessage());
             }
         }
         
-        // 按日期排序
-        dataList.sort(Comparator.comparing(StockData::getTradeDate));
+        return series;
+    }
+    
+    /**
+     * 一个 Excel 文件的工作表加载器
+     * 工作簿 (DOM) 按需构建：缓存全部命中或流式解析时不构建，构建后在所有工作表间共享
+     */
+    final class Sheets implements Closeable {
+        private final File file;
+        private final String filePath;
+        private Workbook workbook;
+        
+        private Sheets(File file, String filePath) {
+            this.file = file;
+            this.filePath = filePath;
+        }
+        
+        /**
+         * 工作表数量：.xlsx 从包中的工作表列表读取，不需要构建工作簿；.xls 从工作簿读取（之后复用）
+         */
+        int getCount() throws IOException {
+            return isXlsx(filePath) ? sheetCount(filePath) : getWorkbook().getNumberOfSheets();
+        }
         
-        logger.info("✓ 成功加载数据: {} 条记录", dataList.size());
-        if (!dataList.isEmpty()) {
-            StockData first = dataList.get(0);
-            StockData last = dataList.get(dataList.size() - 1);
-            logger.info("  股票代码: {}", first.getSymbol());
-            logger.info("  日期范围: {} ~ {}", first.getTradeDate(), last.getTradeDate());
+        /**
+         * 加载一个工作表（按交易日期升序）
+         */
+        StockSeries load(int sheetIndex, LoadFilter filter) throws IOException {
+            return loadSheet(file, filePath, sheetIndex, filter, this);
         }
         
-        return dataList;
+        private Workbook getWorkbook() throws IOException {
+            if (workbook == null) {
+                try (FileInputStream fis = new FileInputStream(file)) {
+                    workbook = createWorkbook(fis, filePath);
+                }
+            }
+            return workbook;
+        }
+        
+        @Override
+        public void close() throws IOException {
+            if (workbook != null) {
+                workbook.close();
+            }
+        }
+    }
+    
+    /**
+     * 获取 Excel 文件中的工作表数量
+     * .xlsx 只读取包中的工作表列表，.xls 需要构建整个工作簿
+     */
+    static int sheetCount(String path) throws IOException {
+        if (path.toLowerCase().endsWith(".xls")) {
+            try (InputStream in = new FileInputStream(path);
+                 HSSFWorkbook workbook = new HSSFWorkbook(in)) {
+                return workbook.getNumberOfSheets();
+            }
+        }
+        try (OPCPackage pkg = OPCPackage.open(new File(path), PackageAccess.READ)) {
+            Iterator<InputStream> sheets = new XSSFReader(pkg).getSheetsData();
+            int count = 0;
+            while (sheets.hasNext()) {
+                sheets.next().close();
+                count++;
+            }
+            return count;
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("读取工作表列表失败: " + e.getMessage(), e);
+        }
+    }
+    
+    private static boolean isXlsx(String filePath) {
+        return filePath.toLowerCase().endsWith(".xlsx");
+    }
+    
+    private void logLoaded(StockSeries series) {
+        logger.info("✓ 成功加载数据: {} 条记录", series.size());
+        if (!series.isEmpty()) {
+            logger.info("  股票代码: {}", series.getSymbol(0));
+            logger.info("  日期范围: {} ~ {}", series.getTradeDate(0), series.getTradeDate(series.size() - 1));
+        }
+    }
+    
+    /**
+     * 获取缓存文件路径
+     */
+    private Path cachePath(File file, int sheetIndex) {
+        return file.toPath().resolveSibling(file.getName() + ".s" + sheetIndex + CACHE_SUFFIX);
+    }
+    
+    /**
+     * 读取旁路缓存
+     * 
+     * @return 缓存的序列，缓存不存在、已失效或损坏时返回 null
+     */
+    private StockSeries loadCache(File file, BinaryBarFile.SourceStamp stamp, LoadFilter filter) {
+        Path cache = cachePath(file, stamp.getSheetIndex());
+        if (!Files.isRegularFile(cache)) {
+            return null;
+        }
+        try {
+            BinaryBarFile.SourceStamp cachedStamp = BinaryBarFile.readStamp(cache);
+            if (!stamp.sameMetadata(cachedStamp)) {
+                // 修改时间变化（文件被 touch 或复制）但大小相同时，按内容哈希确认是否真的改变
+                if (cachedStamp == null || cachedStamp.getSize() != stamp.getSize()
+                        || !stamp.withHash(file.toPath()).sameContent(cachedStamp)) {
+                    logger.debug("缓存已失效: {}", cache);
+                    return null;
+                }
+                BinaryBarFile.updateStamp(cache, new BinaryBarFile.SourceStamp(stamp.getSize(),
+                        stamp.getLastModified(), cachedStamp.getHash(), stamp.getSheetIndex()));
+                logger.debug("源文件内容未变，已更新缓存的修改时间: {}", cache);
+            }
+            StockSeries series = BinaryBarFile.read(cache, filter);
+            logger.debug("从缓存加载: {}", cache);
+            return series;
+        } catch (IOException e) {
+            logger.warn("读取缓存失败，重新解析源文件: {}", e.getMessage());
+            return null;
+        } catch (RuntimeException e) {
+            // 缓存内容损坏（字符串表长度、索引越界等），删除后重新解析源文件
+            logger.warn("缓存文件已损坏，删除并重新解析源文件: {} ({})", cache, e.toString());
+            deleteCache(cache);
+            return null;
+        }
+    }
+    
+    private void deleteCache(Path cache) {
+        try {
+            Files.deleteIfExists(cache);
+        } catch (IOException e) {
+            logger.warn("删除缓存失败: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * 写入旁路缓存（失败时只记录日志，不影响加载结果）
+     */
+    private void saveCache(File file, BinaryBarFile.SourceStamp stamp, StockSeries series) {
+        Path cache = cachePath(file, stamp.getSheetIndex());
+        try {
+            BinaryBarFile.write(series, cache, stamp.withHash(file.toPath()));
+            logger.debug("已写入缓存: {}", cache);
+        } catch (IOException e) {
+            logger.warn("写入缓存失败: {}", e.getMessage());
+        }
     }
     
     /**
@@ -157,7 +478,7 @@ public class ExcelDataLoader {
     /**
      * 验证必要的列是否存在
      */
-    private void validateColumns(Map<String, Integer> columnIndexMap) {
+    static void validateColumns(Map<String, Integer> columnIndexMap) {
         // 必须有交易日期和价格列
         String[] requiredColumns = {COL_TRADE_DATE, COL_OPEN, COL_HIGH, COL_LOW, COL_CLOSE};
         List<String> missingColumns = new ArrayList<>();
@@ -174,88 +495,65 @@ public class ExcelDataLoader {
     }
     
     /**
-     * 解析单行数据
+     * 解析单行数据，有效行直接追加到序列中
+     * 
+     * @return 是否追加成功（日期无效、价格无效或不符合过滤条件时跳过）
      */
-    private StockData parseRow(Row row, Map<String, Integer> columnIndexMap) {
-        StockData data = new StockData();
-        
-        // 解析 id
-        if (columnIndexMap.containsKey(COL_ID)) {
-            data.setId((long) getNumericValue(row, columnIndexMap.get(COL_ID)));
-        }
-        
-        // 解析 symbol
-        if (columnIndexMap.containsKey(COL_SYMBOL)) {
-            data.setSymbol(getStringValue(row, columnIndexMap.get(COL_SYMBOL)));
-        }
-        
-        // 解析 symbol_id
-        if (columnIndexMap.containsKey(COL_SYMBOL_ID)) {
-            data.setSymbolId((long) getNumericValue(row, columnIndexMap.get(COL_SYMBOL_ID)));
-        }
-        
-        // 解析 kline_type
-        if (columnIndexMap.containsKey(COL_KLINE_TYPE)) {
-            data.setKlineType(getStringValue(row, columnIndexMap.get(COL_KLINE_TYPE)));
-        }
-        
-        // 解析 time (时间戳)
-        if (columnIndexMap.containsKey(COL_TIME)) {
-            double timeValue = getNumericValue(row, columnIndexMap.get(COL_TIME));
-            data.setTime((long) timeValue);
-        }
-        
-        // 解析 market_cc
-        if (columnIndexMap.containsKey(COL_MARKET_CC)) {
-            data.setMarketCc(getStringValue(row, columnIndexMap.get(COL_MARKET_CC)));
-        }
-        
+    private boolean parseRow(Row row, Map<String, Integer> columnIndexMap, StockSeries series, LoadFilter filter) {
         // 解析 trade_date (必需)
         Cell dateCell = row.getCell(columnIndexMap.get(COL_TRADE_DATE));
         LocalDate tradeDate = parseDateCell(dateCell);
         if (tradeDate == null) {
-            return null; // 日期无效，跳过此行
+            return false; // 日期无效，跳过此行
         }
-        data.setTradeDate(tradeDate);
         
-        // 解析价格数据 (必需)
-        data.setOpen(getNumericValue(row, columnIndexMap.get(COL_OPEN)));
-        data.setHigh(getNumericValue(row, columnIndexMap.get(COL_HIGH)));
-        data.setLow(getNumericValue(row, columnIndexMap.get(COL_LOW)));
-        data.setClose(getNumericValue(row, columnIndexMap.get(COL_CLOSE)));
-        
-        // 解析 vwap
-        if (columnIndexMap.containsKey(COL_VWAP)) {
-            data.setVwap(getNumericValue(row, columnIndexMap.get(COL_VWAP)));
-        }
-        
-        // 解析 volume
-        if (columnIndexMap.containsKey(COL_VOLUME)) {
-            data.setVolume((long) getNumericValue(row, columnIndexMap.get(COL_VOLUME)));
-        }
-        
-        // 解析 amount
-        if (columnIndexMap.containsKey(COL_AMOUNT)) {
-            data.setAmount(getNumericValue(row, columnIndexMap.get(COL_AMOUNT)));
+        // 过滤条件（先于其余列解析）
+        if (!filter.acceptsDay((int) tradeDate.toEpochDay())) {
+            return false;
         }
-        
-        // 解析 count
-        if (columnIndexMap.containsKey(COL_COUNT)) {
-            data.setCount((long) getNumericValue(row, columnIndexMap.get(COL_COUNT)));
+        String symbol = getStringValue(row, columnIndexMap.get(COL_SYMBOL));
+        if (!filter.acceptsSymbol(symbol)) {
+            return false;
         }
         
-        // 解析 session_id
-        if (columnIndexMap.containsKey(COL_SESSION_ID)) {
-            data.setSessionId((int) getNumericValue(row, columnIndexMap.get(COL_SESSION_ID)));
-        }
+        // 解析价格数据 (必需)
+        double close = getNumericValue(row, columnIndexMap.get(COL_CLOSE));
         
         // 验证价格数据有效性
-        if (data.getClose() <= 0) {
+        if (close <= 0) {
             logger.debug("跳过无效数据行: close <= 0");
-            return null;
+            return false;
         }
         
-        return data;
+        series.append(
+                getLongValue(row, columnIndexMap.get(COL_ID)),
+                symbol,
+                getLongValue(row, columnIndexMap.get(COL_SYMBOL_ID)),
+                getStringValue(row, columnIndexMap.get(COL_KLINE_TYPE)),
+                getLongValue(row, columnIndexMap.get(COL_TIME)),
+                getStringValue(row, columnIndexMap.get(COL_MARKET_CC)),
+                (int) tradeDate.toEpochDay(),
+                getNumericValue(row, columnIndexMap.get(COL_OPEN)),
+                getNumericValue(row, columnIndexMap.get(COL_HIGH)),
+                getNumericValue(row, columnIndexMap.get(COL_LOW)),
+                close,
+                getNumericValue(row, columnIndexMap.get(COL_VWAP)),
+                (long) getNumericValue(row, columnIndexMap.get(COL_VOLUME)),
+                getNumericValue(row, columnIndexMap.get(COL_AMOUNT)),
+                (long) getNumericValue(row, columnIndexMap.get(COL_COUNT)),
+                (int) getNumericValue(row, columnIndexMap.get(COL_SESSION_ID)));
+        
+        return true;
+    }
+    
+    /**
+     * 获取可选的整数列值（列不存在时返回缺失值标记）
+     */
+    private long getLongValue(Row row, Integer columnIndex) {
+        if (columnIndex == null) {
+            return StockSeries.NULL_LONG;
+        }
+        return (long) getNumericValue(row, columnIndex);
     }
     
     /**
@@ -289,7 +587,7 @@ public class ExcelDataLoader {
     /**
      * 解析字符串日期
      */
-    private LocalDate parseStringDate(String dateStr) {
+    static LocalDate parseStringDate(String dateStr) {
         for (DateTimeFormatter formatter : DATE_FORMATTERS) {
             try {
                 return LocalDate.parse(dateStr, formatter);
@@ -371,6 +669,12 @@ public class ExcelDataLoader {
     /**
      * 按日期范围过滤数据
      * 
+     * 输入是按日期排序的序列视图时，用二分查找定位区间，不复制、不逐行扫描：
+     *   - 序列基础层的列表返回子区间序列 ({@link StockSeries#sliceByDate}) 的视图列表，
+     *     结果仍是序列视图，可继续使用列式路径（指标、覆盖层、再次过滤）
+     *   - 覆盖层（叠加了自己的指标或回测结果）的列表返回子列表，保留该层上的数据
+     * 否则逐行比较并返回新列表
+     * 
      * @param dataList 原始数据列表
      * @param startDate 开始日期
      * @param endDate 结束日期
@@ -379,6 +683,17 @@ public class ExcelDataLoader {
     public List<StockData> filterByDateRange(List<StockData> dataList, 
                                               LocalDate startDate, 
                                               LocalDate endDate) {
+        SeriesOverlay overlay = SeriesOverlay.of(dataList);
+        if (overlay != null && overlay.getSeries().isSortedByTradeDate()) {
+            StockSeries series = overlay.getSeries();
+            if (overlay.isBase()) {
+                return series.sliceByDate(startDate, endDate).asList();
+            }
+            int from = startDate != null ? series.lowerBound((int) startDate.toEpochDay()) : 0;
+            int to = endDate != null ? series.upperBound((int) endDate.toEpochDay()) : series.size();
+            return dataList.subList(from, Math.max(from, to));
+        }
+        
         List<StockData> filtered = new ArrayList<>();
         
         for (StockData data : dataList) {
@@ -402,6 +717,20 @@ public class ExcelDataLoader {
     public List<StockData> filterBySymbol(List<StockData> dataList, String symbol) {
         List<StockData> filtered = new ArrayList<>();
         
+        // 序列视图：先在字典中匹配一次，逐行只比较编码
+        SeriesOverlay overlay = SeriesOverlay.of(dataList);
+        if (overlay != null) {
+            StockSeries series = overlay.getSeries();
+            boolean[] matches = series.getDictionary().matchIgnoreCase(symbol);
+            for (int i = 0; i < series.size(); i++) {
+                int code = series.getSymbolCode(i);
+                if (code >= 0 && code < matches.length && matches[code]) {
+                    filtered.add(dataList.get(i));
+                }
+            }
+            return filtered;
+        }
+        
         for (StockData data : dataList) {
             if (symbol.equalsIgnoreCase(data.getSymbol())) {
                 filtered.add(data);
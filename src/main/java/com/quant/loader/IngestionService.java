@@ -0,0 +1,397 @@
+package com.quant.loader;
+
+import com.quant.model.StockSeries;
+import com.quant.model.StringDictionary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 增量数据接入服务
+ * 监视数据目录 (WatchService)，文件新增或修改时只把新的K线追加到内存中的序列，
+ * 并通知下游（指标、策略）只处理序列尾部的新数据，避免每天全量重新加载和计算
+ * 
+ * 增量规则：
+ *   - CSV/TSV：记录每个文件已读取的字节偏移，只解码追加在末尾的完整行
+ *   - Excel：不支持按偏移增量读取，每次变化都重新加载整个文件（未过滤时同时刷新 .qbar 旁路缓存），
+ *     只追加比序列最后一根更新的K线；{@link Listener} 收到的起始索引仍是追加前该股票序列的长度，
+ *     下游只需处理新K线，但文件越大每次重新加载的开销越高
+ *   - 每个股票的序列按 (交易日期, time) 递增追加，不晚于最后一根K线的行视为重复数据丢弃
+ * 
+ * 线程说明：{@link #start()} 后在后台守护线程中处理文件事件，序列的追加和
+ * {@link Listener} 回调都在该线程中执行；其他线程读取序列时需要自行同步
+ * (例如在回调中复制需要的数据)，或不启动后台线程而自行调用 {@link #poll(long)}
+ * 
+ * 使用示例：
+ *   IngestionService service = new IngestionService("data");
+ *   service.addListener((series, from) -> strategy.onNewBars(series, from));
+ *   service.start();
+ */
+public class IngestionService implements Closeable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(IngestionService.class);
+    
+    /**
+     * 序列追加新K线时的回调
+     */
+    public interface Listener {
+        /**
+         * @param series 股票序列（按交易日期升序）
+         * @param fromIndex 第一根新K线的索引，[fromIndex, series.size()) 为本次追加的数据
+         */
+        void onAppend(StockSeries series, int fromIndex);
+    }
+    
+    private final Path directory;
+    private final LoadFilter filter;
+    private final CsvDataLoader csvLoader;
+    private final ExcelDataLoader excelLoader;
+    private final StringDictionary dictionary = new StringDictionary();
+    private final Map<String, StockSeries> seriesBySymbol = new TreeMap<>();
+    private final Map<Path, CsvDataLoader.ReadPosition> csvPositions = new HashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    
+    private WatchService watchService;
+    private Thread worker;
+    private volatile boolean running;
+    
+    /**
+     * 构造函数
+     * 
+     * @param directory 数据目录
+     */
+    public IngestionService(String directory) {
+        this(directory, LoadFilter.ALL);
+    }
+    
+    /**
+     * 构造函数
+     * 
+     * @param directory 数据目录
+     * @param filter 股票代码/日期过滤条件
+     */
+    public IngestionService(String directory, LoadFilter filter) {
+        this(directory, filter, new CsvDataLoader(), new ExcelDataLoader());
+    }
+    
+    /**
+     * 构造函数
+     * 
+     * @param directory 数据目录
+     * @param filter 股票代码/日期过滤条件
+     * @param csvLoader CSV 加载器
+     * @param excelLoader Excel 加载器
+     */
+    public IngestionService(String directory, LoadFilter filter, CsvDataLoader csvLoader,
+                            ExcelDataLoader excelLoader) {
+        this.directory = Paths.get(directory);
+        if (!Files.isDirectory(this.directory)) {
+            throw new IllegalArgumentException("数据目录不存在: " + directory);
+        }
+        this.filter = filter;
+        this.csvLoader = csvLoader;
+        this.excelLoader = excelLoader;
+    }
+    
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+    
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+    
+    // ========== 后台监视 ==========
+    
+    /**
+     * 注册目录监视，接入目录中已有的文件，然后在后台线程中持续处理文件事件
+     * 
+     * @throws IOException 注册监视或读取文件失败
+     */
+    public synchronized void start() throws IOException {
+        if (running) {
+            throw new IllegalStateException("接入服务已启动");
+        }
+        register();
+        scan();
+        running = true;
+        worker = new Thread(this::runLoop, "ingestion-" + directory.getFileName());
+        worker.setDaemon(true);
+        worker.start();
+        logger.info("开始监视数据目录: {}", directory.toAbsolutePath());
+    }
+    
+    private void runLoop() {
+        while (running) {
+            try {
+                poll(Long.MAX_VALUE);
+            } catch (ClosedWatchServiceException e) {
+                break;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+    
+    /**
+     * 停止监视
+     */
+    @Override
+    public void close() throws IOException {
+        Thread thread;
+        synchronized (this) {
+            running = false;
+            thread = worker;
+            worker = null;
+            if (watchService != null) {
+                watchService.close();
+                watchService = null;
+            }
+        }
+        if (thread != null && thread != Thread.currentThread()) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    /**
+     * 注册目录监视（只调用 {@link #poll(long)} 时需要先调用一次）
+     * 
+     * @throws IOException 注册失败
+     */
+    public synchronized void register() throws IOException {
+        if (watchService == null) {
+            watchService = FileSystems.getDefault().newWatchService();
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        }
+    }
+    
+    /**
+     * 等待并处理一批文件事件
+     * 
+     * @param timeoutMillis 最长等待时间（毫秒）
+     * @return 本批追加的K线数量，超时返回 0
+     * @throws InterruptedException 等待被中断
+     */
+    public int poll(long timeoutMillis) throws InterruptedException {
+        WatchService service = watchService;
+        if (service == null) {
+            throw new IllegalStateException("尚未注册目录监视");
+        }
+        WatchKey key = service.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+        if (key == null) {
+            return 0;
+        }
+        
+        // 同一文件写入时通常产生多个修改事件，合并后每个文件只处理一次
+        Set<Path> changed = new LinkedHashSet<>();
+        boolean overflow = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                overflow = true;
+            } else {
+                changed.add(directory.resolve((Path) event.context()));
+            }
+        }
+        key.reset();
+        
+        try {
+            if (overflow) {
+                logger.warn("文件事件溢出，重新扫描目录: {}", directory);
+                return scan();
+            }
+            int appended = 0;
+            for (Path file : changed) {
+                if (isDataFile(file) && Files.isRegularFile(file)) {
+                    appended += ingestQuietly(file);
+                }
+            }
+            return appended;
+        } catch (IOException e) {
+            logger.warn("扫描数据目录失败: {}", e.getMessage());
+            return 0;
+        }
+    }
+    
+    // ========== 接入 ==========
+    
+    /**
+     * 接入目录中所有数据文件（按文件名顺序）
+     * 
+     * @return 追加的K线数量
+     * @throws IOException 读取目录失败
+     */
+    public int scan() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                if (isDataFile(file) && Files.isRegularFile(file)) {
+                    files.add(file);
+                }
+            }
+        }
+        Collections.sort(files);
+        int appended = 0;
+        for (Path file : files) {
+            appended += ingestQuietly(file);
+        }
+        return appended;
+    }
+    
+    private int ingestQuietly(Path file) {
+        try {
+            return ingest(file);
+        } catch (Exception e) {
+            // 文件可能仍在写入，下一个修改事件时重试
+            logger.warn("接入文件失败 {}: {}", file.getFileName(), e.getMessage());
+            return 0;
+        }
+    }
+    
+    /**
+     * 接入单个文件的新数据，并通知监听器
+     * 
+     * @param file 数据文件
+     * @return 追加的K线数量
+     * @throws IOException 文件读取异常
+     */
+    public int ingest(Path file) throws IOException {
+        long start = System.nanoTime();
+        String path = file.toString();
+        Map<StockSeries, Integer> appended = new IdentityHashMap<>();
+        int rows;
+        
+        synchronized (this) {
+            StockSeries loaded;
+            if (BatchDataLoader.isCsv(path)) {
+                CsvDataLoader.ReadPosition position = csvPositions.computeIfAbsent(file,
+                        k -> new CsvDataLoader.ReadPosition());
+                loaded = csvLoader.loadAppended(path, position, filter, dictionary);
+            } else {
+                loaded = excelLoader.loadSeries(path, 0, filter);
+            }
+            loaded.sortByTradeDate();
+            rows = merge(loaded, BatchDataLoader.defaultSymbol(path), appended);
+        }
+        
+        if (rows > 0) {
+            logger.info("接入 {}: 新增 {} 条记录, {} ms", file.getFileName(), rows,
+                    (System.nanoTime() - start) / 1_000_000);
+            for (Map.Entry<StockSeries, Integer> entry : appended.entrySet()) {
+                for (Listener listener : listeners) {
+                    listener.onAppend(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        return rows;
+    }
+    
+    /**
+     * 按股票代码把新数据追加到对应序列，记录每个序列第一根新K线的索引
+     */
+    private int merge(StockSeries source, String fallbackSymbol, Map<StockSeries, Integer> appended) {
+        // 按源序列的股票代码编码缓存目标序列（最后一格对应 null）
+        StockSeries[] targets = new StockSeries[source.getDictionary().size() + 1];
+        int[] rowCounts = BatchDataLoader.countRowsBySymbol(source);
+        int rows = 0;
+        for (int i = 0; i < source.size(); i++) {
+            int slot = BatchDataLoader.symbolSlot(source, i, targets.length);
+            StockSeries target = targets[slot];
+            if (target == null) {
+                String symbol = source.getSymbol(i);
+                String key = symbol != null && !symbol.isEmpty() ? symbol : fallbackSymbol;
+                int capacity = rowCounts[slot];
+                target = seriesBySymbol.computeIfAbsent(key, k -> new StockSeries(capacity, dictionary));
+                targets[slot] = target;
+            }
+            if (isNewer(source, i, target)) {
+                appended.putIfAbsent(target, target.size());
+                target.append(source, i);
+                rows++;
+            }
+        }
+        return rows;
+    }
+    
+    /**
+     * 源序列第 i 行是否晚于目标序列的最后一根K线（先比交易日期，同一天再比 time）
+     */
+    private static boolean isNewer(StockSeries source, int i, StockSeries target) {
+        int day = source.getEpochDay(i);
+        if (day == StockSeries.NULL_DAY) {
+            return false;
+        }
+        if (target.isEmpty()) {
+            return true;
+        }
+        int last = target.size() - 1;
+        int lastDay = target.getEpochDay(last);
+        if (day != lastDay) {
+            return day > lastDay;
+        }
+        return source.getTime(i) > target.getTime(last);
+    }
+    
+    private static boolean isDataFile(Path file) {
+        String name = file.getFileName().toString();
+        if (name.startsWith("~$") || name.startsWith(".")) {
+            return false; // Office 锁文件、隐藏文件
+        }
+        String lower = name.toLowerCase();
+        return BatchDataLoader.isCsv(lower) || lower.endsWith(".xlsx") || lower.endsWith(".xls");
+    }
+    
+    // ========== 访问 ==========
+    
+    /**
+     * 按股票代码获取序列
+     * 
+     * @return 序列，不存在时返回 null
+     */
+    public synchronized StockSeries getSeries(String symbol) {
+        return seriesBySymbol.get(symbol);
+    }
+    
+    /**
+     * 所有股票的序列（按股票代码排序的快照）
+     */
+    public synchronized Map<String, StockSeries> getSeriesBySymbol() {
+        return Collections.unmodifiableMap(new TreeMap<>(seriesBySymbol));
+    }
+    
+    public Path getDirectory() {
+        return directory;
+    }
+    
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,140 @@
+package com.quant.loader;
+
+import com.quant.model.StockSeries;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 加载过滤条件（谓词下推）
+ * 在解码行数据时就按股票代码和日期范围筛选，不符合条件的行在创建任何对象之前被跳过
+ * 
+ * 语义与 {@link ExcelDataLoader#filterBySymbol} / {@link ExcelDataLoader#filterByDateRange} 一致：
+ * 股票代码不区分大小写，日期范围两端都包含，null 表示不限制
+ * 
+ * 不可变，可在多个加载线程之间共享
+ */
+public final class LoadFilter {
+    
+    /** 不过滤 */
+    public static final LoadFilter ALL = new LoadFilter(null, null, null);
+    
+    // 大写的股票代码集合（null 表示不限制）
+    private final Set<String> symbols;
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    private final int startDay;
+    private final int endDay;
+    
+    /**
+     * 构造函数
+     * 
+     * @param symbols 股票代码集合（null 表示不限制）
+     * @param startDate 开始日期（包含，null 表示不限制）
+     * @param endDate 结束日期（包含，null 表示不限制）
+     */
+    public LoadFilter(Collection<String> symbols, LocalDate startDate, LocalDate endDate) {
+        if (symbols != null) {
+            Set<String> normalized = new HashSet<>();
+            for (String symbol : symbols) {
+                normalized.add(symbol.toUpperCase(Locale.ROOT));
+            }
+            this.symbols = Collections.unmodifiableSet(normalized);
+        } else {
+            this.symbols = null;
+        }
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.startDay = startDate != null ? (int) startDate.toEpochDay() : Integer.MIN_VALUE;
+        this.endDay = endDate != null ? (int) endDate.toEpochDay() : Integer.MAX_VALUE;
+    }
+    
+    /**
+     * 只加载指定股票代码
+     */
+    public static LoadFilter symbols(String... symbols) {
+        return new LoadFilter(Arrays.asList(symbols), null, null);
+    }
+    
+    /**
+     * 只加载指定日期范围
+     */
+    public static LoadFilter dateRange(LocalDate startDate, LocalDate endDate) {
+        return new LoadFilter(null, startDate, endDate);
+    }
+    
+    /**
+     * 在当前条件基础上增加日期范围
+     */
+    public LoadFilter withDateRange(LocalDate startDate, LocalDate endDate) {
+        return new LoadFilter(symbols, startDate, endDate);
+    }
+    
+    /**
+     * 是否不做任何过滤
+     */
+    public boolean isUnfiltered() {
+        return symbols == null && startDate == null && endDate == null;
+    }
+    
+    /**
+     * 是否按股票代码过滤
+     */
+    public boolean hasSymbolFilter() {
+        return symbols != null;
+    }
+    
+    /**
+     * 交易日是否在范围内
+     * 
+     * @param epochDay 交易日 (epochDay)
+     */
+    public boolean acceptsDay(int epochDay) {
+        return epochDay != StockSeries.NULL_DAY && epochDay >= startDay && epochDay <= endDay;
+    }
+    
+    /**
+     * 日期区间 [minDay, maxDay] 是否与过滤范围相交（用于整块跳过）
+     * 
+     * @param minDay 区间最小交易日 (epochDay)
+     * @param maxDay 区间最大交易日 (epochDay)
+     */
+    public boolean overlapsDays(int minDay, int maxDay) {
+        return maxDay >= startDay && minDay <= endDay;
+    }
+    
+    /**
+     * 股票代码是否符合条件
+     */
+    public boolean acceptsSymbol(String symbol) {
+        if (symbols == null) {
+            return true;
+        }
+        return symbol != null && symbols.contains(symbol.toUpperCase(Locale.ROOT));
+    }
+    
+    public Set<String> getSymbols() {
+        return symbols;
+    }
+    
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+    
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("LoadFilter{symbols=%s, dates=%s ~ %s}",
+                symbols != null ? symbols : "*",
+                startDate != null ? startDate : "*",
+                endDate != null ? endDate : "*");
+    }
+}
@@ -0,0 +1,282 @@
+package com.quant.loader;
+
+import com.quant.model.StockSeries;
+import com.quant.model.StringDictionary;
+import com.quant.replay.ReplayProtocol;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Arrays;
+
+/**
+ * 行情回放客户端
+ * 连接 {@link com.quant.replay.ReplayServer}，把收到的K线帧解码后追加到列式序列中
+ * 
+ * 背压：解码在调用 {@link #next()} 的线程中进行，不另开读取线程、不在内存中排队；
+ * 调用方处理得慢时套接字不再被读取，接收缓冲区填满后服务端的写入阻塞，
+ * 缓冲区大小决定了最多有多少数据"在路上"
+ * 
+ * 延迟测量：每根K线带有服务端的发送时间 (epoch 微秒)，调用方在算出信号后调用
+ * {@link #recordLatency(int)} 记录从发送到产生信号的延迟，最后用 {@link #printLatencyReport()} 输出分位数
+ * 
+ * 使用示例：
+ *   try (ReplayFeedClient client = new ReplayFeedClient("localhost", port)) {
+ *       int index;
+ *       while ((index = client.next()) >= 0) {
+ *           strategy.onBar(client.getSeries(), index);
+ *           client.recordLatency(index);
+ *       }
+ *       client.printLatencyReport();
+ *   }
+ */
+public class ReplayFeedClient implements Closeable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReplayFeedClient.class);
+    
+    /** 默认接收缓冲区大小（字节） */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    
+    private static final int CONNECT_TIMEOUT_MILLIS = 5_000;
+    
+    private final Socket socket;
+    private final DataInputStream in;
+    private final StockSeries series = new StockSeries(1024, new StringDictionary());
+    
+    // 服务端字符串编码 → 本地字典编码
+    private int[] codeMap = new int[16];
+    private long[] sendMicros = new long[1024];
+    private long[] latencies = new long[1024];
+    private int latencyCount;
+    private boolean finished;
+    
+    /**
+     * 构造函数（连接服务端并读取流头）
+     * 
+     * @param host 服务端地址
+     * @param port 服务端端口
+     * @throws IOException 连接失败或流头不正确
+     */
+    public ReplayFeedClient(String host, int port) throws IOException {
+        this(host, port, DEFAULT_BUFFER_SIZE);
+    }
+    
+    /**
+     * 构造函数（连接服务端并读取流头）
+     * 
+     * @param host 服务端地址
+     * @param port 服务端端口
+     * @param bufferSize 套接字接收缓冲区和读取缓冲区大小（越小背压越紧）
+     * @throws IOException 连接失败或流头不正确
+     */
+    public ReplayFeedClient(String host, int port, int bufferSize) throws IOException {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("缓冲区大小必须大于0");
+        }
+        socket = new Socket();
+        socket.setReceiveBufferSize(bufferSize);
+        socket.setTcpNoDelay(true);
+        socket.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MILLIS);
+        in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), bufferSize));
+        
+        try {
+            int magic = in.readInt();
+            short version = in.readShort();
+            if (magic != ReplayProtocol.MAGIC) {
+                throw new IOException("不是行情回放数据流");
+            }
+            if (version != ReplayProtocol.VERSION) {
+                throw new IOException("不支持的回放协议版本: " + version);
+            }
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+        Arrays.fill(codeMap, StringDictionary.NULL_CODE);
+        logger.info("已连接行情回放服务: {}:{}", host, port);
+    }
+    
+    /**
+     * 读取下一根K线（阻塞直到收到数据）
+     * 
+     * @return 新K线在 {@link #getSeries()} 中的索引，回放结束返回 -1
+     * @throws IOException 连接中断或数据格式错误
+     */
+    public int next() throws IOException {
+        while (!finished) {
+            byte type;
+            try {
+                type = in.readByte();
+            } catch (EOFException e) {
+                throw new IOException("回放数据流意外结束", e);
+            }
+            switch (type) {
+                case ReplayProtocol.FRAME_STRING:
+                    defineString(in.readInt(), in.readUTF());
+                    break;
+                case ReplayProtocol.FRAME_BAR:
+                    return readBar();
+                case ReplayProtocol.FRAME_END:
+                    finished = true;
+                    break;
+                default:
+                    throw new IOException("未知的帧类型: " + type);
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * 读取直到回放结束
+     * 
+     * @return 收到的K线序列
+     * @throws IOException 连接中断或数据格式错误
+     */
+    public StockSeries readAll() throws IOException {
+        while (next() >= 0) {
+            // 逐根追加到序列
+        }
+        return series;
+    }
+    
+    private void defineString(int code, String value) {
+        if (code >= codeMap.length) {
+            int oldLength = codeMap.length;
+            codeMap = Arrays.copyOf(codeMap, Math.max(code + 1, oldLength * 2));
+            Arrays.fill(codeMap, oldLength, codeMap.length, StringDictionary.NULL_CODE);
+        }
+        codeMap[code] = series.getDictionary().encode(value);
+    }
+    
+    private int localCode(int code) throws IOException {
+        if (code == ReplayProtocol.NULL_CODE) {
+            return StringDictionary.NULL_CODE;
+        }
+        if (code < 0 || code >= codeMap.length || codeMap[code] == StringDictionary.NULL_CODE) {
+            throw new IOException("未定义的字符串编码: " + code);
+        }
+        return codeMap[code];
+    }
+    
+    private int readBar() throws IOException {
+        long sent = in.readLong();
+        long id = in.readLong();
+        int symbol = localCode(in.readInt());
+        long symbolId = in.readLong();
+        int klineType = localCode(in.readInt());
+        long time = in.readLong();
+        int marketCc = localCode(in.readInt());
+        int epochDay = in.readInt();
+        double open = in.readDouble();
+        double high = in.readDouble();
+        double low = in.readDouble();
+        double close = in.readDouble();
+        double vwap = in.readDouble();
+        long volume = in.readLong();
+        double amount = in.readDouble();
+        long count = in.readLong();
+        int sessionId = in.readInt();
+        
+        int index = series.appendEncoded(id, symbol, symbolId, klineType, time, marketCc, epochDay,
+                open, high, low, close, vwap, volume, amount, count, sessionId);
+        if (index >= sendMicros.length) {
+            sendMicros = Arrays.copyOf(sendMicros, sendMicros.length * 2);
+        }
+        sendMicros[index] = sent;
+        return index;
+    }
+    
+    // ========== 延迟 ==========
+    
+    /**
+     * 服务端发送K线的时间 (epoch 微秒)
+     */
+    public long getSendMicros(int index) {
+        return sendMicros[index];
+    }
+    
+    /**
+     * 从服务端发送到现在经过的时间（微秒）
+     */
+    public long latencyMicros(int index) {
+        return ReplayProtocol.epochMicros() - sendMicros[index];
+    }
+    
+    /**
+     * 记录一根K线从发送到现在的延迟（通常在算出信号后调用）
+     * 
+     * @return 延迟（微秒）
+     */
+    public long recordLatency(int index) {
+        long latency = latencyMicros(index);
+        if (latencyCount == latencies.length) {
+            latencies = Arrays.copyOf(latencies, latencyCount * 2);
+        }
+        latencies[latencyCount++] = latency;
+        return latency;
+    }
+    
+    public int getLatencyCount() {
+        return latencyCount;
+    }
+    
+    /**
+     * 已记录延迟的分位数
+     * 
+     * @param percentile 分位 (0 ~ 100)
+     * @return 延迟（微秒），没有记录时返回 0
+     */
+    public long getLatencyPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("分位必须在 0 ~ 100 之间: " + percentile);
+        }
+        if (latencyCount == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(latencies, latencyCount);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * latencyCount) - 1;
+        return sorted[Math.max(0, Math.min(rank, latencyCount - 1))];
+    }
+    
+    /**
+     * 打印端到端延迟报告
+     */
+    public void printLatencyReport() {
+        System.out.println("\n========== 回放延迟 ==========");
+        System.out.printf("K线数量: %d, 已记录延迟: %d%n", series.size(), latencyCount);
+        if (latencyCount > 0) {
+            System.out.printf("延迟 (微秒): p50=%d, p90=%d, p99=%d, max=%d%n",
+                    getLatencyPercentile(50), getLatencyPercentile(90),
+                    getLatencyPercentile(99), getLatencyPercentile(100));
+        }
+        System.out.println("==============================");
+    }
+    
+    // ========== 访问 ==========
+    
+    /**
+     * 已收到的K线序列（在调用 {@link #next()} 的线程中追加）
+     */
+    public StockSeries getSeries() {
+        return series;
+    }
+    
+    /**
+     * 是否已收到结束帧
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
@@ -0,0 +1,405 @@
+package com.quant.loader;
+
+import com.quant.model.StockSeries;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 流式 XLSX 读取器（SAX 事件模型）
+ * 
+ * 与 XSSFWorkbook 一次性把整个工作簿构建为内存 DOM 不同，
+ * 这里通过 XSSFReader + 共享字符串表 + SAX 逐行解析工作表 XML，
+ * 每行解码完成后立即追加到列式序列中，内存占用只与单行大小相关
+ * 
+ * 表头映射、必要列校验和行解析规则与 {@link ExcelDataLoader} 的 DOM 路径一致
+ */
+public class XlsxStreamingReader {
+    
+    private static final Logger logger = LoggerFactory.getLogger(XlsxStreamingReader.class);
+    
+    /**
+     * 读取工作表到列式序列（未排序）
+     * 
+     * @param file XLSX 文件
+     * @param sheetIndex 工作表索引
+     * @return 列式K线序列（保持文件中的行顺序）
+     * @throws IOException 文件读取异常
+     */
+    public StockSeries read(File file, int sheetIndex) throws IOException {
+        return read(file, sheetIndex, LoadFilter.ALL);
+    }
+    
+    /**
+     * 读取工作表到列式序列（未排序），解码时按条件过滤
+     * 
+     * @param file XLSX 文件
+     * @param sheetIndex 工作表索引
+     * @param filter 股票代码/日期过滤条件
+     * @return 列式K线序列（保持文件中的行顺序）
+     * @throws IOException 文件读取异常
+     */
+    public StockSeries read(File file, int sheetIndex, LoadFilter filter) throws IOException {
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            SharedStrings sharedStrings = new ReadOnlySharedStringsTable(pkg);
+            StylesTable styles = reader.getStylesTable();
+            
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            int index = 0;
+            while (sheets.hasNext()) {
+                try (InputStream sheet = sheets.next()) {
+                    if (index++ == sheetIndex) {
+                        SheetHandler handler = new SheetHandler(sharedStrings, styles, filter);
+                        XMLReader parser = XMLHelper.newXMLReader();
+                        parser.setContentHandler(handler);
+                        parser.parse(new InputSource(sheet));
+                        return handler.series;
+                    }
+                }
+            }
+            throw new IllegalArgumentException("Sheet index (" + sheetIndex + ") is out of range (0.." + (index - 1) + ")");
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("读取 XLSX 文件失败: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * 单元格类型（与 POI CellType 中用到的部分对应）
+     */
+    private enum CellKind {
+        BLANK, NUMERIC, STRING, BOOLEAN
+    }
+    
+    /**
+     * 工作表 SAX 处理器
+     * 当前行的单元格保存在按列索引复用的数组中，行结束时解码并追加到序列
+     */
+    private static final class SheetHandler extends DefaultHandler {
+        
+        private final SharedStrings sharedStrings;
+        private final StylesTable styles;
+        private final LoadFilter filter;
+        private final StockSeries series = new StockSeries();
+        
+        // 样式索引 → 是否为日期格式（缓存）
+        private final Map<Integer, Boolean> dateStyles = new HashMap<>();
+        
+        // ========== 当前行缓冲 ==========
+        private CellKind[] kinds = new CellKind[32];
+        private double[] numbers = new double[32];
+        private String[] strings = new String[32];
+        private boolean[] dates = new boolean[32];
+        private int rowIndex = -1;
+        private int nextColumn;
+        
+        // ========== 当前单元格 ==========
+        private int column;
+        private String type;
+        private int styleIndex;
+        private boolean inValue;
+        private final StringBuilder text = new StringBuilder();
+        
+        // 表头列映射（第一行解析后建立）
+        private Map<String, Integer> columnIndexMap;
+        
+        SheetHandler(SharedStrings sharedStrings, StylesTable styles, LoadFilter filter) {
+            this.sharedStrings = sharedStrings;
+            this.styles = styles;
+            this.filter = filter;
+            Arrays.fill(kinds, CellKind.BLANK);
+        }
+        
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "row":
+                    String r = attributes.getValue("r");
+                    rowIndex = r != null ? Integer.parseInt(r) - 1 : rowIndex + 1;
+                    Arrays.fill(kinds, CellKind.BLANK);
+                    nextColumn = 0;
+                    break;
+                case "c":
+                    String ref = attributes.getValue("r");
+                    column = ref != null ? new CellReference(ref).getCol() : nextColumn;
+                    nextColumn = column + 1;
+                    type = attributes.getValue("t");
+                    String s = attributes.getValue("s");
+                    styleIndex = s != null ? Integer.parseInt(s) : 0;
+                    text.setLength(0);
+                    break;
+                case "v":
+                case "t":
+                    inValue = true;
+                    break;
+                default:
+                    break;
+            }
+        }
+        
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inValue) {
+                text.append(ch, start, length);
+            }
+        }
+        
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            switch (localName) {
+                case "v":
+                case "t":
+                    inValue = false;
+                    break;
+                case "c":
+                    endCell();
+                    break;
+                case "row":
+                    endRow();
+                    break;
+                default:
+                    break;
+            }
+        }
+        
+        @Override
+        public void endDocument() throws SAXException {
+            if (columnIndexMap == null) {
+                throw new SAXException("工作表缺少表头行");
+            }
+        }
+        
+        private void endCell() {
+            ensureColumn(column);
+            if (text.length() == 0 && !"inlineStr".equals(type)) {
+                kinds[column] = CellKind.BLANK;
+                return;
+            }
+            
+            String value = text.toString();
+            if ("s".equals(type)) {
+                kinds[column] = CellKind.STRING;
+                strings[column] = sharedStrings.getItemAt(Integer.parseInt(value.trim())).getString();
+            } else if ("inlineStr".equals(type) || "str".equals(type)) {
+                kinds[column] = CellKind.STRING;
+                strings[column] = value;
+            } else if ("b".equals(type)) {
+                kinds[column] = CellKind.BOOLEAN;
+                numbers[column] = "1".equals(value.trim()) ? 1 : 0;
+            } else if ("e".equals(type)) {
+                kinds[column] = CellKind.BLANK;
+            } else {
+                try {
+                    numbers[column] = Double.parseDouble(value);
+                    kinds[column] = CellKind.NUMERIC;
+                    dates[column] = isDateStyle(styleIndex) && DateUtil.isValidExcelDate(numbers[column]);
+                } catch (NumberFormatException e) {
+                    kinds[column] = CellKind.BLANK;
+                }
+            }
+        }
+        
+        private void endRow() {
+            if (rowIndex == 0) {
+                columnIndexMap = parseHeader();
+                ExcelDataLoader.validateColumns(columnIndexMap);
+                return;
+            }
+            if (columnIndexMap == null) {
+                throw new IllegalArgumentException("工作表缺少表头行");
+            }
+            
+            try {
+                parseRow();
+            } catch (Exception e) {
+                logger.warn("解析第 {} 行数据失败: {}", rowIndex + 1, e.getMessage());
+            }
+        }
+        
+        /**
+         * 解析表头，建立列名到列索引的映射
+         */
+        private Map<String, Integer> parseHeader() {
+            Map<String, Integer> map = new HashMap<>();
+            for (int i = 0; i < nextColumn; i++) {
+                if (kinds[i] != CellKind.BLANK) {
+                    map.put(getCellStringValue(i).toLowerCase().trim(), i);
+                }
+            }
+            logger.debug("检测到的列: {}", map.keySet());
+            return map;
+        }
+        
+        /**
+         * 解析当前行，有效行直接追加到序列中
+         */
+        private void parseRow() {
+            // 解析 trade_date (必需)
+            LocalDate tradeDate = parseDateCell(columnIndexMap.get(ExcelDataLoader.COL_TRADE_DATE));
+            if (tradeDate == null) {
+                return; // 日期无效，跳过此行
+            }
+            
+            // 过滤条件（先于其余列解析）
+            if (!filter.acceptsDay((int) tradeDate.toEpochDay())) {
+                return;
+            }
+            String symbol = getStringValue(columnIndexMap.get(ExcelDataLoader.COL_SYMBOL));
+            if (!filter.acceptsSymbol(symbol)) {
+                return;
+            }
+            
+            // 解析价格数据 (必需)
+            double close = getNumericValue(columnIndexMap.get(ExcelDataLoader.COL_CLOSE));
+            
+            // 验证价格数据有效性
+            if (close <= 0) {
+                logger.debug("跳过无效数据行: close <= 0");
+                return;
+            }
+            
+            series.append(
+                    getLongValue(columnIndexMap.get(ExcelDataLoader.COL_ID)),
+                    symbol,
+                    getLongValue(columnIndexMap.get(ExcelDataLoader.COL_SYMBOL_ID)),
+                    getStringValue(columnIndexMap.get(ExcelDataLoader.COL_KLINE_TYPE)),
+                    getLongValue(columnIndexMap.get(ExcelDataLoader.COL_TIME)),
+                    getStringValue(columnIndexMap.get(ExcelDataLoader.COL_MARKET_CC)),
+                    (int) tradeDate.toEpochDay(),
+                    getNumericValue(columnIndexMap.get(ExcelDataLoader.COL_OPEN)),
+                    getNumericValue(columnIndexMap.get(ExcelDataLoader.COL_HIGH)),
+                    getNumericValue(columnIndexMap.get(ExcelDataLoader.COL_LOW)),
+                    close,
+                    getNumericValue(columnIndexMap.get(ExcelDataLoader.COL_VWAP)),
+                    (long) getNumericValue(columnIndexMap.get(ExcelDataLoader.COL_VOLUME)),
+                    getNumericValue(columnIndexMap.get(ExcelDataLoader.COL_AMOUNT)),
+                    (long) getNumericValue(columnIndexMap.get(ExcelDataLoader.COL_COUNT)),
+                    (int) getNumericValue(columnIndexMap.get(ExcelDataLoader.COL_SESSION_ID)));
+        }
+        
+        private LocalDate parseDateCell(Integer columnIndex) {
+            if (columnIndex == null || columnIndex >= kinds.length) {
+                return null;
+            }
+            
+            try {
+                switch (kinds[columnIndex]) {
+                    case NUMERIC:
+                        if (dates[columnIndex]) {
+                            return DateUtil.getLocalDateTime(numbers[columnIndex]).toLocalDate();
+                        }
+                        // 可能是 yyyyMMdd 格式的数字
+                        return ExcelDataLoader.parseStringDate(String.valueOf((int) numbers[columnIndex]));
+                    case STRING:
+                        return ExcelDataLoader.parseStringDate(strings[columnIndex].trim());
+                    default:
+                        return null;
+                }
+            } catch (Exception e) {
+                logger.debug("日期解析失败: {}", e.getMessage());
+                return null;
+            }
+        }
+        
+        private long getLongValue(Integer columnIndex) {
+            if (columnIndex == null) {
+                return StockSeries.NULL_LONG;
+            }
+            return (long) getNumericValue(columnIndex);
+        }
+        
+        private double getNumericValue(Integer columnIndex) {
+            if (columnIndex == null || columnIndex >= kinds.length) {
+                return 0;
+            }
+            
+            try {
+                if (kinds[columnIndex] == CellKind.NUMERIC) {
+                    return numbers[columnIndex];
+                } else if (kinds[columnIndex] == CellKind.STRING) {
+                    String value = strings[columnIndex].trim();
+                    if (value.isEmpty()) {
+                        return 0;
+                    }
+                    return Double.parseDouble(value);
+                }
+            } catch (Exception e) {
+                logger.debug("数值解析失败: {}", e.getMessage());
+            }
+            
+            return 0;
+        }
+        
+        private String getStringValue(Integer columnIndex) {
+            if (columnIndex == null) {
+                return null;
+            }
+            return columnIndex < kinds.length ? getCellStringValue(columnIndex) : "";
+        }
+        
+        private String getCellStringValue(int columnIndex) {
+            switch (kinds[columnIndex]) {
+                case STRING:
+                    return strings[columnIndex].trim();
+                case NUMERIC:
+                    double numVal = numbers[columnIndex];
+                    // 如果是整数，去掉小数部分
+                    if (numVal == Math.floor(numVal)) {
+                        return String.valueOf((long) numVal);
+                    }
+                    return String.valueOf(numVal);
+                case BOOLEAN:
+                    return String.valueOf(numbers[columnIndex] != 0);
+                default:
+                    return "";
+            }
+        }
+        
+        private boolean isDateStyle(int index) {
+            Boolean cached = dateStyles.get(index);
+            if (cached == null) {
+                XSSFCellStyle style = styles != null && index < styles.getNumCellStyles() ? styles.getStyleAt(index) : null;
+                cached = style != null && DateUtil.isADateFormat(style.getDataFormat(), style.getDataFormatString());
+                dateStyles.put(index, cached);
+            }
+            return cached;
+        }
+        
+        private void ensureColumn(int index) {
+            if (index < kinds.length) {
+                return;
+            }
+            int oldLength = kinds.length;
+            int newLength = Math.max(index + 1, oldLength * 2);
+            kinds = Arrays.copyOf(kinds, newLength);
+            Arrays.fill(kinds, oldLength, newLength, CellKind.BLANK);
+            numbers = Arrays.copyOf(numbers, newLength);
+            strings = Arrays.copyOf(strings, newLength);
+            dates = Arrays.copyOf(dates, newLength);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.quant.model;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 回测结果
+ * 将一次策略运行产生的可变结果 (信号、持仓、仓位权重、策略收益、净值) 与不可变的行情数据分离，
+ * 结果保存在原始类型数组中，行情数据仍由 StockSeries 提供
+ * 
+ * 创建后不可修改，可以在线程之间自由传递；
+ * 同一个 StockSeries 可以被多个策略并发回测，各自得到独立的 BacktestResult
+ */
+public class BacktestResult {
+    
+    private final String strategyName;
+    private final StockSeries series;
+    private final double initialCapital;
+    
+    // ========== 结果列 ==========
+    private final int[] signal;
+    private final int[] position;
+    private final double[] weight;
+    private final double[] strategyReturn;
+    private final double[] cumulativeReturn;
+    private final double[] equity;
+    
+    private BacktestResult(String strategyName, StockSeries series, double initialCapital,
+                           int[] signal, int[] position, double[] weight,
+                           double[] strategyReturn, double[] cumulativeReturn, double[] equity) {
+        this.strategyName = strategyName;
+        this.series = series;
+        this.initialCapital = initialCapital;
+        this.signal = signal;
+        this.position = position;
+        this.weight = weight;
+        this.strategyReturn = strategyReturn;
+        this.cumulativeReturn = cumulativeReturn;
+        this.equity = equity;
+    }
+    
+    /**
+     * 从回测完成的覆盖层中提取结果（结果列被复制，之后覆盖层可以丢弃）
+     * 
+     * @param strategyName 策略名称
+     * @param overlay 回测使用的覆盖层
+     * @param weight 每根K线的仓位权重 (0~1)，长度等于序列长度
+     * @param initialCapital 初始资金
+     * @return 回测结果
+     */
+    public static BacktestResult capture(String strategyName, SeriesOverlay overlay, double[] weight,
+                                         double initialCapital) {
+        int size = overlay.size();
+        if (weight.length != size) {
+            throw new IllegalArgumentException("仓位权重长度与序列长度不一致: " + weight.length + " != " + size);
+        }
+        
+        int[] signal = new int[size];
+        int[] position = new int[size];
+        double[] strategyReturn = new double[size];
+        double[] cumulativeReturn = new double[size];
+        double[] equity = new double[size];
+        for (int i = 0; i < size; i++) {
+            signal[i] = overlay.getSignal(i);
+            position[i] = overlay.getPosition(i);
+            strategyReturn[i] = overlay.getStrategyReturn(i);
+            cumulativeReturn[i] = overlay.getCumulativeReturn(i);
+            equity[i] = overlay.getPortfolioValue(i);
+        }
+        return new BacktestResult(strategyName, overlay.getSeries(), initialCapital,
+                signal, position, weight.clone(), strategyReturn, cumulativeReturn, equity);
+    }
+    
+    /**
+     * 获取只读的 StockData 视图列表（兼容基于列表的统计与图表代码）
+     * 行情字段读取序列，结果字段读取本对象的数组，任何写操作都会抛出 UnsupportedOperationException
+     * 
+     * @return 只读视图列表
+     */
+    public List<StockData> asList() {
+        return series.getBaseOverlay()
+                .readOnlyView(signal, position, strategyReturn, cumulativeReturn, equity)
+                .asList();
+    }
+    
+    // ========== 基本属性 ==========
+    
+    public String getStrategyName() {
+        return strategyName;
+    }
+    
+    public StockSeries getSeries() {
+        return series;
+    }
+    
+    public double getInitialCapital() {
+        return initialCapital;
+    }
+    
+    public int size() {
+        return signal.length;
+    }
+    
+    // ========== 按索引访问 ==========
+    
+    public int getSignal(int index) {
+        return signal[index];
+    }
+    
+    public int getPosition(int index) {
+        return position[index];
+    }
+    
+    public double getWeight(int index) {
+        return weight[index];
+    }
+    
+    public double getStrategyReturn(int index) {
+        return strategyReturn[index];
+    }
+    
+    public double getCumulativeReturn(int index) {
+        return cumulativeReturn[index];
+    }
+    
+    public double getEquity(int index) {
+        return equity[index];
+    }
+    
+    // ========== 汇总 ==========
+    
+    /**
+     * 期末组合价值
+     */
+    public double getFinalEquity() {
+        return equity.length > 0 ? equity[equity.length - 1] : initialCapital;
+    }
+    
+    /**
+     * 总收益率 (百分比)
+     */
+    public double getTotalReturn() {
+        return cumulativeReturn.length > 0 ? (cumulativeReturn[cumulativeReturn.length - 1] - 1) * 100 : 0;
+    }
+    
+    /**
+     * 获取净值曲线副本
+     */
+    public double[] getEquityCurve() {
+        return Arrays.copyOf(equity, equity.length);
+    }
+    
+    /**
+     * 获取仓位权重副本
+     */
+    public double[] getWeights() {
+        return Arrays.copyOf(weight, weight.length);
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("BacktestResult{strategy=%s, bars=%d, finalEquity=%.2f, totalReturn=%.2f%%}",
+                strategyName, size(), getFinalEquity(), getTotalReturn());
+    }
+}
@@ -0,0 +1,254 @@
+package com.quant.model;
+
+import java.util.Arrays;
+
+/**
+ * 稠密指标列存储
+ * 每个指标槽位对应一个 double[] 列，按K线索引寻址；
+ * 未计算或处于预热期的位置为 NaN（对应旧接口中的 null）
+ * 
+ * 槽位编号由 {@link IndicatorRegistry} 统一分配
+ * 
+ * 可以指定只读的父层：读取时本层没有的列回退到父层，
+ * 写入时先把父层对应列复制到本层（写时复制），父层本身永远不会被修改
+ * 
+ * 子区间视图的指标层带有行偏移：本层第 row 行对应父层第 row + parentOffset 行
+ * 
+ * 列也可以与其他层共享（{@link #share(int, double[])}，例如指标缓存中的结果）：
+ * 共享列只读，本层第一次写入时先复制一份
+ */
+public class IndicatorColumns {
+    
+    private double[][] columns = new double[0][];
+    
+    // 与其他层共享的列（写入前需要复制）
+    private boolean[] shared = new boolean[0];
+    
+    // 新建列的初始长度（通常等于序列长度）
+    private int rowCapacity;
+    
+    // 只读父层（可为 null）
+    private final IndicatorColumns parent;
+    
+    // 本层行号到父层行号的偏移
+    private final int parentOffset;
+    
+    /**
+     * 构造函数
+     * 
+     * @param rowCapacity 新建列的初始长度
+     */
+    public IndicatorColumns(int rowCapacity) {
+        this(rowCapacity, null);
+    }
+    
+    /**
+     * 构造函数
+     * 
+     * @param rowCapacity 新建列的初始长度
+     * @param parent 只读父层（可为 null）
+     */
+    public IndicatorColumns(int rowCapacity, IndicatorColumns parent) {
+        this(rowCapacity, parent, 0);
+    }
+    
+    /**
+     * 构造函数
+     * 
+     * @param rowCapacity 新建列的初始长度
+     * @param parent 只读父层（可为 null）
+     * @param parentOffset 本层行号到父层行号的偏移
+     */
+    public IndicatorColumns(int rowCapacity, IndicatorColumns parent, int parentOffset) {
+        this.rowCapacity = Math.max(1, rowCapacity);
+        this.parent = parent;
+        this.parentOffset = parentOffset;
+    }
+    
+    /**
+     * 读取指标值
+     * 
+     * @param slot 指标槽位
+     * @param row K线索引
+     * @return 指标值，不存在时返回 NaN
+     */
+    public double get(int slot, int row) {
+        double[] column = slot >= 0 && slot < columns.length ? columns[slot] : null;
+        if (column == null) {
+            return parent != null ? parent.get(slot, row + parentOffset) : Double.NaN;
+        }
+        return row < column.length ? column[row] : Double.NaN;
+    }
+    
+    /**
+     * 写入指标值
+     * 
+     * @param slot 指标槽位
+     * @param row K线索引
+     * @param value 指标值（NaN 表示无值）
+     */
+    public void set(int slot, int row, double value) {
+        double[] column = slot < columns.length ? columns[slot] : null;
+        if (column == null) {
+            if (Double.isNaN(value) && (parent == null || !parent.hasColumn(slot))) {
+                return;
+            }
+            column = createColumn(slot, row + 1);
+        } else if (row >= column.length) {
+            column = growColumn(slot, row + 1);
+        } else if (shared[slot]) {
+            column = unshare(slot);
+        }
+        column[row] = value;
+    }
+    
+    /**
+     * 是否存在该槽位的列（包括父层）
+     */
+    public boolean hasColumn(int slot) {
+        return hasOwnColumn(slot) || (parent != null && parent.hasColumn(slot));
+    }
+    
+    /**
+     * 本层是否存在该槽位的列（不含父层）
+     */
+    public boolean hasOwnColumn(int slot) {
+        return slot >= 0 && slot < columns.length && columns[slot] != null;
+    }
+    
+    /**
+     * 获取指标列（只读；本层没有时返回父层的列）
+     * 带行偏移的层只返回本层的列，父层的值请通过 {@link #get(int, int)} 读取
+     * 
+     * @param slot 指标槽位
+     * @return 指标列，不存在时返回 null
+     */
+    public double[] column(int slot) {
+        if (hasOwnColumn(slot)) {
+            return columns[slot];
+        }
+        return parent != null && parentOffset == 0 ? parent.column(slot) : null;
+    }
+    
+    /**
+     * 获取本层可写的指标列，不存在时创建（新列复制父层的值，父层没有时全部为 NaN）
+     * 
+     * @param slot 指标槽位
+     * @param rows 列的最小长度
+     * @return 指标列
+     */
+    public double[] columnForWrite(int slot, int rows) {
+        double[] column = hasOwnColumn(slot) ? columns[slot] : null;
+        if (column == null) {
+            return createColumn(slot, rows);
+        }
+        if (column.length < rows) {
+            return growColumn(slot, rows);
+        }
+        return shared[slot] ? unshare(slot) : column;
+    }
+    
+    /**
+     * 把一个只读列放入本层（不复制），本层之后写入该槽位时先复制
+     * 也可以传入本层自己的列，把它标记为共享后交给其他层使用
+     * 
+     * @param slot 指标槽位
+     * @param column 共享的指标列（调用后任何一方都不能再直接修改）
+     */
+    public void share(int slot, double[] column) {
+        ensureSlot(slot);
+        columns[slot] = column;
+        shared[slot] = true;
+    }
+    
+    /**
+     * 已分配列的槽位上界（槽位编号小于此值）
+     */
+    public int slotLimit() {
+        return parent != null ? Math.max(columns.length, parent.slotLimit()) : columns.length;
+    }
+    
+    public IndicatorColumns getParent() {
+        return parent;
+    }
+    
+    /**
+     * 按给定置换重排所有列（序列排序时调用）
+     * 
+     * @param order 新索引 i 对应的原索引 order[i]
+     */
+    void permute(int[] order) {
+        for (int slot = 0; slot < columns.length; slot++) {
+            double[] column = columns[slot];
+            if (column == null) {
+                continue;
+            }
+            double[] result = new double[Math.max(column.length, order.length)];
+            Arrays.fill(result, Double.NaN);
+            for (int i = 0; i < order.length; i++) {
+                if (order[i] < column.length) {
+                    result[i] = column[order[i]];
+                }
+            }
+            columns[slot] = result;
+            shared[slot] = false;
+        }
+    }
+    
+    /**
+     * 更新新建列的初始长度（序列扩容时调用）
+     */
+    void ensureRowCapacity(int rows) {
+        if (rows > rowCapacity) {
+            rowCapacity = rows;
+        }
+    }
+    
+    private void ensureSlot(int slot) {
+        if (slot >= columns.length) {
+            columns = Arrays.copyOf(columns, Math.max(slot + 1, IndicatorRegistry.size()));
+            shared = Arrays.copyOf(shared, columns.length);
+        }
+    }
+    
+    private double[] createColumn(int slot, int minRows) {
+        ensureSlot(slot);
+        double[] parentColumn = parent != null && parentOffset == 0 ? parent.column(slot) : null;
+        int length = Math.max(rowCapacity, minRows);
+        double[] column;
+        if (parentColumn != null) {
+            column = Arrays.copyOf(parentColumn, Math.max(length, parentColumn.length));
+            Arrays.fill(column, parentColumn.length, column.length, Double.NaN);
+        } else if (parent != null && parent.hasColumn(slot)) {
+            // 父层带行偏移（子区间视图），逐行读取
+            column = new double[length];
+            for (int row = 0; row < length; row++) {
+                column[row] = get(slot, row);
+            }
+        } else {
+            column = new double[length];
+            Arrays.fill(column, Double.NaN);
+        }
+        columns[slot] = column;
+        shared[slot] = false;
+        return column;
+    }
+    
+    private double[] growColumn(int slot, int minRows) {
+        double[] column = columns[slot];
+        int oldLength = column.length;
+        int newLength = Math.max(minRows, Math.max(rowCapacity, oldLength + (oldLength >> 1)));
+        column = Arrays.copyOf(column, newLength);
+        Arrays.fill(column, oldLength, newLength, Double.NaN);
+        columns[slot] = column;
+        shared[slot] = false;
+        return column;
+    }
+    
+    private double[] unshare(int slot) {
+        double[] column = columns[slot].clone();
+        columns[slot] = column;
+        shared[slot] = false;
+        return column;
+    }
+}
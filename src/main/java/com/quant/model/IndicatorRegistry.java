@@ -0,0 +1,86 @@
+package com.quant.model;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 指标名称注册表
+ * 将指标名称 (如 "MA50"、"RSI14") 驻留为全局唯一的整数槽位，
+ * 指标值按槽位存储在 double 数组中，逐根K线访问时不再需要字符串哈希和装箱
+ * 
+ * 使用方式：
+ *   int slot = IndicatorRegistry.slotOf("MA50");   // 循环外解析一次
+ *   double ma = data.getIndicatorValue(slot);        // 循环内只做数组读取
+ * 
+ * 线程安全：注册操作加锁，查询操作无锁
+ */
+public final class IndicatorRegistry {
+    
+    private static final Map<String, Integer> slotsByName = new ConcurrentHashMap<>();
+    private static volatile String[] names = new String[0];
+    
+    private IndicatorRegistry() {
+    }
+    
+    /**
+     * 获取指标名称对应的槽位（不存在时注册新槽位）
+     * 
+     * @param name 指标名称
+     * @return 槽位编号（从0开始连续分配）
+     */
+    public static int slotOf(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("指标名称不能为空");
+        }
+        Integer slot = slotsByName.get(name);
+        if (slot != null) {
+            return slot;
+        }
+        return register(name);
+    }
+    
+    /**
+     * 查找指标名称对应的槽位（不注册）
+     * 
+     * @param name 指标名称
+     * @return 槽位编号，未注册时返回 -1
+     */
+    public static int find(String name) {
+        if (name == null) {
+            return -1;
+        }
+        Integer slot = slotsByName.get(name);
+        return slot != null ? slot : -1;
+    }
+    
+    /**
+     * 获取槽位对应的指标名称
+     * 
+     * @param slot 槽位编号
+     * @return 指标名称
+     */
+    public static String nameOf(int slot) {
+        return names[slot];
+    }
+    
+    /**
+     * 获取已注册的槽位数量
+     */
+    public static int size() {
+        return names.length;
+    }
+    
+    private static synchronized int register(String name) {
+        Integer existing = slotsByName.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        int slot = names.length;
+        String[] newNames = Arrays.copyOf(names, slot + 1);
+        newNames[slot] = name;
+        names = newNames;
+        slotsByName.put(name, slot);
+        return slot;
+    }
+}
@@ -0,0 +1,297 @@
+package com.quant.model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * 序列覆盖层 (Overlay)
+ * 在共享只读的行情数据 (StockSeries) 之上叠加一层可写的运行结果：
+ * 交易信号、持仓、收益率，以及本次运行新计算的指标
+ * 
+ * 设计说明：
+ *   - 行情列 (价格/成交量/日期) 不复制，所有覆盖层共享同一份 StockSeries
+ *   - 指标读取时先查本层，本层没有再查父层；写入只落在本层
+ *   - 结果列按需分配，运行 N 个策略的代价为 O(N × 结果列)，而不是 O(N × 整份数据拷贝)
+ * 
+ * 每个序列自带一个基础层 ({@link StockSeries#getBaseOverlay()})，
+ * 其指标直接写入序列本身的指标列，行情字段也允许修改；其余覆盖层的行情字段只读
+ */
+public class SeriesOverlay {
+    
+    private final StockSeries series;
+    private final SeriesOverlay parent;
+    private final IndicatorColumns indicators;
+    
+    // ========== 结果列 (按需分配) ==========
+    private int[] signal;
+    private int[] position;
+    private double[] dailyReturn;
+    private double[] strategyReturn;
+    private double[] cumulativeReturn;
+    private double[] portfolioValue;
+    
+    // 只读层（回测结果视图）拒绝任何写入
+    private boolean readOnly;
+    
+    SeriesOverlay(StockSeries series, SeriesOverlay parent, IndicatorColumns indicators) {
+        this.series = series;
+        this.parent = parent;
+        this.indicators = indicators;
+    }
+    
+    /**
+     * 为任意 StockData 列表创建一个独立的可写覆盖层
+     * 
+     * 如果列表本身是序列视图 (来自 {@link #asList()} 或 {@link StockSeries#asList()})，
+     * 直接在其之上叠加新层，不复制任何行情数据；
+     * 否则先把列表转换为列式序列（一次性拷贝原始字段、指标和日收益率）
+     * 
+     * @param dataList 股票数据列表
+     * @return 新的覆盖层，写入不会影响原列表
+     */
+    public static SeriesOverlay fork(List<StockData> dataList) {
+        SeriesOverlay source = of(dataList);
+        if (source != null) {
+            return source.newOverlay();
+        }
+        
+        StockSeries series = StockSeries.fromList(dataList);
+        SeriesOverlay base = series.getBaseOverlay();
+        int slots = IndicatorRegistry.size();
+        for (int i = 0; i < dataList.size(); i++) {
+            StockData data = dataList.get(i);
+            for (int slot = 0; slot < slots; slot++) {
+                double value = data.getIndicatorValue(slot);
+                if (!Double.isNaN(value)) {
+                    base.indicators.set(slot, i, value);
+                }
+            }
+            if (data.getDailyReturn() != 0) {
+                base.setDailyReturn(i, data.getDailyReturn());
+            }
+        }
+        return base;
+    }
+    
+    /**
+     * 获取列表背后的覆盖层
+     * 
+     * @param dataList 股票数据列表
+     * @return 覆盖层，列表不是序列视图时返回 null
+     */
+    public static SeriesOverlay of(List<StockData> dataList) {
+        return dataList instanceof BarList ? ((BarList) dataList).overlay : null;
+    }
+    
+    /**
+     * 在本层之上创建子覆盖层
+     * 子层可以读到本层及所有父层的指标和日收益率，写入互不影响
+     * 
+     * @return 子覆盖层
+     */
+    public SeriesOverlay newOverlay() {
+        return new SeriesOverlay(series, this, new IndicatorColumns(series.size(), indicators));
+    }
+    
+    /**
+     * 以给定的结果列创建只读子层（数组直接共享，不复制）
+     */
+    SeriesOverlay readOnlyView(int[] signal, int[] position, double[] strategyReturn,
+                               double[] cumulativeReturn, double[] portfolioValue) {
+        SeriesOverlay view = newOverlay();
+        view.signal = signal;
+        view.position = position;
+        view.strategyReturn = strategyReturn;
+        view.cumulativeReturn = cumulativeReturn;
+        view.portfolioValue = portfolioValue;
+        view.readOnly = true;
+        return view;
+    }
+    
+    /**
+     * 获取 StockData 视图列表
+     * 列表元素是轻量视图，每次 get 都会返回新的视图对象，所有状态都保存在本层的列中
+     * 
+     * @return StockData 视图列表
+     */
+    public List<StockData> asList() {
+        return new BarList(this);
+    }
+    
+    // ========== 基本属性 ==========
+    
+    public StockSeries getSeries() {
+        return series;
+    }
+    
+    public SeriesOverlay getParent() {
+        return parent;
+    }
+    
+    /**
+     * 是否为序列的基础层（基础层允许修改行情字段）
+     */
+    public boolean isBase() {
+        return parent == null;
+    }
+    
+    public int size() {
+        return series.size();
+    }
+    
+    public IndicatorColumns getIndicatorColumns() {
+        return indicators;
+    }
+    
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+    
+    void checkWritable() {
+        if (readOnly) {
+            throw new UnsupportedOperationException("回测结果只读");
+        }
+    }
+    
+    // ========== 结果列访问 ==========
+    
+    public int getSignal(int index) {
+        return signal != null && index < signal.length ? signal[index] : 0;
+    }
+    
+    public void setSignal(int index, int value) {
+        checkWritable();
+        signal = ensure(signal, index, 0);
+        signal[index] = value;
+    }
+    
+    public int getPosition(int index) {
+        return position != null && index < position.length ? position[index] : 0;
+    }
+    
+    public void setPosition(int index, int value) {
+        checkWritable();
+        position = ensure(position, index, 0);
+        position[index] = value;
+    }
+    
+    /**
+     * 读取日收益率（本层未写入时读取父层）
+     */
+    public double getDailyReturn(int index) {
+        if (dailyReturn != null && index < dailyReturn.length) {
+            return dailyReturn[index];
+        }
+        return parent != null ? parent.getDailyReturn(index) : 0;
+    }
+    
+    public void setDailyReturn(int index, double value) {
+        checkWritable();
+        if (dailyReturn == null) {
+            // 首次写入时复制父层的日收益率，保证未写入的位置仍能读到父层的值
+            dailyReturn = new double[Math.max(series.size(), index + 1)];
+            if (parent != null) {
+                for (int i = 0; i < dailyReturn.length; i++) {
+                    dailyReturn[i] = parent.getDailyReturn(i);
+                }
+            }
+        }
+        dailyReturn = ensure(dailyReturn, index, 0);
+        dailyReturn[index] = value;
+    }
+    
+    public double getStrategyReturn(int index) {
+        return strategyReturn != null && index < strategyReturn.length ? strategyReturn[index] : 0;
+    }
+    
+    public void setStrategyReturn(int index, double value) {
+        checkWritable();
+        strategyReturn = ensure(strategyReturn, index, 0);
+        strategyReturn[index] = value;
+    }
+    
+    public double getCumulativeReturn(int index) {
+        return cumulativeReturn != null && index < cumulativeReturn.length ? cumulativeReturn[index] : 1;
+    }
+    
+    public void setCumulativeReturn(int index, double value) {
+        checkWritable();
+        cumulativeReturn = ensure(cumulativeReturn, index, 1);
+        cumulativeReturn[index] = value;
+    }
+    
+    public double getPortfolioValue(int index) {
+        return portfolioValue != null && index < portfolioValue.length ? portfolioValue[index] : 0;
+    }
+    
+    public void setPortfolioValue(int index, double value) {
+        checkWritable();
+        portfolioValue = ensure(portfolioValue, index, 0);
+        portfolioValue[index] = value;
+    }
+    
+    /**
+     * 清空结果列（序列重排后结果不再对应原K线）
+     */
+    void clearResults() {
+        signal = null;
+        position = null;
+        dailyReturn = null;
+        strategyReturn = null;
+        cumulativeReturn = null;
+        portfolioValue = null;
+    }
+    
+    private int[] ensure(int[] column, int index, int defaultValue) {
+        if (column != null && index < column.length) {
+            return column;
+        }
+        int oldLength = column == null ? 0 : column.length;
+        int newLength = Math.max(index + 1, Math.max(series.size(), oldLength + (oldLength >> 1)));
+        int[] result = column == null ? new int[newLength] : Arrays.copyOf(column, newLength);
+        if (defaultValue != 0) {
+            Arrays.fill(result, oldLength, newLength, defaultValue);
+        }
+        return result;
+    }
+    
+    private double[] ensure(double[] column, int index, double defaultValue) {
+        if (column != null && index < column.length) {
+            return column;
+        }
+        int oldLength = column == null ? 0 : column.length;
+        int newLength = Math.max(index + 1, Math.max(series.size(), oldLength + (oldLength >> 1)));
+        double[] result = column == null ? new double[newLength] : Arrays.copyOf(column, newLength);
+        if (defaultValue != 0) {
+            Arrays.fill(result, oldLength, newLength, defaultValue);
+        }
+        return result;
+    }
+    
+    /**
+     * 覆盖层的 StockData 视图列表
+     */
+    private static final class BarList extends AbstractList<StockData> implements RandomAccess {
+        
+        private final SeriesOverlay overlay;
+        
+        BarList(SeriesOverlay overlay) {
+            this.overlay = overlay;
+        }
+        
+        @Override
+        public StockData get(int index) {
+            if (index < 0 || index >= overlay.size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + overlay.size());
+            }
+            return new StockBar(overlay, index);
+        }
+        
+        @Override
+        public int size() {
+            return overlay.size();
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package com.quant.model;
+
+import java.time.LocalDate;
+
+/**
+ * StockSeries 中单根K线的 StockData 视图（兼容旧代码）
+ * 
+ * 原始字段 (价格、成交量、日期等) 直接读取所属序列的列数组，
+ * 技术指标、交易信号和收益读写所属覆盖层 (SeriesOverlay) 的列，
+ * 视图对象本身不保存任何状态
+ * 
+ * 只有序列基础层上的视图允许修改原始字段，其余覆盖层共享的行情数据是只读的
+ */
+public class StockBar extends StockData {
+    
+    private final SeriesOverlay overlay;
+    private final StockSeries series;
+    private final int index;
+    
+    /**
+     * 构造函数
+     * 
+     * @param overlay 所属覆盖层
+     * @param index 在序列中的索引
+     */
+    public StockBar(SeriesOverlay overlay, int index) {
+        this.overlay = overlay;
+        this.series = overlay.getSeries();
+        this.index = index;
+    }
+    
+    public StockSeries getSeries() {
+        return series;
+    }
+    
+    public SeriesOverlay getOverlay() {
+        return overlay;
+    }
+    
+    public int getIndex() {
+        return index;
+    }
+    
+    private void checkWritable() {
+        if (!overlay.isBase()) {
+            throw new UnsupportedOperationException("共享行情数据只读，请在序列基础层上修改");
+        }
+    }
+    
+    // ========== 原始数据字段 (委托给列数组) ==========
+    
+    @Override
+    public Long getId() {
+        return series.getIdValue(index);
+    }
+    
+    @Override
+    public void setId(Long id) {
+        checkWritable();
+        series.setId(index, id != null ? id : StockSeries.NULL_LONG);
+    }
+    
+    @Override
+    public String getSymbol() {
+        return series.getSymbol(index);
+    }
+    
+    @Override
+    public void setSymbol(String symbol) {
+        checkWritable();
+        series.setSymbol(index, symbol);
+    }
+    
+    @Override
+    public Long getSymbolId() {
+        return series.getSymbolIdValue(index);
+    }
+    
+    @Override
+    public void setSymbolId(Long symbolId) {
+        checkWritable();
+        series.setSymbolId(index, symbolId != null ? symbolId : StockSeries.NULL_LONG);
+    }
+    
+    @Override
+    public String getKlineType() {
+        return series.getKlineType(index);
+    }
+    
+    @Override
+    public void setKlineType(String klineType) {
+        checkWritable();
+        series.setKlineType(index, klineType);
+    }
+    
+    @Override
+    public Long getTime() {
+        return series.getTimeValue(index);
+    }
+    
+    @Override
+    public void setTime(Long time) {
+        checkWritable();
+        series.setTime(index, time != null ? time : StockSeries.NULL_LONG);
+    }
+    
+    @Override
+    public String getMarketCc() {
+        return series.getMarketCc(index);
+    }
+    
+    @Override
+    public void setMarketCc(String marketCc) {
+        checkWritable();
+        series.setMarketCc(index, marketCc);
+    }
+    
+    @Override
+    public LocalDate getTradeDate() {
+        return series.getTradeDate(index);
+    }
+    
+    @Override
+    public void setTradeDate(LocalDate tradeDate) {
+        checkWritable();
+        series.setEpochDay(index, tradeDate != null ? (int) tradeDate.toEpochDay() : StockSeries.NULL_DAY);
+    }
+    
+    @Override
+    public LocalDate getDate() {
+        return getTradeDate();
+    }
+    
+    @Override
+    public void setDate(LocalDate date) {
+        setTradeDate(date);
+    }
+    
+    @Override
+    public double getOpen() {
+        return series.getOpen(index);
+    }
+    
+    @Override
+    public void setOpen(double open) {
+        checkWritable();
+        series.setOpen(index, open);
+    }
+    
+    @Override
+    public double getHigh() {
+        return series.getHigh(index);
+    }
+    
+    @Override
+    public void setHigh(double high) {
+        checkWritable();
+        series.setHigh(index, high);
+    }
+    
+    @Override
+    public double getLow() {
+        return series.getLow(index);
+    }
+    
+    @Override
+    public void setLow(double low) {
+        checkWritable();
+        series.setLow(index, low);
+    }
+    
+    @Override
+    public double getClose() {
+        return series.getClose(index);
+    }
+    
+    @Override
+    public void setClose(double close) {
+        checkWritable();
+        series.setClose(index, close);
+    }
+    
+    @Override
+    public double getVwap() {
+        return series.getVwap(index);
+    }
+    
+    @Override
+    public void setVwap(double vwap) {
+        checkWritable();
+        series.setVwap(index, vwap);
+    }
+    
+    @Override
+    public long getVolume() {
+        return series.getVolume(index);
+    }
+    
+    @Override
+    public void setVolume(long volume) {
+        checkWritable();
+        series.setVolume(index, volume);
+    }
+    
+    @Override
+    public double getAmount() {
+        return series.getAmount(index);
+    }
+    
+    @Override
+    public void setAmount(double amount) {
+        checkWritable();
+        series.setAmount(index, amount);
+    }
+    
+    @Override
+    public long getCount() {
+        return series.getCount(index);
+    }
+    
+    @Override
+    public void setCount(long count) {
+        checkWritable();
+        series.setCount(index, count);
+    }
+    
+    @Override
+    public int getSessionId() {
+        return series.getSessionId(index);
+    }
+    
+    @Override
+    public void setSessionId(int sessionId) {
+        checkWritable();
+        series.setSessionId(index, sessionId);
+    }
+    
+    // ========== 技术指标 (委托给覆盖层的指标列) ==========
+    
+    @Override
+    public double getIndicatorValue(int slot) {
+        return overlay.getIndicatorColumns().get(slot, index);
+    }
+    
+    @Override
+    public void setIndicatorValue(int slot, double value) {
+        overlay.checkWritable();
+        overlay.getIndicatorColumns().set(slot, index, value);
+    }
+    
+    @Override
+    protected void clearIndicators() {
+        overlay.checkWritable();
+        IndicatorColumns columns = overlay.getIndicatorColumns();
+        for (int slot = 0; slot < columns.slotLimit(); slot++) {
+            columns.set(slot, index, Double.NaN);
+        }
+    }
+    
+    // ========== 交易信号与收益 (委托给覆盖层的结果列) ==========
+    
+    @Override
+    public int getSignal() {
+        return overlay.getSignal(index);
+    }
+    
+    @Override
+    public void setSignal(int signal) {
+        overlay.setSignal(index, signal);
+    }
+    
+    @Override
+    public int getPosition() {
+        return overlay.getPosition(index);
+    }
+    
+    @Override
+    public void setPosition(int position) {
+        overlay.setPosition(index, position);
+    }
+    
+    @Override
+    public double getDailyReturn() {
+        return overlay.getDailyReturn(index);
+    }
+    
+    @Override
+    public void setDailyReturn(double dailyReturn) {
+        overlay.setDailyReturn(index, dailyReturn);
+    }
+    
+    @Override
+    public double getStrategyReturn() {
+        return overlay.getStrategyReturn(index);
+    }
+    
+    @Override
+    public void setStrategyReturn(double strategyReturn) {
+        overlay.setStrategyReturn(index, strategyReturn);
+    }
+    
+    @Override
+    public double getCumulativeReturn() {
+        return overlay.getCumulativeReturn(index);
+    }
+    
+    @Override
+    public void setCumulativeReturn(double cumulativeReturn) {
+        overlay.setCumulativeReturn(index, cumulativeReturn);
+    }
+    
+    @Override
+    public double getPortfolioValue() {
+        return overlay.getPortfolioValue(index);
+    }
+    
+    @Override
+    public void setPortfolioValue(double portfolioValue) {
+        overlay.setPortfolioValue(index, portfolioValue);
+    }
+}
@@ -1,6 +1,7 @@
 package com.quant.model;
 
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -28,8 +29,8 @@ public class StockData {
     private long count;           // 成交笔数
     private int sessionId;        // 会话ID
     
-    // ========== 技术指标 (动态存储) ==========
-    private Map<String, Double> indicators = new HashMap<>();
+    // ========== 技术指标 (按 IndicatorRegistry 槽位稠密存储，NaN 表示无值) ==========
+    private double[] indicatorValues;
     
     // ========== 交易信号与持仓 ==========
     // 交易信号: 1=买入, -1=卖出, 0=持有
@@ -275,30 +276,90 @@ public class StockData {
         this.portfolioValue = portfolioValue;
     }
     
+    /**
+     * 获取指标快照（兼容旧代码，返回的 Map 与本对象不再关联）
+     */
     public Map<String, Double> getIndicators() {
-        return indicators;
+        return getAllIndicators();
     }
     
+    /**
+     * 用给定的指标映射替换当前所有指标
+     */
     public void setIndicators(Map<String, Double> indicators) {
-        this.indicators = indicators;
+        clearIndicators();
+        for (Map.Entry<String, Double> entry : indicators.entrySet()) {
+            setIndicator(entry.getKey(), entry.getValue());
+        }
+    }
+    
+    // ========== 指标操作方法 (槽位接口，热点循环使用) ==========
+    
+    /**
+     * 按槽位读取指标值
+     * 
+     * @param slot 指标槽位 (见 {@link IndicatorRegistry#slotOf(String)})
+     * @return 指标值，不存在时返回 NaN
+     */
+    public double getIndicatorValue(int slot) {
+        if (indicatorValues == null || slot < 0 || slot >= indicatorValues.length) {
+            return Double.NaN;
+        }
+        return indicatorValues[slot];
+    }
+    
+    /**
+     * 按槽位写入指标值
+     * 
+     * @param slot 指标槽位 (见 {@link IndicatorRegistry#slotOf(String)})
+     * @param value 指标值（NaN 表示无值）
+     */
+    public void setIndicatorValue(int slot, double value) {
+        if (indicatorValues == null || slot >= indicatorValues.length) {
+            if (Double.isNaN(value)) {
+                return;
+            }
+            int oldLength = indicatorValues == null ? 0 : indicatorValues.length;
+            int newLength = Math.max(slot + 1, IndicatorRegistry.size());
+            indicatorValues = indicatorValues == null
+                    ? new double[newLength] : Arrays.copyOf(indicatorValues, newLength);
+            Arrays.fill(indicatorValues, oldLength, newLength, Double.NaN);
+        }
+        indicatorValues[slot] = value;
+    }
+    
+    /**
+     * 清除所有指标
+     */
+    protected void clearIndicators() {
+        indicatorValues = null;
     }
     
-    // ========== 指标操作方法 ==========
+    // ========== 指标操作方法 (名称接口，兼容旧代码) ==========
     
     public void setIndicator(String name, Double value) {
-        indicators.put(name, value);
+        setIndicatorValue(IndicatorRegistry.slotOf(name), value != null ? value : Double.NaN);
     }
     
     public Double getIndicator(String name) {
-        return indicators.get(name);
+        double value = getIndicatorValue(IndicatorRegistry.find(name));
+        return Double.isNaN(value) ? null : value;
     }
     
     public boolean hasIndicator(String name) {
-        return indicators.containsKey(name) && indicators.get(name) != null;
+        return !Double.isNaN(getIndicatorValue(IndicatorRegistry.find(name)));
     }
     
     public Map<String, Double> getAllIndicators() {
-        return new HashMap<>(indicators);
+        Map<String, Double> result = new HashMap<>();
+        int slots = IndicatorRegistry.size();
+        for (int slot = 0; slot < slots; slot++) {
+            double value = getIndicatorValue(slot);
+            if (!Double.isNaN(value)) {
+                result.put(IndicatorRegistry.nameOf(slot), value);
+            }
+        }
+        return result;
     }
     
     // ========== 便捷方法获取常用指标 ==========
@@ -330,6 +391,6 @@ public class StockData {
     @Override
     public String toString() {
         return String.format("StockData{symbol=%s, date=%s, O=%.2f, H=%.2f, L=%.2f, C=%.2f, V=%d, signal=%d}",
-                symbol, tradeDate, open, high, low, close, volume, signal);
+                getSymbol(), getTradeDate(), getOpen(), getHigh(), getLow(), getClose(), getVolume(), getSignal());
     }
 }
@@ -0,0 +1,800 @@
+package com.quant.model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 列式K线序列
+ * 使用并行的原始类型数组 (double[]/long[]/int[]) 存储K线数据，
+ * 替代 List&lt;StockData&gt; 作为回测数据载体
+ * 
+ * 设计说明：
+ *   - 每一列是一个连续数组，顺序遍历时对CPU缓存友好
+ *   - 交易日期以 epochDay (LocalDate.toEpochDay) 存储，不再为每行创建 LocalDate 对象
+ *   - 股票代码、K线类型、市场代码以 {@link StringDictionary} 编码存储，每行一个 int
+ *   - 旧代码可通过 {@link #asList()} 获得 StockData 视图，读写直接落到列数组上
+ *   - 多次运行策略时使用 {@link #newOverlay()} 叠加可写覆盖层，无需复制数据
+ *   - 按日期排序后可用二分查找定位日期 ({@link #lowerBound(int)})，
+ *     并通过 {@link #slice(int, int)} / {@link #sliceByDate} 得到不复制数据的子区间视图
+ */
+public class StockSeries {
+    
+    /** long 列的缺失值标记（对应 StockData 中为 null 的 Long 字段） */
+    public static final long NULL_LONG = Long.MIN_VALUE;
+    
+    /** 日期列的缺失值标记 */
+    public static final int NULL_DAY = Integer.MIN_VALUE;
+    
+    private static final int DEFAULT_CAPACITY = 256;
+    
+    // ========== 价格/成交列 ==========
+    private double[] open;
+    private double[] high;
+    private double[] low;
+    private double[] close;
+    private double[] vwap;
+    private double[] amount;
+    private long[] volume;
+    private long[] count;
+    private int[] epochDay;
+    
+    // ========== 元数据列 ==========
+    private long[] id;
+    private long[] symbolId;
+    private long[] time;
+    private int[] sessionId;
+    
+    // ========== 字典编码的字符串列 ==========
+    private final StringDictionary dictionary;
+    private int[] symbol;
+    private int[] klineType;
+    private int[] marketCc;
+    
+    private int size;
+    
+    // 子区间视图在共享列数组中的起始位置（完整序列为 0）
+    private final int offset;
+    
+    // 是否为子区间视图（视图共享源序列的列数组，不能追加数据）
+    private final boolean view;
+    
+    // 交易日期是否为非递减顺序（追加和修改日期时维护），只在 sortedDateVersion 等于 version[2] 时有效；
+    // 视图与源序列共享日期列，任一方修改日期后另一方读取时重新检查
+    private boolean sorted = true;
+    private long sortedDateVersion;
+    
+    // 行情数据的修改计数，与子区间视图共享：
+    // [0] 追加、修改、重排时递增；[1] 只在修改已有K线或重排时递增；[2] 只在修改交易日期或重排时递增
+    private final long[] version;
+    
+    // ========== 指标列 ==========
+    private final IndicatorColumns indicators;
+    
+    // 基础覆盖层（指标写入本序列的指标列）
+    private final SeriesOverlay baseOverlay;
+    
+    // ========== 构造函数 ==========
+    
+    public StockSeries() {
+        this(DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * 构造函数
+     * 
+     * @param initialCapacity 初始容量（预计的K线条数）
+     */
+    public StockSeries(int initialCapacity) {
+        this(initialCapacity, new StringDictionary());
+    }
+    
+    /**
+     * 构造函数
+     * 
+     * @param initialCapacity 初始容量（预计的K线条数）
+     * @param dictionary 字符串字典（同一次加载的多个序列可共享）
+     */
+    public StockSeries(int initialCapacity, StringDictionary dictionary) {
+        this.dictionary = dictionary;
+        int capacity = Math.max(1, initialCapacity);
+        open = new double[capacity];
+        high = new double[capacity];
+        low = new double[capacity];
+        close = new double[capacity];
+        vwap = new double[capacity];
+        amount = new double[capacity];
+        volume = new long[capacity];
+        count = new long[capacity];
+        epochDay = new int[capacity];
+        id = new long[capacity];
+        symbolId = new long[capacity];
+        time = new long[capacity];
+        sessionId = new int[capacity];
+        symbol = new int[capacity];
+        klineType = new int[capacity];
+        marketCc = new int[capacity];
+        indicators = new IndicatorColumns(capacity);
+        baseOverlay = new SeriesOverlay(this, null, indicators);
+        version = new long[3];
+        offset = 0;
+        view = false;
+    }
+    
+    /**
+     * 子区间视图构造函数（共享源序列的列数组）
+     */
+    private StockSeries(StockSeries source, int fromIndex, int toIndex) {
+        open = source.open;
+        high = source.high;
+        low = source.low;
+        close = source.close;
+        vwap = source.vwap;
+        amount = source.amount;
+        volume = source.volume;
+        count = source.count;
+        epochDay = source.epochDay;
+        id = source.id;
+        symbolId = source.symbolId;
+        time = source.time;
+        sessionId = source.sessionId;
+        dictionary = source.dictionary;
+        symbol = source.symbol;
+        klineType = source.klineType;
+        marketCc = source.marketCc;
+        version = source.version;
+        offset = source.offset + fromIndex;
+        size = toIndex - fromIndex;
+        view = true;
+        sorted = source.isSorted() || checkSorted();
+        sortedDateVersion = version[2];
+        // 指标读取回退到源序列（按偏移寻址），本视图上新计算的指标只写入自己的层
+        indicators = new IndicatorColumns(size, source.indicators, fromIndex);
+        baseOverlay = new SeriesOverlay(this, null, indicators);
+    }
+    
+    /**
+     * 从 StockData 列表构建列式序列（复制原始字段，不复制指标和信号）
+     * 
+     * @param dataList 股票数据列表
+     * @return 列式序列
+     */
+    public static StockSeries fromList(List<StockData> dataList) {
+        StockSeries series = new StockSeries(dataList.size());
+        for (StockData data : dataList) {
+            series.append(data);
+        }
+        return series;
+    }
+    
+    // ========== 追加数据 ==========
+    
+    /**
+     * 追加一条K线（复制 StockData 的原始字段）
+     * 
+     * @param data 股票数据
+     * @return 新K线的索引
+     */
+    public int append(StockData data) {
+        return append(
+                data.getId() != null ? data.getId() : NULL_LONG,
+                data.getSymbol(),
+                data.getSymbolId() != null ? data.getSymbolId() : NULL_LONG,
+                data.getKlineType(),
+                data.getTime() != null ? data.getTime() : NULL_LONG,
+                data.getMarketCc(),
+                data.getTradeDate() != null ? (int) data.getTradeDate().toEpochDay() : NULL_DAY,
+                data.getOpen(), data.getHigh(), data.getLow(), data.getClose(),
+                data.getVwap(), data.getVolume(), data.getAmount(),
+                data.getCount(), data.getSessionId());
+    }
+    
+    /**
+     * 追加另一个序列中的一条K线（复制原始字段，不复制指标）
+     * 
+     * @param source 源序列
+     * @param index 源序列中的索引
+     * @return 新K线的索引
+     */
+    public int append(StockSeries source, int index) {
+        int row = source.offset + index;
+        if (source.dictionary == dictionary) {
+            return appendEncoded(source.id[row], source.symbol[row], source.symbolId[row],
+                    source.klineType[row], source.time[row], source.marketCc[row],
+                    source.epochDay[row], source.open[row], source.high[row],
+                    source.low[row], source.close[row], source.vwap[row],
+                    source.volume[row], source.amount[row], source.count[row],
+                    source.sessionId[row]);
+        }
+        return append(source.id[row], source.getSymbol(index), source.symbolId[row],
+                source.getKlineType(index), source.time[row], source.getMarketCc(index),
+                source.epochDay[row], source.open[row], source.high[row],
+                source.low[row], source.close[row], source.vwap[row],
+                source.volume[row], source.amount[row], source.count[row],
+                source.sessionId[row]);
+    }
+    
+    /**
+     * 追加一条K线（字段顺序与 StockData 完整构造函数一致）
+     * 
+     * @return 新K线的索引
+     */
+    public int append(long id, String symbol, long symbolId, String klineType, long time,
+                      String marketCc, int epochDay, double open, double high,
+                      double low, double close, double vwap, long volume, double amount,
+                      long count, int sessionId) {
+        return appendEncoded(id, dictionary.encode(symbol), symbolId, dictionary.encode(klineType), time,
+                dictionary.encode(marketCc), epochDay, open, high, low, close, vwap,
+                volume, amount, count, sessionId);
+    }
+    
+    /**
+     * 追加一条K线，字符串列直接给出本序列字典中的编码（由加载器在解码时使用）
+     * 
+     * @return 新K线的索引
+     */
+    public int appendEncoded(long id, int symbol, long symbolId, int klineType, long time,
+                             int marketCc, int epochDay, double open, double high,
+                             double low, double close, double vwap, long volume, double amount,
+                             long count, int sessionId) {
+        if (view) {
+            throw new UnsupportedOperationException("子区间视图不能追加数据");
+        }
+        ensureCapacity(size + 1);
+        int i = size;
+        if (i > 0 && epochDay < this.epochDay[i - 1]) {
+            sorted = false;
+        }
+        this.id[i] = id;
+        this.symbol[i] = symbol;
+        this.symbolId[i] = symbolId;
+        this.klineType[i] = klineType;
+        this.time[i] = time;
+        this.marketCc[i] = marketCc;
+        this.epochDay[i] = epochDay;
+        this.open[i] = open;
+        this.high[i] = high;
+        this.low[i] = low;
+        this.close[i] = close;
+        this.vwap[i] = vwap;
+        this.volume[i] = volume;
+        this.amount[i] = amount;
+        this.count[i] = count;
+        this.sessionId[i] = sessionId;
+        size++;
+        version[0]++;
+        return i;
+    }
+    
+    private void ensureCapacity(int required) {
+        if (required <= close.length) {
+            return;
+        }
+        int capacity = Math.max(required, close.length + (close.length >> 1));
+        open = Arrays.copyOf(open, capacity);
+        high = Arrays.copyOf(high, capacity);
+        low = Arrays.copyOf(low, capacity);
+        close = Arrays.copyOf(close, capacity);
+        vwap = Arrays.copyOf(vwap, capacity);
+        amount = Arrays.copyOf(amount, capacity);
+        volume = Arrays.copyOf(volume, capacity);
+        count = Arrays.copyOf(count, capacity);
+        epochDay = Arrays.copyOf(epochDay, capacity);
+        id = Arrays.copyOf(id, capacity);
+        symbolId = Arrays.copyOf(symbolId, capacity);
+        time = Arrays.copyOf(time, capacity);
+        sessionId = Arrays.copyOf(sessionId, capacity);
+        symbol = Arrays.copyOf(symbol, capacity);
+        klineType = Arrays.copyOf(klineType, capacity);
+        marketCc = Arrays.copyOf(marketCc, capacity);
+        indicators.ensureRowCapacity(capacity);
+    }
+    
+    // ========== 排序 ==========
+    
+    /**
+     * 按交易日期升序排序（稳定排序，已有序时不做任何操作）
+     * 应在运行策略之前调用：重排后基础层已有的信号与收益会被清空
+     */
+    public void sortByTradeDate() {
+        if (isSorted() || checkSorted()) {
+            sorted = true;
+            return;
+        }
+        if (view) {
+            throw new UnsupportedOperationException("子区间视图不能重排，请在源序列上排序");
+        }
+        
+        // 高32位放日期、低32位放原索引，排序后即得到稳定的置换
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = ((long) epochDay[i] << 32) | i;
+        }
+        Arrays.sort(keys);
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = (int) keys[i];
+        }
+        
+        open = permute(open, order);
+        high = permute(high, order);
+        low = permute(low, order);
+        close = permute(close, order);
+        vwap = permute(vwap, order);
+        amount = permute(amount, order);
+        volume = permute(volume, order);
+        count = permute(count, order);
+        epochDay = permute(epochDay, order);
+        id = permute(id, order);
+        symbolId = permute(symbolId, order);
+        time = permute(time, order);
+        sessionId = permute(sessionId, order);
+        symbol = permute(symbol, order);
+        klineType = permute(klineType, order);
+        marketCc = permute(marketCc, order);
+        indicators.permute(order);
+        baseOverlay.clearResults();
+        version[2]++;
+        sorted = true;
+        sortedDateVersion = version[2];
+        rewritten();
+    }
+    
+    /**
+     * 是否已按交易日期升序排列（日期查找和按日期切片的前提）
+     */
+    public boolean isSortedByTradeDate() {
+        return isSorted();
+    }
+    
+    /**
+     * 排序状态（共享的日期列在其他实例上被修改后重新检查）
+     */
+    private boolean isSorted() {
+        if (sortedDateVersion != version[2]) {
+            sorted = checkSorted();
+            sortedDateVersion = version[2];
+        }
+        return sorted;
+    }
+    
+    private boolean checkSorted() {
+        for (int i = offset + 1; i < offset + size; i++) {
+            if (epochDay[i] < epochDay[i - 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    // ========== 日期索引 ==========
+    
+    /**
+     * 第一个交易日不早于给定日期的索引（二分查找，O(log n)）
+     * 
+     * @param day 日期 (epochDay)
+     * @return 索引，所有K线都早于该日期时返回 size()
+     */
+    public int lowerBound(int day) {
+        checkSortedForSearch();
+        int lo = offset;
+        int hi = offset + size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (epochDay[mid] < day) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo - offset;
+    }
+    
+    /**
+     * 第一个交易日晚于给定日期的索引（二分查找，O(log n)）
+     * 
+     * @param day 日期 (epochDay)
+     * @return 索引，没有更晚的K线时返回 size()
+     */
+    public int upperBound(int day) {
+        checkSortedForSearch();
+        int lo = offset;
+        int hi = offset + size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (epochDay[mid] <= day) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo - offset;
+    }
+    
+    /**
+     * 查找给定交易日的第一条K线
+     * 
+     * @param date 交易日期
+     * @return 索引，不存在时返回 -1
+     */
+    public int indexOf(LocalDate date) {
+        int day = (int) date.toEpochDay();
+        int index = lowerBound(day);
+        return index < size && getEpochDay(index) == day ? index : -1;
+    }
+    
+    private void checkSortedForSearch() {
+        if (!isSorted()) {
+            throw new IllegalStateException("序列未按交易日期排序，请先调用 sortByTradeDate()");
+        }
+    }
+    
+    // ========== 子区间视图 ==========
+    
+    /**
+     * 获取 [fromIndex, toIndex) 的子区间视图
+     * 
+     * 视图与源序列共享行情列（不复制），修改视图基础层的行情字段会反映到源序列上；
+     * 源序列已计算的指标在视图中可见，视图上新计算的指标只写入视图自身。
+     * 与 {@link List#subList} 类似，源序列之后被重排时已创建的视图不再有效
+     * 
+     * @param fromIndex 起始索引（包含）
+     * @param toIndex 结束索引（不包含）
+     * @return 子区间视图
+     */
+    public StockSeries slice(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException(
+                    "fromIndex: " + fromIndex + ", toIndex: " + toIndex + ", size: " + size);
+        }
+        return new StockSeries(this, fromIndex, toIndex);
+    }
+    
+    /**
+     * 按日期范围获取子区间视图（二分查找定位，不复制数据）
+     * 
+     * @param startDate 开始日期（包含，null 表示不限制）
+     * @param endDate 结束日期（包含，null 表示不限制）
+     * @return 子区间视图
+     */
+    public StockSeries sliceByDate(LocalDate startDate, LocalDate endDate) {
+        int from = startDate != null ? lowerBound((int) startDate.toEpochDay()) : firstDatedIndex();
+        int to = endDate != null ? upperBound((int) endDate.toEpochDay()) : size;
+        return slice(from, Math.max(from, to));
+    }
+    
+    /**
+     * 是否为子区间视图
+     */
+    public boolean isView() {
+        return view;
+    }
+    
+    /**
+     * 行情数据的版本号：每次追加、修改行情字段或重排后递增（源序列与其子区间视图共享）
+     * 用于判断按序列缓存的计算结果是否仍然有效
+     */
+    public long getVersion() {
+        return version[0];
+    }
+    
+    /**
+     * 已有K线的改写版本号：修改行情字段或重排后递增，追加K线不改变（源序列与其子区间视图共享）
+     * 与 {@link #getVersion()} 配合判断两次观察之间是否只追加了新K线，可增量更新的缓存据此只处理新增部分
+     */
+    public long getRewriteVersion() {
+        return version[1];
+    }
+    
+    /**
+     * 已有K线被修改或重排
+     */
+    private void rewritten() {
+        version[0]++;
+        version[1]++;
+    }
+    
+    // 缺失日期 (NULL_DAY) 排在最前面，不属于任何日期范围
+    private int firstDatedIndex() {
+        return lowerBound(NULL_DAY + 1);
+    }
+    
+    private static double[] permute(double[] column, int[] order) {
+        double[] result = new double[column.length];
+        for (int i = 0; i < order.length; i++) {
+            result[i] = column[order[i]];
+        }
+        return result;
+    }
+    
+    private static long[] permute(long[] column, int[] order) {
+        long[] result = new long[column.length];
+        for (int i = 0; i < order.length; i++) {
+            result[i] = column[order[i]];
+        }
+        return result;
+    }
+    
+    private static int[] permute(int[] column, int[] order) {
+        int[] result = new int[column.length];
+        for (int i = 0; i < order.length; i++) {
+            result[i] = column[order[i]];
+        }
+        return result;
+    }
+    
+    // ========== 视图与转换 ==========
+    
+    /**
+     * 获取 StockData 视图列表（兼容旧代码）
+     * 视图读写本序列的基础层：原始字段和指标直接落到本序列的列数组上
+     * 
+     * @return StockData 视图列表
+     */
+    public List<StockData> asList() {
+        return baseOverlay.asList();
+    }
+    
+    /**
+     * 获取基础覆盖层
+     */
+    public SeriesOverlay getBaseOverlay() {
+        return baseOverlay;
+    }
+    
+    /**
+     * 在基础层之上创建新的可写覆盖层（共享行情数据和已计算的指标，不复制）
+     * 
+     * @return 新的覆盖层
+     */
+    public SeriesOverlay newOverlay() {
+        return baseOverlay.newOverlay();
+    }
+    
+    /**
+     * 转换为独立的 StockData 列表（每行一个新对象，与本序列不再关联）
+     * 
+     * @return 股票数据列表
+     */
+    public List<StockData> toStockDataList() {
+        List<StockData> dataList = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int row = offset + i;
+            dataList.add(new StockData(
+                    getIdValue(i), getSymbol(i), getSymbolIdValue(i), getKlineType(i), getTimeValue(i),
+                    getMarketCc(i), getTradeDate(i), open[row], high[row], low[row], close[row],
+                    vwap[row], volume[row], amount[row], count[row], sessionId[row]));
+        }
+        return dataList;
+    }
+    
+    // ========== 列访问 ==========
+    
+    public int size() {
+        return size;
+    }
+    
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    public double getOpen(int index) {
+        return open[offset + index];
+    }
+    
+    public double getHigh(int index) {
+        return high[offset + index];
+    }
+    
+    public double getLow(int index) {
+        return low[offset + index];
+    }
+    
+    public double getClose(int index) {
+        return close[offset + index];
+    }
+    
+    public double getVwap(int index) {
+        return vwap[offset + index];
+    }
+    
+    public double getAmount(int index) {
+        return amount[offset + index];
+    }
+    
+    public long getVolume(int index) {
+        return volume[offset + index];
+    }
+    
+    public long getCount(int index) {
+        return count[offset + index];
+    }
+    
+    public int getEpochDay(int index) {
+        return epochDay[offset + index];
+    }
+    
+    /**
+     * 获取交易日期（按需创建 LocalDate，热点循环中请使用 {@link #getEpochDay(int)}）
+     */
+    public LocalDate getTradeDate(int index) {
+        int day = epochDay[offset + index];
+        return day == NULL_DAY ? null : LocalDate.ofEpochDay(day);
+    }
+    
+    public long getId(int index) {
+        return id[offset + index];
+    }
+    
+    public long getSymbolId(int index) {
+        return symbolId[offset + index];
+    }
+    
+    public long getTime(int index) {
+        return time[offset + index];
+    }
+    
+    public int getSessionId(int index) {
+        return sessionId[offset + index];
+    }
+    
+    public String getSymbol(int index) {
+        return dictionary.decode(symbol[offset + index]);
+    }
+    
+    public String getKlineType(int index) {
+        return dictionary.decode(klineType[offset + index]);
+    }
+    
+    public String getMarketCc(int index) {
+        return dictionary.decode(marketCc[offset + index]);
+    }
+    
+    /**
+     * 获取股票代码的字典编码（同一字典下编码相同即股票代码相同）
+     */
+    public int getSymbolCode(int index) {
+        return symbol[offset + index];
+    }
+    
+    public int getKlineTypeCode(int index) {
+        return klineType[offset + index];
+    }
+    
+    public int getMarketCcCode(int index) {
+        return marketCc[offset + index];
+    }
+    
+    /**
+     * 获取字符串列使用的字典
+     */
+    public StringDictionary getDictionary() {
+        return dictionary;
+    }
+    
+    /**
+     * 获取指标列存储（StockData 视图的指标读写都落在这里）
+     */
+    public IndicatorColumns getIndicatorColumns() {
+        return indicators;
+    }
+    
+    /**
+     * 按槽位读取指标值
+     * 
+     * @return 指标值，不存在时返回 NaN
+     */
+    public double getIndicatorValue(int slot, int index) {
+        return indicators.get(slot, index);
+    }
+    
+    Long getIdValue(int index) {
+        return id[offset + index] == NULL_LONG ? null : id[offset + index];
+    }
+    
+    Long getSymbolIdValue(int index) {
+        return symbolId[offset + index] == NULL_LONG ? null : symbolId[offset + index];
+    }
+    
+    Long getTimeValue(int index) {
+        return time[offset + index] == NULL_LONG ? null : time[offset + index];
+    }
+    
+    // ========== 列写入（供 StockData 视图的 setter 使用） ==========
+    
+    void setOpen(int index, double value) {
+        open[offset + index] = value;
+        rewritten();
+    }
+    
+    void setHigh(int index, double value) {
+        high[offset + index] = value;
+        rewritten();
+    }
+    
+    void setLow(int index, double value) {
+        low[offset + index] = value;
+        rewritten();
+    }
+    
+    void setClose(int index, double value) {
+        close[offset + index] = value;
+        rewritten();
+    }
+    
+    void setVwap(int index, double value) {
+        vwap[offset + index] = value;
+        rewritten();
+    }
+    
+    void setAmount(int index, double value) {
+        amount[offset + index] = value;
+        rewritten();
+    }
+    
+    void setVolume(int index, long value) {
+        volume[offset + index] = value;
+        rewritten();
+    }
+    
+    void setCount(int index, long value) {
+        count[offset + index] = value;
+        rewritten();
+    }
+    
+    void setEpochDay(int index, int value) {
+        boolean keepsOrder = isSorted() && !((index > 0 && value < getEpochDay(index - 1))
+                || (index + 1 < size && value > getEpochDay(index + 1)));
+        epochDay[offset + index] = value;
+        // 共享日期列的源序列和其他视图在下次读取排序状态时重新检查
+        version[2]++;
+        sorted = keepsOrder;
+        sortedDateVersion = version[2];
+        rewritten();
+    }
+    
+    void setId(int index, long value) {
+        id[offset + index] = value;
+        rewritten();
+    }
+    
+    void setSymbolId(int index, long value) {
+        symbolId[offset + index] = value;
+        rewritten();
+    }
+    
+    void setTime(int index, long value) {
+        time[offset + index] = value;
+        rewritten();
+    }
+    
+    void setSessionId(int index, int value) {
+        sessionId[offset + index] = value;
+        rewritten();
+    }
+    
+    void setSymbol(int index, String value) {
+        symbol[offset + index] = dictionary.encode(value);
+        rewritten();
+    }
+    
+    void setKlineType(int index, String value) {
+        klineType[offset + index] = dictionary.encode(value);
+        rewritten();
+    }
+    
+    void setMarketCc(int index, String value) {
+        marketCc[offset + index] = dictionary.encode(value);
+        rewritten();
+    }
+    
+    @Override
+    public String toString() {
+        if (size == 0) {
+            return "StockSeries{size=0}";
+        }
+        return String.format("StockSeries{symbol=%s, size=%d, range=%s~%s}",
+                getSymbol(0), size, getTradeDate(0), getTradeDate(size - 1));
+    }
+}
@@ -0,0 +1,103 @@
+package com.quant.model;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 字符串字典
+ * 把股票代码、市场代码、K线类型等取值很少的字符串列编码为小整数，
+ * 序列中每行只保存一个 int 编码，相同的字符串只保存一份
+ * 
+ * 同一次加载得到的序列共享一个字典，编码相同即字符串相同，
+ * 按股票代码分组/过滤时只需比较整数
+ * 
+ * 线程安全：新增取值时复制编码表（取值数量很少），解码只读一次 volatile 数组
+ */
+public class StringDictionary {
+    
+    /** null 的编码 */
+    public static final int NULL_CODE = -1;
+    
+    private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[0];
+    
+    /**
+     * 获取字符串的编码，不存在时分配新编码
+     * 
+     * @param value 字符串（可为 null）
+     * @return 编码，null 返回 {@link #NULL_CODE}
+     */
+    public int encode(String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        Integer code = codes.get(value);
+        return code != null ? code : add(value);
+    }
+    
+    private synchronized int add(String value) {
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        String[] current = values;
+        String[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = value;
+        values = updated;
+        codes.put(value, current.length);
+        return current.length;
+    }
+    
+    /**
+     * 查找字符串的编码（不分配新编码）
+     * 
+     * @param value 字符串（可为 null）
+     * @return 编码，不存在时返回 {@link #NULL_CODE}
+     */
+    public int find(String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        Integer code = codes.get(value);
+        return code != null ? code : NULL_CODE;
+    }
+    
+    /**
+     * 不区分大小写地匹配字符串，返回按编码索引的匹配表
+     * 用于把一次字符串比较转换为逐行的整数查表
+     * 
+     * @param value 要匹配的字符串
+     * @return matches[code] 为 true 表示该编码对应的字符串匹配
+     */
+    public boolean[] matchIgnoreCase(String value) {
+        String[] current = values;
+        boolean[] matches = new boolean[current.length];
+        for (int code = 0; code < current.length; code++) {
+            matches[code] = current[code].equalsIgnoreCase(value);
+        }
+        return matches;
+    }
+    
+    /**
+     * 解码
+     * 
+     * @param code 编码
+     * @return 字符串，{@link #NULL_CODE} 返回 null
+     */
+    public String decode(int code) {
+        return code == NULL_CODE ? null : values[code];
+    }
+    
+    /**
+     * 已分配的编码数量（编码范围为 [0, size)）
+     */
+    public int size() {
+        return values.length;
+    }
+    
+    @Override
+    public String toString() {
+        return "StringDictionary" + Arrays.toString(values);
+    }
+}
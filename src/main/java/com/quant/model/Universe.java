@@ -0,0 +1,330 @@
+package com.quant.model;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 多股票数据集 (Universe)
+ * 按 symbolId 保存多个股票的列式序列，并把它们对齐到统一的交易日历上
+ * 
+ * 设计说明：
+ *   - 交易日历是所有股票交易日的并集 (升序 epochDay 数组)
+ *   - 每个股票保存一个与日历等长的行号数组，当天没有K线时为 {@link #GAP}
+ *   - 行情数据仍在各自的 StockSeries 列中，不复制；对齐访问只多一次数组查找
+ *   - 截面策略按日期索引遍历所有股票，单股票策略直接取 {@link #getSeries(int)} 运行
+ * 
+ * 使用示例：
+ *   Universe universe = new Universe(batchResult.getSeriesBySymbol().values());
+ *   int day = universe.indexOfDate(LocalDate.of(2024, 1, 2));
+ *   double[] closes = universe.getCloses(day, null);
+ */
+public class Universe {
+    
+    /** 对齐后当天没有K线的行号标记 */
+    public static final int GAP = -1;
+    
+    private final StockSeries[] series;
+    private final long[] symbolIds;
+    private final int[] calendar;
+    private final int[][] rows;
+    private final Map<Long, Integer> indexBySymbolId;
+    
+    /**
+     * 构造函数
+     * 传入的序列不会被修改：已按交易日期排序的序列直接使用（不复制），
+     * 未排序的序列（包括子区间视图）复制一份行情后排序，{@link #getSeries(int)} 返回该副本；
+     * 缺少 symbol_id 的序列按加入顺序分配负数编号
+     * 
+     * @param seriesList 各股票的序列（每个序列只包含一个股票）
+     */
+    public Universe(Collection<StockSeries> seriesList) {
+        int count = seriesList.size();
+        this.series = new StockSeries[count];
+        this.symbolIds = new long[count];
+        this.indexBySymbolId = new HashMap<>(count * 2);
+        
+        int index = 0;
+        int totalRows = 0;
+        for (StockSeries source : seriesList) {
+            StockSeries s = source.isSortedByTradeDate() ? source : sortedCopy(source);
+            long symbolId = !s.isEmpty() && s.getSymbolId(0) != StockSeries.NULL_LONG
+                    ? s.getSymbolId(0) : -(index + 1);
+            if (indexBySymbolId.put(symbolId, index) != null) {
+                throw new IllegalArgumentException("重复的 symbol_id: " + symbolId);
+            }
+            series[index] = s;
+            symbolIds[index] = symbolId;
+            totalRows += s.size();
+            index++;
+        }
+        
+        this.calendar = buildCalendar(series, totalRows);
+        this.rows = new int[count][];
+        for (int i = 0; i < count; i++) {
+            rows[i] = align(series[i], calendar);
+        }
+    }
+    
+    /**
+     * 复制序列的行情数据并按交易日期排序（与源序列共享字符串字典，不复制指标）
+     */
+    private static StockSeries sortedCopy(StockSeries source) {
+        StockSeries copy = new StockSeries(source.size(), source.getDictionary());
+        for (int i = 0; i < source.size(); i++) {
+            copy.append(source, i);
+        }
+        copy.sortByTradeDate();
+        return copy;
+    }
+    
+    /**
+     * 所有股票交易日的并集（升序，去重，忽略缺失日期）
+     */
+    private static int[] buildCalendar(StockSeries[] series, int totalRows) {
+        int[] days = new int[totalRows];
+        int n = 0;
+        for (StockSeries s : series) {
+            for (int i = 0; i < s.size(); i++) {
+                int day = s.getEpochDay(i);
+                if (day != StockSeries.NULL_DAY) {
+                    days[n++] = day;
+                }
+            }
+        }
+        Arrays.sort(days, 0, n);
+        int unique = 0;
+        for (int i = 0; i < n; i++) {
+            if (unique == 0 || days[i] != days[unique - 1]) {
+                days[unique++] = days[i];
+            }
+        }
+        return Arrays.copyOf(days, unique);
+    }
+    
+    /**
+     * 双指针对齐：日历第 d 天对应序列中当天的第一条K线
+     */
+    private static int[] align(StockSeries s, int[] calendar) {
+        int[] aligned = new int[calendar.length];
+        Arrays.fill(aligned, GAP);
+        int d = 0;
+        for (int i = 0; i < s.size(); i++) {
+            int day = s.getEpochDay(i);
+            if (day == StockSeries.NULL_DAY) {
+                continue;
+            }
+            while (calendar[d] < day) {
+                d++;
+            }
+            if (aligned[d] == GAP) {
+                aligned[d] = i;
+            }
+        }
+        return aligned;
+    }
+    
+    // ========== 股票 ==========
+    
+    /**
+     * 股票数量
+     */
+    public int size() {
+        return series.length;
+    }
+    
+    /**
+     * 按 symbolId 查找股票索引
+     * 
+     * @return 股票索引，不存在时返回 -1
+     */
+    public int indexOfSymbolId(long symbolId) {
+        Integer index = indexBySymbolId.get(symbolId);
+        return index != null ? index : -1;
+    }
+    
+    public long getSymbolId(int symbolIndex) {
+        return symbolIds[symbolIndex];
+    }
+    
+    public String getSymbol(int symbolIndex) {
+        StockSeries s = series[symbolIndex];
+        return s.isEmpty() ? null : s.getSymbol(0);
+    }
+    
+    /**
+     * 获取股票的原始序列（未对齐，可直接用于单股票回测）
+     */
+    public StockSeries getSeries(int symbolIndex) {
+        return series[symbolIndex];
+    }
+    
+    /**
+     * 按 symbolId 获取原始序列
+     * 
+     * @return 序列，不存在时返回 null
+     */
+    public StockSeries getSeriesById(long symbolId) {
+        int index = indexOfSymbolId(symbolId);
+        return index >= 0 ? series[index] : null;
+    }
+    
+    /**
+     * 获取股票在统一日历上的列视图
+     */
+    public SymbolColumns columns(int symbolIndex) {
+        return new SymbolColumns(series[symbolIndex], rows[symbolIndex]);
+    }
+    
+    // ========== 交易日历 ==========
+    
+    /**
+     * 日历长度（交易日数）
+     */
+    public int getCalendarLength() {
+        return calendar.length;
+    }
+    
+    public int getEpochDay(int dayIndex) {
+        return calendar[dayIndex];
+    }
+    
+    public LocalDate getDate(int dayIndex) {
+        return LocalDate.ofEpochDay(calendar[dayIndex]);
+    }
+    
+    /**
+     * 查找交易日在日历中的索引（二分查找）
+     * 
+     * @return 日期索引，不是交易日时返回 -1
+     */
+    public int indexOfDate(LocalDate date) {
+        int index = Arrays.binarySearch(calendar, (int) date.toEpochDay());
+        return index >= 0 ? index : -1;
+    }
+    
+    // ========== 对齐访问 ==========
+    
+    /**
+     * 股票在某个交易日对应的序列行号
+     * 
+     * @return 行号，当天没有K线时返回 {@link #GAP}
+     */
+    public int rowAt(int symbolIndex, int dayIndex) {
+        return rows[symbolIndex][dayIndex];
+    }
+    
+    public boolean hasBar(int symbolIndex, int dayIndex) {
+        return rows[symbolIndex][dayIndex] != GAP;
+    }
+    
+    /**
+     * 对齐后的收盘价
+     * 
+     * @return 收盘价，当天没有K线时返回 NaN
+     */
+    public double getClose(int symbolIndex, int dayIndex) {
+        int row = rows[symbolIndex][dayIndex];
+        return row == GAP ? Double.NaN : series[symbolIndex].getClose(row);
+    }
+    
+    /**
+     * 某个交易日所有股票的收盘价截面
+     * 
+     * @param dayIndex 日期索引
+     * @param out 输出数组（长度不小于股票数量，null 时新建）
+     * @return 收盘价截面，当天没有K线的股票为 NaN
+     */
+    public double[] getCloses(int dayIndex, double[] out) {
+        double[] result = out != null ? out : new double[series.length];
+        for (int s = 0; s < series.length; s++) {
+            result[s] = getClose(s, dayIndex);
+        }
+        return result;
+    }
+    
+    @Override
+    public String toString() {
+        if (calendar.length == 0) {
+            return String.format("Universe{symbols=%d, days=0}", series.length);
+        }
+        return String.format("Universe{symbols=%d, days=%d, range=%s~%s}",
+                series.length, calendar.length, getDate(0), getDate(calendar.length - 1));
+    }
+    
+    /**
+     * 单个股票在统一日历上的列视图
+     * 按日期索引读取，当天没有K线时价格返回 NaN、成交量返回 0
+     */
+    public static final class SymbolColumns {
+        
+        private final StockSeries series;
+        private final int[] rows;
+        
+        SymbolColumns(StockSeries series, int[] rows) {
+            this.series = series;
+            this.rows = rows;
+        }
+        
+        /**
+         * 视图长度（等于日历长度）
+         */
+        public int size() {
+            return rows.length;
+        }
+        
+        public StockSeries getSeries() {
+            return series;
+        }
+        
+        public int rowAt(int dayIndex) {
+            return rows[dayIndex];
+        }
+        
+        public boolean hasBar(int dayIndex) {
+            return rows[dayIndex] != GAP;
+        }
+        
+        public double getOpen(int dayIndex) {
+            int row = rows[dayIndex];
+            return row == GAP ? Double.NaN : series.getOpen(row);
+        }
+        
+        public double getHigh(int dayIndex) {
+            int row = rows[dayIndex];
+            return row == GAP ? Double.NaN : series.getHigh(row);
+        }
+        
+        public double getLow(int dayIndex) {
+            int row = rows[dayIndex];
+            return row == GAP ? Double.NaN : series.getLow(row);
+        }
+        
+        public double getClose(int dayIndex) {
+            int row = rows[dayIndex];
+            return row == GAP ? Double.NaN : series.getClose(row);
+        }
+        
+        public long getVolume(int dayIndex) {
+            int row = rows[dayIndex];
+            return row == GAP ? 0 : series.getVolume(row);
+        }
+        
+        public double getAmount(int dayIndex) {
+            int row = rows[dayIndex];
+            return row == GAP ? 0 : series.getAmount(row);
+        }
+        
+        /**
+         * 按槽位读取指标值
+         * 
+         * @return 指标值，当天没有K线或未计算时返回 NaN
+         */
+        public double getIndicatorValue(int slot, int dayIndex) {
+            int row = rows[dayIndex];
+            return row == GAP ? Double.NaN : series.getIndicatorValue(slot, row);
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.quant.optimizer;
 
 import ch.qos.logback.classic.Level;
+import com.quant.indicator.IndicatorCache;
 import com.quant.indicator.TechnicalIndicators;
+import com.quant.model.SeriesOverlay;
 import com.quant.model.StockData;
 import com.quant.statistics.PerformanceStatistics;
 import com.quant.strategy.TrendFollowingStrategy;
@@ -135,6 +137,18 @@ public class MAParameterOptimizer {
             System.out.printf("总组合数: %d\n", totalCombinations);
             System.out.println();
             
+            // 所有参数组合共享同一份行情数据，每个组合只叠加自己的覆盖层
+            SeriesOverlay baseLayer = SeriesOverlay.fork(originalData);
+            
+            // 所有周期的均线由同一组前缀和一次算出，放入本次优化专用的指标缓存（容量容纳全部周期，
+            // 不占用也不替换全局默认缓存），各组合的策略从该缓存直接复用
+            int[] maPeriods = periods.stream()
+                    .filter(p -> p < originalData.size())
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            IndicatorCache maCache = new IndicatorCache(Math.max(1, maPeriods.length));
+            new TechnicalIndicators(baseLayer.asList()).withCache(maCache).calculateMA(maPeriods);
+            
             int progress = 0;
             int lastPercent = 0;
             
@@ -158,16 +172,12 @@ public class MAParameterOptimizer {
                     }
                     
                     try {
-                        // 复制数据
-                        List<StockData> dataCopy = copyDataList(originalData);
-                        
-                        // 计算所需的均线
-                        TechnicalIndicators indicators = new TechnicalIndicators(dataCopy);
-                        indicators.calculateMA(shortPeriod);
-                        indicators.calculateMA(longPeriod);
+                        // 在共享数据上叠加独立的覆盖层
+                        List<StockData> dataCopy = baseLayer.newOverlay().asList();
                         
-                        // 创建并执行策略
+                        // 创建并执行策略（所需均线已在缓存中）
                         TrendFollowingStrategy strategy = new TrendFollowingStrategy(shortPeriod, longPeriod, 0.0005);
+                        strategy.withIndicatorCache(maCache);
                         strategy.execute(dataCopy);
                         
                         // 计算绩效
@@ -444,39 +454,6 @@ public class MAParameterOptimizer {
         System.out.println("=".repeat(100));
     }
     
-    /**
-     * 复制数据列表
-     */
-    private List<StockData> copyDataList(List<StockData> original) {
-        List<StockData> copy = new ArrayList<>();
-        for (StockData data : original) {
-            StockData newData = new StockData();
-            newData.setId(data.getId());
-            newData.setSymbol(data.getSymbol());
-            newData.setSymbolId(data.getSymbolId());
-            newData.setKlineType(data.getKlineType());
-            newData.setTime(data.getTime());
-            newData.setMarketCc(data.getMarketCc());
-            newData.setTradeDate(data.getTradeDate());
-            newData.setOpen(data.getOpen());
-            newData.setHigh(data.getHigh());
-            newData.setLow(data.getLow());
-            newData.setClose(data.getClose());
-            newData.setVwap(data.getVwap());
-            newData.setVolume(data.getVolume());
-            newData.setAmount(data.getAmount());
-            newData.setCount(data.getCount());
-            newData.setSessionId(data.getSessionId());
-            newData.setDailyReturn(data.getDailyReturn());
-            
-            for (Map.Entry<String, Double> entry : data.getAllIndicators().entrySet()) {
-                newData.setIndicator(entry.getKey(), entry.getValue());
-            }
-            copy.add(newData);
-        }
-        return copy;
-    }
-    
     /**
      * 获取所有结果
      */
@@ -0,0 +1,40 @@
+package com.quant.replay;
+
+import java.time.Instant;
+
+/**
+ * 行情回放的线路格式（大端序，DataOutputStream 编码）
+ * 
+ * 连接建立后服务端先发送流头：MAGIC (int) + VERSION (short)，之后是一系列帧，每帧以 1 字节类型开头：
+ *   - {@link #FRAME_STRING}：int 编码 + UTF 字符串，定义后续K线中引用的字符串（每个编码只发送一次）
+ *   - {@link #FRAME_BAR}：long 发送时间 (epoch 微秒) + K线各字段，字符串列为上面定义的编码
+ *   - {@link #FRAME_END}：回放结束
+ * 
+ * K线帧字段顺序：id, symbol, symbolId, klineType, time, marketCc, epochDay,
+ * open, high, low, close, vwap, volume, amount, count, sessionId
+ */
+public final class ReplayProtocol {
+    
+    /** 流头标识 "QRPL" */
+    public static final int MAGIC = 0x5152504C;
+    public static final short VERSION = 1;
+    
+    public static final byte FRAME_STRING = 1;
+    public static final byte FRAME_BAR = 2;
+    public static final byte FRAME_END = 3;
+    
+    /** 字符串列为 null 时的编码 */
+    public static final int NULL_CODE = -1;
+    
+    private ReplayProtocol() {
+    }
+    
+    /**
+     * 当前时间 (epoch 微秒)
+     * 发送和接收在同一台机器上时可以直接相减得到端到端延迟
+     */
+    public static long epochMicros() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000L + now.getNano() / 1_000;
+    }
+}
@@ -0,0 +1,249 @@
+package com.quant.replay;
+
+import com.quant.model.StockSeries;
+import com.quant.model.StringDictionary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 本地行情回放服务
+ * 把已保存的K线序列通过 TCP 套接字按原始节奏（可加速）推送给客户端，
+ * 用于在没有行情供应商连接时测试实时处理路径，并测量从接收到产生信号的端到端延迟
+ * 
+ * 回放节奏：相邻K线的发送间隔 = 两根K线的时间差 / 速度倍数
+ * (有 time 列时按 time，否则按交易日，每个交易日视为 24 小时)；
+ * 速度为 {@link #MAX_SPEED} 时不等待，尽可能快地发送
+ * 
+ * 背压：使用阻塞套接字写入，客户端读取慢时 TCP 接收窗口填满，服务端的写入随之阻塞，
+ * 发送速度自动降到客户端的处理速度，不会在内存中堆积数据
+ * 
+ * 每个连接在独立的守护线程中从头回放整个序列，结束时发送结束帧并关闭连接
+ * 
+ * 使用示例：
+ *   try (ReplayServer server = new ReplayServer(series, 0, ReplayServer.MAX_SPEED)) {
+ *       server.start();
+ *       ReplayFeedClient client = new ReplayFeedClient("localhost", server.getPort());
+ *   }
+ */
+public class ReplayServer implements Closeable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReplayServer.class);
+    
+    /** 不限速回放 */
+    public static final double MAX_SPEED = 0;
+    
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    
+    private final StockSeries series;
+    private final int requestedPort;
+    private final double speed;
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    
+    private ServerSocket serverSocket;
+    private volatile boolean running;
+    
+    /**
+     * 构造函数
+     * 
+     * @param series 要回放的序列（按时间排序）
+     * @param port 监听端口，0 表示由系统分配
+     * @param speed 速度倍数（1 为原始节奏），{@link #MAX_SPEED} 为不限速
+     */
+    public ReplayServer(StockSeries series, int port, double speed) {
+        if (speed < 0 || Double.isNaN(speed)) {
+            throw new IllegalArgumentException("回放速度不能为负数: " + speed);
+        }
+        this.series = series;
+        this.requestedPort = port;
+        this.speed = speed;
+    }
+    
+    /**
+     * 在本机回环地址上开始监听
+     * 
+     * @throws IOException 端口绑定失败
+     */
+    public synchronized void start() throws IOException {
+        if (running) {
+            throw new IllegalStateException("回放服务已启动");
+        }
+        serverSocket = new ServerSocket(requestedPort, 16, InetAddress.getLoopbackAddress());
+        running = true;
+        Thread acceptor = new Thread(this::acceptLoop, "replay-accept-" + getPort());
+        acceptor.setDaemon(true);
+        acceptor.start();
+        logger.info("回放服务已启动: 端口 {}, {} 根K线, 速度 {}", getPort(), series.size(),
+                speed == MAX_SPEED ? "不限速" : speed + "x");
+    }
+    
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                connections.add(socket);
+                Thread sender = new Thread(() -> serve(socket), "replay-" + socket.getPort());
+                sender.setDaemon(true);
+                sender.start();
+            } catch (IOException e) {
+                if (running) {
+                    logger.warn("接受连接失败: {}", e.getMessage());
+                }
+            }
+        }
+    }
+    
+    private void serve(Socket socket) {
+        long start = System.nanoTime();
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE))) {
+            int sent = replay(out);
+            logger.info("回放完成: {} 根K线, {} ms", sent, (System.nanoTime() - start) / 1_000_000);
+        } catch (SocketException e) {
+            logger.info("客户端断开连接: {}", e.getMessage());
+        } catch (IOException e) {
+            logger.warn("回放失败: {}", e.getMessage());
+        } finally {
+            connections.remove(socket);
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // 连接已关闭
+            }
+        }
+    }
+    
+    /**
+     * 写出流头、所有K线和结束帧
+     * 
+     * @return 发送的K线数量
+     */
+    private int replay(DataOutputStream out) throws IOException {
+        out.writeInt(ReplayProtocol.MAGIC);
+        out.writeShort(ReplayProtocol.VERSION);
+        
+        StringDictionary dictionary = series.getDictionary();
+        boolean[] defined = new boolean[dictionary.size()];
+        boolean paced = speed != MAX_SPEED;
+        long startNanos = System.nanoTime();
+        long firstMillis = 0;
+        
+        int i = 0;
+        for (; i < series.size() && running; i++) {
+            if (paced) {
+                long barMillis = timestampMillis(i);
+                if (i == 0) {
+                    firstMillis = barMillis;
+                } else {
+                    long due = startNanos + (long) ((barMillis - firstMillis) * 1_000_000.0 / speed);
+                    long wait;
+                    while ((wait = due - System.nanoTime()) > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                }
+            }
+            
+            int symbol = series.getSymbolCode(i);
+            int klineType = series.getKlineTypeCode(i);
+            int marketCc = series.getMarketCcCode(i);
+            if (defined.length < dictionary.size()) {
+                defined = Arrays.copyOf(defined, dictionary.size());
+            }
+            define(out, dictionary, defined, symbol);
+            define(out, dictionary, defined, klineType);
+            define(out, dictionary, defined, marketCc);
+            
+            out.writeByte(ReplayProtocol.FRAME_BAR);
+            out.writeLong(ReplayProtocol.epochMicros());
+            out.writeLong(series.getId(i));
+            out.writeInt(symbol);
+            out.writeLong(series.getSymbolId(i));
+            out.writeInt(klineType);
+            out.writeLong(series.getTime(i));
+            out.writeInt(marketCc);
+            out.writeInt(series.getEpochDay(i));
+            out.writeDouble(series.getOpen(i));
+            out.writeDouble(series.getHigh(i));
+            out.writeDouble(series.getLow(i));
+            out.writeDouble(series.getClose(i));
+            out.writeDouble(series.getVwap(i));
+            out.writeLong(series.getVolume(i));
+            out.writeDouble(series.getAmount(i));
+            out.writeLong(series.getCount(i));
+            out.writeInt(series.getSessionId(i));
+            if (paced) {
+                out.flush();
+            }
+        }
+        
+        out.writeByte(ReplayProtocol.FRAME_END);
+        out.flush();
+        return i;
+    }
+    
+    private static void define(DataOutputStream out, StringDictionary dictionary, boolean[] defined,
+                               int code) throws IOException {
+        if (code != StringDictionary.NULL_CODE && !defined[code]) {
+            out.writeByte(ReplayProtocol.FRAME_STRING);
+            out.writeInt(code);
+            out.writeUTF(dictionary.decode(code));
+            defined[code] = true;
+        }
+    }
+    
+    /**
+     * K线的时间戳（毫秒）：优先 time 列，否则按交易日
+     */
+    private long timestampMillis(int i) {
+        long time = series.getTime(i);
+        if (time != StockSeries.NULL_LONG) {
+            return time;
+        }
+        int day = series.getEpochDay(i);
+        return day == StockSeries.NULL_DAY ? 0 : day * MILLIS_PER_DAY;
+    }
+    
+    /**
+     * 实际监听的端口
+     */
+    public int getPort() {
+        return serverSocket != null ? serverSocket.getLocalPort() : requestedPort;
+    }
+    
+    public double getSpeed() {
+        return speed;
+    }
+    
+    public boolean isRunning() {
+        return running;
+    }
+    
+    /**
+     * 停止监听并断开所有连接
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        running = false;
+        if (serverSocket != null) {
+            serverSocket.close();
+        }
+        for (Socket socket : connections) {
+            socket.close();
+        }
+        connections.clear();
+    }
+}
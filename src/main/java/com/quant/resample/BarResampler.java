@@ -0,0 +1,315 @@
+package com.quant.resample;
+
+import com.quant.model.StockData;
+import com.quant.model.StockSeries;
+import com.quant.model.StringDictionary;
+
+/**
+ * 流式K线重采样器
+ * 把按时间排序的K线流聚合为更粗的周期：N分钟、日、周、月
+ * 
+ * 聚合规则：
+ *   - open 取周期内第一根，close 取最后一根，high/low 取极值
+ *   - volume、amount、count 求和
+ *   - vwap 按成交量加权：Σ(vwap × volume) / Σvolume（周期内无成交量时取最后一根的 vwap）
+ *   - 交易日期、id、股票代码等元数据取周期内最后一根；klineType 为周期标签 (如 "W"、"5m")
+ *   - N分钟周期的 time 为周期起点 (epoch 毫秒，按 UTC 对齐)，其他周期为最后一根K线的 time
+ * 
+ * 累加状态全部是原始类型字段，处理每根K线不分配对象；周期结束时追加到输出序列。
+ * 可以一次性处理整个序列 ({@link #resample(StockSeries, Period)})，
+ * 也可以随新K线到达逐根调用 {@link #add(StockSeries, int)}，完成的K线通过 {@link Listener} 通知
+ * 
+ * 一个重采样器只处理一个股票，symbolId 变化时视为新周期
+ */
+public class BarResampler {
+    
+    // 1970-01-01 是星期四，周一对齐需要的偏移
+    private static final int MONDAY_OFFSET = 3;
+    
+    private static final long MILLIS_PER_MINUTE = 60_000L;
+    
+    /**
+     * 完成一根聚合K线时的回调
+     */
+    public interface Listener {
+        /**
+         * @param bars 输出序列
+         * @param index 新K线在输出序列中的索引
+         */
+        void onBar(StockSeries bars, int index);
+    }
+    
+    /**
+     * 聚合周期
+     */
+    public static final class Period {
+        
+        private enum Unit { MINUTE, DAY, WEEK, MONTH }
+        
+        public static final Period DAY = new Period(Unit.DAY, 1, "D");
+        public static final Period WEEK = new Period(Unit.WEEK, 1, "W");
+        public static final Period MONTH = new Period(Unit.MONTH, 1, "M");
+        
+        private final Unit unit;
+        private final long length;
+        private final String label;
+        
+        private Period(Unit unit, long length, String label) {
+            this.unit = unit;
+            this.length = length;
+            this.label = label;
+        }
+        
+        /**
+         * N分钟周期
+         * 
+         * @param minutes 分钟数
+         */
+        public static Period minutes(int minutes) {
+            if (minutes <= 0) {
+                throw new IllegalArgumentException("分钟数必须大于0");
+            }
+            return new Period(Unit.MINUTE, minutes * MILLIS_PER_MINUTE, minutes + "m");
+        }
+        
+        public boolean isIntraday() {
+            return unit == Unit.MINUTE;
+        }
+        
+        public String getLabel() {
+            return label;
+        }
+        
+        /**
+         * 计算K线所属周期的编号（同一周期编号相同，按时间递增）
+         */
+        long bucketOf(int epochDay, long time) {
+            switch (unit) {
+                case MINUTE:
+                    if (time == StockSeries.NULL_LONG) {
+                        throw new IllegalArgumentException("N分钟聚合需要 time 列");
+                    }
+                    return Math.floorDiv(time, length);
+                case WEEK:
+                    return Math.floorDiv(epochDay + MONDAY_OFFSET, 7);
+                case MONTH:
+                    return monthOf(epochDay);
+                default:
+                    return epochDay;
+            }
+        }
+        
+        /**
+         * epochDay 对应的 年 × 12 + 月（无分配的公历换算）
+         */
+        private static long monthOf(int epochDay) {
+            long z = epochDay + 719468L;
+            long era = Math.floorDiv(z, 146097L);
+            long doe = z - era * 146097L;
+            long yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+            long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+            long mp = (5 * doy + 2) / 153;
+            long month = mp < 10 ? mp + 3 : mp - 9;
+            long year = yoe + era * 400 + (month <= 2 ? 1 : 0);
+            return year * 12 + month - 1;
+        }
+        
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+    
+    private final Period period;
+    private final Listener listener;
+    private StockSeries output;
+    private int klineTypeCode;
+    
+    // ========== 当前周期的累加状态 ==========
+    private boolean pending;
+    private long bucket;
+    private long firstSymbolId;
+    private double barOpen;
+    private double barHigh;
+    private double barLow;
+    private double barClose;
+    private double lastVwap;
+    private double vwapNumerator;
+    private long volume;
+    private double amount;
+    private long count;
+    private long id;
+    private int symbolCode;
+    private long symbolId;
+    private long time;
+    private int marketCcCode;
+    private int epochDay;
+    private int sessionId;
+    
+    /**
+     * 构造函数
+     * 
+     * @param period 聚合周期
+     */
+    public BarResampler(Period period) {
+        this(period, null);
+    }
+    
+    /**
+     * 构造函数
+     * 
+     * @param period 聚合周期
+     * @param listener 完成聚合K线时的回调（可为 null）
+     */
+    public BarResampler(Period period, Listener listener) {
+        this.period = period;
+        this.listener = listener;
+    }
+    
+    /**
+     * 一次性重采样整个序列
+     * 
+     * @param input 按时间排序的K线序列
+     * @param period 聚合周期
+     * @return 聚合后的序列（与输入共享字符串字典；输入为空时返回空序列）
+     */
+    public static StockSeries resample(StockSeries input, Period period) {
+        BarResampler resampler = new BarResampler(period);
+        resampler.init(input.getDictionary(), 256);
+        for (int i = 0; i < input.size(); i++) {
+            resampler.add(input, i);
+        }
+        resampler.flush();
+        return resampler.getOutput();
+    }
+    
+    /**
+     * 加入序列中的一根K线
+     * 
+     * @param input 源序列
+     * @param index 源序列中的索引
+     */
+    public void add(StockSeries input, int index) {
+        if (output == null) {
+            init(input.getDictionary(), 256);
+        }
+        boolean sameDictionary = input.getDictionary() == output.getDictionary();
+        StringDictionary dictionary = output.getDictionary();
+        accept(input.getEpochDay(index), input.getTime(index), input.getSymbolId(index),
+                input.getOpen(index), input.getHigh(index), input.getLow(index), input.getClose(index),
+                input.getVwap(index), input.getVolume(index), input.getAmount(index), input.getCount(index),
+                input.getId(index),
+                sameDictionary ? input.getSymbolCode(index) : dictionary.encode(input.getSymbol(index)),
+                sameDictionary ? input.getMarketCcCode(index) : dictionary.encode(input.getMarketCc(index)),
+                input.getSessionId(index));
+    }
+    
+    /**
+     * 加入一根K线（如实时推送的行情）
+     * 
+     * @param data 股票数据
+     */
+    public void add(StockData data) {
+        if (output == null) {
+            init(new StringDictionary(), 256);
+        }
+        StringDictionary dictionary = output.getDictionary();
+        accept(data.getTradeDate() != null ? (int) data.getTradeDate().toEpochDay() : StockSeries.NULL_DAY,
+                data.getTime() != null ? data.getTime() : StockSeries.NULL_LONG,
+                data.getSymbolId() != null ? data.getSymbolId() : StockSeries.NULL_LONG,
+                data.getOpen(), data.getHigh(), data.getLow(), data.getClose(),
+                data.getVwap(), data.getVolume(), data.getAmount(), data.getCount(),
+                data.getId() != null ? data.getId() : StockSeries.NULL_LONG,
+                dictionary.encode(data.getSymbol()), dictionary.encode(data.getMarketCc()),
+                data.getSessionId());
+    }
+    
+    private void init(StringDictionary dictionary, int capacity) {
+        output = new StockSeries(capacity, dictionary);
+        klineTypeCode = dictionary.encode(period.getLabel());
+    }
+    
+    private void accept(int day, long barTime, long barSymbolId, double o, double h, double l, double c,
+                        double vwap, long vol, double amt, long cnt, long barId, int symbol,
+                        int marketCc, int session) {
+        if (day == StockSeries.NULL_DAY) {
+            return;
+        }
+        long key = period.bucketOf(day, barTime);
+        if (pending && (key != bucket || barSymbolId != firstSymbolId)) {
+            emit();
+        }
+        
+        if (!pending) {
+            pending = true;
+            bucket = key;
+            firstSymbolId = barSymbolId;
+            barOpen = o;
+            barHigh = h;
+            barLow = l;
+            vwapNumerator = 0;
+            volume = 0;
+            amount = 0;
+            count = 0;
+            time = period.isIntraday() ? key * period.length : barTime;
+        } else {
+            barHigh = Math.max(barHigh, h);
+            barLow = Math.min(barLow, l);
+            if (!period.isIntraday()) {
+                time = barTime;
+            }
+        }
+        
+        barClose = c;
+        lastVwap = vwap;
+        vwapNumerator += vwap * vol;
+        volume += vol;
+        amount += amt;
+        count += cnt;
+        id = barId;
+        symbolCode = symbol;
+        symbolId = barSymbolId;
+        marketCcCode = marketCc;
+        epochDay = day;
+        sessionId = session;
+    }
+    
+    /**
+     * 输出当前未完成的周期（数据流结束时调用）
+     */
+    public void flush() {
+        if (pending) {
+            emit();
+        }
+    }
+    
+    private void emit() {
+        double vwap = volume > 0 ? vwapNumerator / volume : lastVwap;
+        int index = output.appendEncoded(id, symbolCode, symbolId, klineTypeCode, time, marketCcCode,
+                epochDay, barOpen, barHigh, barLow, barClose, vwap, volume, amount, count, sessionId);
+        pending = false;
+        if (listener != null) {
+            listener.onBar(output, index);
+        }
+    }
+    
+    /**
+     * 是否有尚未完成的周期
+     */
+    public boolean hasPendingBar() {
+        return pending;
+    }
+    
+    /**
+     * 获取输出序列（只包含已完成的周期）
+     * 
+     * @return 聚合后的序列，尚未加入任何K线时返回 null
+     */
+    public StockSeries getOutput() {
+        return output;
+    }
+    
+    public Period getPeriod() {
+        return period;
+    }
+}
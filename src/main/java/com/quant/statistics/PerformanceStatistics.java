@@ -1,6 +1,9 @@
 package com.quant.statistics;
 
+import com.quant.model.BacktestResult;
+import com.quant.model.SeriesOverlay;
 import com.quant.model.StockData;
+import com.quant.model.StockSeries;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -59,6 +62,15 @@ public class PerformanceStatistics {
         this.initialCapital = initialCapital;
     }
     
+    /**
+     * 构造函数
+     * 
+     * @param result 策略回测结果
+     */
+    public PerformanceStatistics(BacktestResult result) {
+        this(result.asList(), result.getInitialCapital());
+    }
+    
     /**
      * 计算总收益率
      * 
@@ -424,16 +436,7 @@ public class PerformanceStatistics {
      */
     public Map<Integer, YearlyStats> calculateYearlyStats() {
         Map<Integer, YearlyStats> yearlyStatsMap = new LinkedHashMap<>();
-        Map<Integer, List<StockData>> yearDataMap = new LinkedHashMap<>();
-        
-        // 按年份分组数据
-        for (StockData data : dataList) {
-            LocalDate date = data.getDate();
-            if (date == null) continue;
-            
-            int year = date.getYear();
-            yearDataMap.computeIfAbsent(year, k -> new ArrayList<>()).add(data);
-        }
+        Map<Integer, List<StockData>> yearDataMap = groupByYear();
         
         // 计算每年的统计数据
         for (Map.Entry<Integer, List<StockData>> entry : yearDataMap.entrySet()) {
@@ -509,6 +512,38 @@ public class PerformanceStatistics {
         return yearlyStatsMap;
     }
     
+    /**
+     * 按年份分组数据
+     * 按日期排序的序列视图直接用二分查找定位每年的区间，返回子列表视图；
+     * 其他列表逐行分组
+     */
+    private Map<Integer, List<StockData>> groupByYear() {
+        Map<Integer, List<StockData>> yearDataMap = new LinkedHashMap<>();
+        
+        SeriesOverlay overlay = SeriesOverlay.of(dataList);
+        if (overlay != null && overlay.getSeries().isSortedByTradeDate()) {
+            StockSeries series = overlay.getSeries();
+            // 缺失日期排在最前面，跳过
+            int from = series.lowerBound(StockSeries.NULL_DAY + 1);
+            while (from < series.size()) {
+                int year = LocalDate.ofEpochDay(series.getEpochDay(from)).getYear();
+                int to = series.lowerBound((int) LocalDate.of(year + 1, 1, 1).toEpochDay());
+                yearDataMap.put(year, dataList.subList(from, to));
+                from = to;
+            }
+            return yearDataMap;
+        }
+        
+        for (StockData data : dataList) {
+            LocalDate date = data.getDate();
+            if (date == null) continue;
+            
+            int year = date.getYear();
+            yearDataMap.computeIfAbsent(year, k -> new ArrayList<>()).add(data);
+        }
+        return yearDataMap;
+    }
+    
     /**
      * 打印年度统计对比表格
      * 
@@ -1,6 +1,12 @@
 package com.quant.strategy;
 
+import com.quant.indicator.BulkKernels;
+import com.quant.indicator.IndicatorCache;
+import com.quant.indicator.IndicatorGraph;
+import com.quant.model.BacktestResult;
+import com.quant.model.SeriesOverlay;
 import com.quant.model.StockData;
+import com.quant.model.StockSeries;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -23,6 +29,9 @@ public abstract class AbstractStrategy implements Strategy {
     protected static final double DEFAULT_INITIAL_CAPITAL = 100000.0;
     protected static final double DEFAULT_COMMISSION = 0.001; // 0.1%
     
+    // 计算指标使用的缓存（null 表示使用全局默认缓存）
+    private IndicatorCache indicatorCache;
+    
     /**
      * 构造函数
      * 
@@ -42,6 +51,32 @@ public abstract class AbstractStrategy implements Strategy {
         return new HashMap<>(parameters);
     }
     
+    /**
+     * 按指标依赖图计算 {@link #getRequiredIndicators()} 中的指标并写入数据列表
+     * 
+     * @param dataList 股票数据列表
+     * @return 指标依赖图（可继续读取其他指标）
+     */
+    protected IndicatorGraph prepareIndicators(List<StockData> dataList) {
+        IndicatorGraph graph = new IndicatorGraph(dataList);
+        if (indicatorCache != null) {
+            graph.withCache(indicatorCache);
+        }
+        return graph.materialize(getRequiredIndicators());
+    }
+    
+    /**
+     * 指定计算指标使用的缓存（链式调用）
+     * 参数优化等场景可以把预先算好的指标放入专用缓存再交给各个策略实例，不影响全局默认缓存
+     * 
+     * @param cache 指标缓存，null 表示使用全局默认缓存
+     * @return 当前对象
+     */
+    public AbstractStrategy withIndicatorCache(IndicatorCache cache) {
+        this.indicatorCache = cache;
+        return this;
+    }
+    
     /**
      * 生成交易信号（子类必须实现）
      * 
@@ -71,6 +106,45 @@ public abstract class AbstractStrategy implements Strategy {
         return backtest(dataList, initialCapital, commission);
     }
     
+    @Override
+    public BacktestResult run(StockSeries series) {
+        return run(series, DEFAULT_INITIAL_CAPITAL, DEFAULT_COMMISSION);
+    }
+    
+    /**
+     * 在序列上运行策略
+     * 信号和回测写入一次性的覆盖层，序列本身（行情和已计算的指标）只读，
+     * 因此多个线程可以在同一序列上同时运行不同策略
+     * 
+     * @param series 股票序列
+     * @param initialCapital 初始资金
+     * @param commission 手续费率
+     * @return 回测结果
+     */
+    @Override
+    public BacktestResult run(StockSeries series, double initialCapital, double commission) {
+        SeriesOverlay overlay = series.newOverlay();
+        List<StockData> dataList = overlay.asList();
+        
+        execute(dataList, initialCapital, commission);
+        
+        double[] weights = new double[dataList.size()];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = getPositionWeight(dataList.get(i));
+        }
+        return BacktestResult.capture(name, overlay, weights, initialCapital);
+    }
+    
+    /**
+     * 获取回测后某根K线的仓位权重（默认等于持仓状态 0/1，动态仓位策略应重写）
+     * 
+     * @param data 回测后的K线
+     * @return 仓位权重
+     */
+    protected double getPositionWeight(StockData data) {
+        return data.getPosition();
+    }
+    
     @Override
     public List<StockData> backtest(List<StockData> dataList, double initialCapital, double commission) {
         if (dataList == null || dataList.isEmpty()) {
@@ -78,8 +152,7 @@ public abstract class AbstractStrategy implements Strategy {
         }
         
         int position = 0; // 当前持仓状态
-        double portfolioValue = initialCapital;
-        double cumulativeReturn = 1.0;
+        double[] strategyReturns = new double[dataList.size()];
         
         // 计算日收益率（如果还没计算）
         for (int i = 1; i < dataList.size(); i++) {
@@ -120,12 +193,10 @@ public abstract class AbstractStrategy implements Strategy {
                 }
                 
                 data.setStrategyReturn(strategyReturn);
-                cumulativeReturn *= (1 + strategyReturn);
+                strategyReturns[i] = strategyReturn;
             }
-            
-            data.setCumulativeReturn(cumulativeReturn);
-            data.setPortfolioValue(initialCapital * cumulativeReturn);
         }
+        writeEquity(dataList, strategyReturns, initialCapital);
         
         // 输出回测摘要
         StockData lastData = dataList.get(dataList.size() - 1);
@@ -136,6 +207,25 @@ public abstract class AbstractStrategy implements Strategy {
         return dataList;
     }
     
+    /**
+     * 按每根K线的策略收益复利计算累计收益率和组合价值并写入数据列表
+     * 使用批量内核 {@link BulkKernels#compound}，与逐根累乘 cumulative *= (1 + r) 的结果逐位相同
+     * 
+     * @param dataList 股票数据列表
+     * @param strategyReturns 每根K线的策略收益（第一根不参与累乘）
+     * @param initialCapital 初始资金
+     */
+    protected static void writeEquity(List<StockData> dataList, double[] strategyReturns, double initialCapital) {
+        int n = dataList.size();
+        double[] cumulativeReturns = new double[n];
+        BulkKernels.getDefault().compound(strategyReturns, n, 1.0, cumulativeReturns);
+        for (int i = 0; i < n; i++) {
+            StockData data = dataList.get(i);
+            data.setCumulativeReturn(cumulativeReturns[i]);
+            data.setPortfolioValue(initialCapital * cumulativeReturns[i]);
+        }
+    }
+    
     /**
      * 获取交易统计
      * 
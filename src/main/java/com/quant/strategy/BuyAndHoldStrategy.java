@@ -1,5 +1,6 @@
 package com.quant.strategy;
 
+import com.quant.model.IndicatorRegistry;
 import com.quant.model.StockData;
 
 import java.util.List;
@@ -12,6 +13,8 @@ import java.util.List;
  */
 public class BuyAndHoldStrategy extends AbstractStrategy {
     
+    private static final int POSITION_WEIGHT_SLOT = IndicatorRegistry.slotOf("POSITION_WEIGHT");
+    
     /**
      * 构造函数
      */
@@ -31,11 +34,11 @@ public class BuyAndHoldStrategy extends AbstractStrategy {
         // 之后一直持有
         for (int i = 1; i < dataList.size(); i++) {
             dataList.get(i).setSignal(0);  // 持有
-            dataList.get(i).setIndicator("POSITION_WEIGHT", 1.0);  // 满仓权重
+            dataList.get(i).setIndicatorValue(POSITION_WEIGHT_SLOT, 1.0);  // 满仓权重
         }
         
         // 第一天也设置权重
-        dataList.get(0).setIndicator("POSITION_WEIGHT", 1.0);
+        dataList.get(0).setIndicatorValue(POSITION_WEIGHT_SLOT, 1.0);
         
         logger.info("策略 [{}] 信号生成完成 (买入并持有)", name);
     }
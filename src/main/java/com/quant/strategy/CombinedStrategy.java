@@ -1,13 +1,17 @@
 package com.quant.strategy;
 
+import com.quant.model.IndicatorRegistry;
+import com.quant.model.SeriesOverlay;
 import com.quant.model.StockData;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * 策略组合 (Combined Strategy / Portfolio Strategy)
@@ -32,6 +36,10 @@ public class CombinedStrategy extends AbstractStrategy {
     
     private static final Logger logger = LoggerFactory.getLogger(CombinedStrategy.class);
     
+    // 指标槽位
+    private static final int POSITION_WEIGHT_SLOT = IndicatorRegistry.slotOf("POSITION_WEIGHT");
+    private static final int COMBINED_WEIGHT_SLOT = IndicatorRegistry.slotOf("COMBINED_WEIGHT");
+    
     // 子策略列表及其权重
     private final List<StrategyWeight> strategyWeights;
     
@@ -112,16 +120,31 @@ public class CombinedStrategy extends AbstractStrategy {
         return new CombinedStrategy(weights);
     }
     
+    /**
+     * 所有子策略需要的指标（合并去重）
+     */
+    @Override
+    public Set<String> getRequiredIndicators() {
+        Set<String> names = new LinkedHashSet<>();
+        for (StrategyWeight sw : strategyWeights) {
+            names.addAll(sw.getStrategy().getRequiredIndicators());
+        }
+        return names;
+    }
+    
     @Override
     public void generateSignals(List<StockData> dataList) {
+        // 在共享的数据上一次算好所有子策略的指标，子策略的覆盖层直接读取
+        prepareIndicators(dataList);
+        
         // 为每个子策略生成信号（在各自的数据副本上）
         Map<Strategy, List<StockData>> strategyResults = new HashMap<>();
         
         for (StrategyWeight sw : strategyWeights) {
             Strategy strategy = sw.getStrategy();
             
-            // 复制数据
-            List<StockData> dataCopy = copyDataList(dataList);
+            // 叠加独立的覆盖层（共享行情数据）
+            List<StockData> dataCopy = SeriesOverlay.fork(dataList).asList();
             
             // 生成信号并回测
             strategy.execute(dataCopy);
@@ -143,8 +166,8 @@ public class CombinedStrategy extends AbstractStrategy {
                 double strategyPosition = 0;
                 
                 // 检查是否有动态仓位权重（如波动率目标策略）
-                Double positionWeight = result.get(i).getIndicator("POSITION_WEIGHT");
-                if (positionWeight != null) {
+                double positionWeight = result.get(i).getIndicatorValue(POSITION_WEIGHT_SLOT);
+                if (!Double.isNaN(positionWeight)) {
                     strategyPosition = positionWeight;
                 } else {
                     // 使用二元仓位（0或1）
@@ -156,7 +179,7 @@ public class CombinedStrategy extends AbstractStrategy {
             }
             
             // 存储组合仓位权重
-            dataList.get(i).setIndicator("COMBINED_WEIGHT", combinedWeight);
+            dataList.get(i).setIndicatorValue(COMBINED_WEIGHT_SLOT, combinedWeight);
             
             // 设置信号（用于统计）
             if (combinedWeight > 0) {
@@ -169,13 +192,19 @@ public class CombinedStrategy extends AbstractStrategy {
         logger.info("策略 [{}] 信号生成完成，包含 {} 个子策略", name, strategyWeights.size());
     }
     
+    @Override
+    protected double getPositionWeight(StockData data) {
+        double weight = data.getIndicatorValue(COMBINED_WEIGHT_SLOT);
+        return !Double.isNaN(weight) ? weight : 0;
+    }
+    
     @Override
     public List<StockData> backtest(List<StockData> dataList, double initialCapital, double commission) {
         if (dataList == null || dataList.isEmpty()) {
             throw new IllegalArgumentException("数据列表不能为空");
         }
         
-        double cumulativeReturn = 1.0;
+        double[] strategyReturns = new double[dataList.size()];
         double prevWeight = 0;
         int rebalanceCount = 0;
         
@@ -195,8 +224,8 @@ public class CombinedStrategy extends AbstractStrategy {
             StockData data = dataList.get(i);
             
             // 获取组合仓位权重
-            Double combinedWeight = data.getIndicator("COMBINED_WEIGHT");
-            double currentWeight = combinedWeight != null ? combinedWeight : 0;
+            double combinedWeight = data.getIndicatorValue(COMBINED_WEIGHT_SLOT);
+            double currentWeight = !Double.isNaN(combinedWeight) ? combinedWeight : 0;
             
             // 设置持仓状态
             data.setPosition(currentWeight > 0 ? 1 : 0);
@@ -218,14 +247,12 @@ public class CombinedStrategy extends AbstractStrategy {
                 }
                 
                 data.setStrategyReturn(strategyReturn);
-                cumulativeReturn *= (1 + strategyReturn);
+                strategyReturns[i] = strategyReturn;
             }
             
-            data.setCumulativeReturn(cumulativeReturn);
-            data.setPortfolioValue(initialCapital * cumulativeReturn);
-            
             prevWeight = currentWeight;
         }
+        writeEquity(dataList, strategyReturns, initialCapital);
         
         // 输出回测摘要
         StockData lastData = dataList.get(dataList.size() - 1);
@@ -237,39 +264,6 @@ public class CombinedStrategy extends AbstractStrategy {
         return dataList;
     }
     
-    /**
-     * 复制数据列表
-     */
-    private List<StockData> copyDataList(List<StockData> original) {
-        List<StockData> copy = new ArrayList<>();
-        for (StockData data : original) {
-            StockData newData = new StockData();
-            newData.setId(data.getId());
-            newData.setSymbol(data.getSymbol());
-            newData.setSymbolId(data.getSymbolId());
-            newData.setKlineType(data.getKlineType());
-            newData.setTime(data.getTime());
-            newData.setMarketCc(data.getMarketCc());
-            newData.setTradeDate(data.getTradeDate());
-            newData.setOpen(data.getOpen());
-            newData.setHigh(data.getHigh());
-            newData.setLow(data.getLow());
-            newData.setClose(data.getClose());
-            newData.setVwap(data.getVwap());
-            newData.setVolume(data.getVolume());
-            newData.setAmount(data.getAmount());
-            newData.setCount(data.getCount());
-            newData.setSessionId(data.getSessionId());
-            newData.setDailyReturn(data.getDailyReturn());
-            
-            for (Map.Entry<String, Double> entry : data.getAllIndicators().entrySet()) {
-                newData.setIndicator(entry.getKey(), entry.getValue());
-            }
-            copy.add(newData);
-        }
-        return copy;
-    }
-    
     public List<StrategyWeight> getStrategyWeights() {
         return new ArrayList<>(strategyWeights);
     }
@@ -1,9 +1,12 @@
 package com.quant.strategy;
 
-import com.quant.indicator.TechnicalIndicators;
+import com.quant.model.IndicatorRegistry;
 import com.quant.model.StockData;
 
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * 双均线趋势策略
@@ -43,15 +46,20 @@ public class DualMAStrategy extends AbstractStrategy {
         this(10, 30);
     }
     
+    @Override
+    public Set<String> getRequiredIndicators() {
+        return new LinkedHashSet<>(Arrays.asList("MA" + shortPeriod, "MA" + longPeriod));
+    }
+    
     @Override
     public void generateSignals(List<StockData> dataList) {
         // 确保指标已计算
-        TechnicalIndicators indicators = new TechnicalIndicators(dataList);
-        indicators.calculateMA(shortPeriod);
-        indicators.calculateMA(longPeriod);
+        prepareIndicators(dataList);
         
         String shortMAName = "MA" + shortPeriod;
         String longMAName = "MA" + longPeriod;
+        int shortMASlot = IndicatorRegistry.slotOf(shortMAName);
+        int longMASlot = IndicatorRegistry.slotOf(longMAName);
         
         boolean inPosition = false;
         
@@ -60,11 +68,11 @@ public class DualMAStrategy extends AbstractStrategy {
             StockData curr = dataList.get(i);
             StockData prev = dataList.get(i - 1);
             
-            Double currShortMA = curr.getIndicator(shortMAName);
-            Double currLongMA = curr.getIndicator(longMAName);
-            Double prevShortMA = prev.getIndicator(shortMAName);
+            double currShortMA = curr.getIndicatorValue(shortMASlot);
+            double currLongMA = curr.getIndicatorValue(longMASlot);
+            double prevShortMA = prev.getIndicatorValue(shortMASlot);
             
-            if (currShortMA == null || currLongMA == null || prevShortMA == null) {
+            if (Double.isNaN(currShortMA) || Double.isNaN(currLongMA) || Double.isNaN(prevShortMA)) {
                 curr.setSignal(0);
                 continue;
             }
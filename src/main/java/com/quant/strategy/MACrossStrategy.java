@@ -1,9 +1,13 @@
 package com.quant.strategy;
 
-import com.quant.indicator.TechnicalIndicators;
+import com.quant.indicator.BulkKernels;
+import com.quant.indicator.IndicatorGraph;
 import com.quant.model.StockData;
 
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * 均线交叉策略
@@ -41,45 +45,27 @@ public class MACrossStrategy extends AbstractStrategy {
         this(5, 20);
     }
     
+    @Override
+    public Set<String> getRequiredIndicators() {
+        return new LinkedHashSet<>(Arrays.asList("MA" + shortPeriod, "MA" + longPeriod));
+    }
+    
     @Override
     public void generateSignals(List<StockData> dataList) {
         // 确保指标已计算
-        TechnicalIndicators indicators = new TechnicalIndicators(dataList);
-        indicators.calculateMA(shortPeriod);
-        indicators.calculateMA(longPeriod);
+        IndicatorGraph graph = prepareIndicators(dataList);
+        double[] shortMA = graph.get("MA" + shortPeriod);
+        double[] longMA = graph.get("MA" + longPeriod);
         
-        String shortMAName = "MA" + shortPeriod;
-        String longMAName = "MA" + longPeriod;
+        // 金叉（短期均线上穿长期均线）记 1 -> 买入，死叉（下穿）记 -1 -> 卖出，
+        // 其他情况（包括均线尚无效的预热期）记 0 -> 持有；整列由批量内核一次比较
+        int n = dataList.size();
+        int[] crosses = new int[n];
+        BulkKernels.getDefault().crossovers(shortMA, longMA, n, crosses);
         
         // 生成信号
-        for (int i = 1; i < dataList.size(); i++) {
-            StockData curr = dataList.get(i);
-            StockData prev = dataList.get(i - 1);
-            
-            Double currShortMA = curr.getIndicator(shortMAName);
-            Double currLongMA = curr.getIndicator(longMAName);
-            Double prevShortMA = prev.getIndicator(shortMAName);
-            Double prevLongMA = prev.getIndicator(longMAName);
-            
-            // 检查指标是否有效
-            if (currShortMA == null || currLongMA == null || 
-                prevShortMA == null || prevLongMA == null) {
-                curr.setSignal(0);
-                continue;
-            }
-            
-            // 金叉: 短期均线上穿长期均线 -> 买入
-            if (prevShortMA <= prevLongMA && currShortMA > currLongMA) {
-                curr.setSignal(1);
-            }
-            // 死叉: 短期均线下穿长期均线 -> 卖出
-            else if (prevShortMA >= prevLongMA && currShortMA < currLongMA) {
-                curr.setSignal(-1);
-            }
-            // 其他情况: 持有
-            else {
-                curr.setSignal(0);
-            }
+        for (int i = 1; i < n; i++) {
+            dataList.get(i).setSignal(crosses[i]);
         }
         
         logger.info("策略 [{}] 信号生成完成 (短期MA={}, 长期MA={})", name, shortPeriod, longPeriod);
@@ -1,9 +1,11 @@
 package com.quant.strategy;
 
-import com.quant.indicator.TechnicalIndicators;
+import com.quant.model.IndicatorRegistry;
 import com.quant.model.StockData;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 /**
  * RSI策略
@@ -47,13 +49,18 @@ public class RSIStrategy extends AbstractStrategy {
         this(14, 30, 70);
     }
     
+    @Override
+    public Set<String> getRequiredIndicators() {
+        return Collections.singleton("RSI" + period);
+    }
+    
     @Override
     public void generateSignals(List<StockData> dataList) {
         // 计算RSI
-        TechnicalIndicators indicators = new TechnicalIndicators(dataList);
-        indicators.calculateRSI(period);
+        prepareIndicators(dataList);
         
         String rsiName = "RSI" + period;
+        int rsiSlot = IndicatorRegistry.slotOf(rsiName);
         boolean inPosition = false;
         
         // 生成信号
@@ -61,10 +68,10 @@ public class RSIStrategy extends AbstractStrategy {
             StockData curr = dataList.get(i);
             StockData prev = dataList.get(i - 1);
             
-            Double currRSI = curr.getIndicator(rsiName);
-            Double prevRSI = prev.getIndicator(rsiName);
+            double currRSI = curr.getIndicatorValue(rsiSlot);
+            double prevRSI = prev.getIndicatorValue(rsiSlot);
             
-            if (currRSI == null || prevRSI == null) {
+            if (Double.isNaN(currRSI) || Double.isNaN(prevRSI)) {
                 curr.setSignal(0);
                 continue;
             }
@@ -1,9 +1,14 @@
 package com.quant.strategy;
 
+import com.quant.model.BacktestResult;
+import com.quant.model.SeriesOverlay;
 import com.quant.model.StockData;
+import com.quant.model.StockSeries;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * 策略接口
@@ -25,6 +30,17 @@ public interface Strategy {
      */
     Map<String, Object> getParameters();
     
+    /**
+     * 获取策略需要的技术指标名称（如 "MA20"、"RSI14"、"MACD"）
+     * 生成信号前由 {@link com.quant.indicator.IndicatorGraph} 统一规划计算，
+     * 多个策略共用的指标和中间结果只计算一次；默认不需要技术指标（使用指标的策略应重写）
+     * 
+     * @return 指标名称集合
+     */
+    default Set<String> getRequiredIndicators() {
+        return Collections.emptySet();
+    }
+    
     /**
      * 生成交易信号
      * 信号说明:
@@ -53,5 +69,38 @@ public interface Strategy {
      * @return 回测后的数据列表
      */
     List<StockData> backtest(List<StockData> dataList, double initialCapital, double commission);
+    
+    /**
+     * 在序列上运行策略，结果写入独立的 BacktestResult（不修改序列本身）
+     * 同一序列可以被多个线程上的多个策略同时运行；默认初始资金 100000、手续费率 0.1%
+     * 
+     * @param series 股票序列
+     * @return 回测结果
+     */
+    default BacktestResult run(StockSeries series) {
+        return run(series, 100000.0, 0.001);
+    }
+    
+    /**
+     * 在序列上运行策略，结果写入独立的 BacktestResult（不修改序列本身）
+     * 默认实现在序列的一次性覆盖层上生成信号并回测，按每根K线的持仓 (position) 作为仓位权重提取结果
+     * 
+     * @param series 股票序列
+     * @param initialCapital 初始资金
+     * @param commission 手续费率
+     * @return 回测结果
+     */
+    default BacktestResult run(StockSeries series, double initialCapital, double commission) {
+        SeriesOverlay overlay = series.newOverlay();
+        List<StockData> dataList = overlay.asList();
+        
+        generateSignals(dataList);
+        backtest(dataList, initialCapital, commission);
+        
+        double[] weights = new double[dataList.size()];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = dataList.get(i).getPosition();
+        }
+        return BacktestResult.capture(getName(), overlay, weights, initialCapital);
+    }
 }
-
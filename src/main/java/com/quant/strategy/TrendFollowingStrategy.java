@@ -1,9 +1,12 @@
 package com.quant.strategy;
 
-import com.quant.indicator.TechnicalIndicators;
+import com.quant.model.IndicatorRegistry;
 import com.quant.model.StockData;
 
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * 方案A：趋势追踪 + 现金管理策略（最适合 QQQ）
@@ -72,15 +75,20 @@ public class TrendFollowingStrategy extends AbstractStrategy {
         parameters.put("slippage", slippage);
     }
     
+    @Override
+    public Set<String> getRequiredIndicators() {
+        return new LinkedHashSet<>(Arrays.asList("MA" + shortPeriod, "MA" + longPeriod));
+    }
+    
     @Override
     public void generateSignals(List<StockData> dataList) {
         // 确保指标已计算
-        TechnicalIndicators indicators = new TechnicalIndicators(dataList);
-        indicators.calculateMA(shortPeriod);
-        indicators.calculateMA(longPeriod);
+        prepareIndicators(dataList);
         
         String shortMAName = "MA" + shortPeriod;
         String longMAName = "MA" + longPeriod;
+        int shortMASlot = IndicatorRegistry.slotOf(shortMAName);
+        int longMASlot = IndicatorRegistry.slotOf(longMAName);
         
         boolean inPosition = false;
         
@@ -89,10 +97,10 @@ public class TrendFollowingStrategy extends AbstractStrategy {
         for (int i = longPeriod; i < dataList.size(); i++) {
             StockData curr = dataList.get(i);
             
-            Double currShortMA = curr.getIndicator(shortMAName);
-            Double currLongMA = curr.getIndicator(longMAName);
+            double currShortMA = curr.getIndicatorValue(shortMASlot);
+            double currLongMA = curr.getIndicatorValue(longMASlot);
             
-            if (currShortMA == null || currLongMA == null) {
+            if (Double.isNaN(currShortMA) || Double.isNaN(currLongMA)) {
                 curr.setSignal(0);
                 continue;
             }
@@ -141,7 +149,7 @@ public class TrendFollowingStrategy extends AbstractStrategy {
         }
         
         int position = 0;
-        double cumulativeReturn = 1.0;
+        double[] strategyReturns = new double[dataList.size()];
         
         // 计算日收益率
         for (int i = 1; i < dataList.size(); i++) {
@@ -183,12 +191,10 @@ public class TrendFollowingStrategy extends AbstractStrategy {
                 }
                 
                 data.setStrategyReturn(strategyReturn);
-                cumulativeReturn *= (1 + strategyReturn);
+                strategyReturns[i] = strategyReturn;
             }
-            
-            data.setCumulativeReturn(cumulativeReturn);
-            data.setPortfolioValue(initialCapital * cumulativeReturn);
         }
+        writeEquity(dataList, strategyReturns, initialCapital);
         
         // 输出回测摘要
         StockData lastData = dataList.get(dataList.size() - 1);
@@ -1,6 +1,8 @@
 package com.quant.strategy;
 
+import com.quant.indicator.RollingMoments;
 import com.quant.indicator.TechnicalIndicators;
+import com.quant.model.IndicatorRegistry;
 import com.quant.model.StockData;
 
 import java.util.List;
@@ -52,6 +54,11 @@ public class VolatilityTargetStrategy extends AbstractStrategy {
     // 年化因子（假设252个交易日）
     private static final double ANNUALIZATION_FACTOR = Math.sqrt(252);
     
+    // 指标槽位
+    private static final int REALIZED_VOL_SLOT = IndicatorRegistry.slotOf("REALIZED_VOL");
+    private static final int TARGET_WEIGHT_SLOT = IndicatorRegistry.slotOf("TARGET_WEIGHT");
+    private static final int POSITION_WEIGHT_SLOT = IndicatorRegistry.slotOf("POSITION_WEIGHT");
+    
     /**
      * 构造函数（使用默认参数）
      */
@@ -111,9 +118,9 @@ public class VolatilityTargetStrategy extends AbstractStrategy {
         // 而是使用动态仓位权重，这里设置signal=1表示持仓
         for (int i = volatilityPeriod; i < dataList.size(); i++) {
             StockData data = dataList.get(i);
-            Double weight = data.getIndicator("TARGET_WEIGHT");
+            double weight = data.getIndicatorValue(TARGET_WEIGHT_SLOT);
             
-            if (weight != null && weight > 0) {
+            if (weight > 0) {
                 data.setSignal(1);  // 持仓信号
             } else {
                 data.setSignal(0);
@@ -131,34 +138,22 @@ public class VolatilityTargetStrategy extends AbstractStrategy {
      * 第 i 天的仓位使用第 i-1 天的波动率计算（因为第 i 天收盘才知道第 i 天的收益）
      */
     private void calculateRollingVolatility(List<StockData> dataList) {
+        // 滑动窗口均值/方差，每根K线 O(1)
+        RollingMoments moments = new RollingMoments(volatilityPeriod);
+        for (int i = 0; i < volatilityPeriod && i < dataList.size(); i++) {
+            moments.add(dataList.get(i).getDailyReturn());
+        }
+        
         for (int i = volatilityPeriod; i < dataList.size(); i++) {
-            // 计算过去 N 天的波动率（使用 i-1 之前的数据，避免前瞻偏差）
-            double sumSquares = 0;
-            double sum = 0;
-            int count = 0;
-            
-            // 使用 [i-volatilityPeriod, i-1] 的收益率计算波动率
-            for (int j = i - volatilityPeriod; j < i; j++) {
-                double ret = dataList.get(j).getDailyReturn();
-                sum += ret;
-                count++;
-            }
-            
-            double mean = count > 0 ? sum / count : 0;
-            
-            for (int j = i - volatilityPeriod; j < i; j++) {
-                double ret = dataList.get(j).getDailyReturn();
-                sumSquares += Math.pow(ret - mean, 2);
-            }
-            
-            // 日波动率（标准差）
-            double dailyVol = count > 1 ? Math.sqrt(sumSquares / (count - 1)) : 0;
+            // 日波动率：[i-volatilityPeriod, i-1] 收益率的样本标准差（避免前瞻偏差），之后再加入第 i 天
+            double dailyVol = moments.getSampleStd();
+            moments.add(dataList.get(i).getDailyReturn());
             
             // 年化波动率
             double annualizedVol = dailyVol * ANNUALIZATION_FACTOR;
             
             // 存储当前波动率
-            dataList.get(i).setIndicator("REALIZED_VOL", annualizedVol);
+            dataList.get(i).setIndicatorValue(REALIZED_VOL_SLOT, annualizedVol);
             
             // 计算目标仓位权重
             double targetWeight;
@@ -172,7 +167,7 @@ public class VolatilityTargetStrategy extends AbstractStrategy {
             targetWeight = Math.max(minWeight, Math.min(maxWeight, targetWeight));
             
             // 存储目标仓位
-            dataList.get(i).setIndicator("TARGET_WEIGHT", targetWeight);
+            dataList.get(i).setIndicatorValue(TARGET_WEIGHT_SLOT, targetWeight);
             
             logger.debug("日期={}: 实际波动率={}%, 目标仓位={}", 
                     dataList.get(i).getDate(), 
@@ -181,6 +176,12 @@ public class VolatilityTargetStrategy extends AbstractStrategy {
         }
     }
     
+    @Override
+    protected double getPositionWeight(StockData data) {
+        double weight = data.getIndicatorValue(POSITION_WEIGHT_SLOT);
+        return !Double.isNaN(weight) ? weight : 0;
+    }
+    
     /**
      * 重写回测方法，支持动态仓位
      */
@@ -190,7 +191,7 @@ public class VolatilityTargetStrategy extends AbstractStrategy {
             throw new IllegalArgumentException("数据列表不能为空");
         }
         
-        double cumulativeReturn = 1.0;
+        double[] strategyReturns = new double[dataList.size()];
         double prevWeight = 0;
         int tradeCount = 0;
         
@@ -199,12 +200,12 @@ public class VolatilityTargetStrategy extends AbstractStrategy {
             StockData data = dataList.get(i);
             
             // 获取目标仓位权重
-            Double targetWeight = data.getIndicator("TARGET_WEIGHT");
-            double currentWeight = targetWeight != null ? targetWeight : 0;
+            double targetWeight = data.getIndicatorValue(TARGET_WEIGHT_SLOT);
+            double currentWeight = !Double.isNaN(targetWeight) ? targetWeight : 0;
             
             // 存储当前仓位（用于报告）
             data.setPosition(currentWeight > 0 ? 1 : 0);
-            data.setIndicator("POSITION_WEIGHT", currentWeight);
+            data.setIndicatorValue(POSITION_WEIGHT_SLOT, currentWeight);
             
             // 计算策略收益
             if (i > 0) {
@@ -229,15 +230,13 @@ public class VolatilityTargetStrategy extends AbstractStrategy {
                 }
                 
                 data.setStrategyReturn(strategyReturn);
-                cumulativeReturn *= (1 + strategyReturn);
+                strategyReturns[i] = strategyReturn;
             }
             
-            data.setCumulativeReturn(cumulativeReturn);
-            data.setPortfolioValue(initialCapital * cumulativeReturn);
-            
             // 更新前一权重
             prevWeight = currentWeight;
         }
+        writeEquity(dataList, strategyReturns, initialCapital);
         
         // 输出回测摘要
         StockData lastData = dataList.get(dataList.size() - 1);
@@ -0,0 +1,126 @@
+package com.quant.indicator;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD 批量内核 (jdk.incubator.vector)
+ * 只在 simd 构建配置下编译（JDK 21），由 {@link BulkKernels#getDefault()} 在运行时按需加载
+ * 
+ * 元素之间互不依赖的运算（收益率、真实波幅、交叉比较、前缀和相减）按向量宽度一次处理多根K线，
+ * 不足一个向量宽度的尾部和不能精确定点表示的输入使用 {@link ScalarBulkKernels} 的标量路径；
+ * 前缀和与复利净值是逐根依赖的递推，按标量顺序计算，保证结果与标量实现逐位相同
+ */
+public class VectorBulkKernels extends ScalarBulkKernels {
+    
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    private static final int LANES = DOUBLES.length();
+    
+    @Override
+    public String getName() {
+        return "simd (" + LANES + " x double)";
+    }
+    
+    @Override
+    public void returns(double[] close, int n, double[] out) {
+        if (n == 0) {
+            return;
+        }
+        out[0] = 0;
+        int i = 1;
+        for (; i + LANES <= n; i += LANES) {
+            DoubleVector previous = DoubleVector.fromArray(DOUBLES, close, i - 1);
+            DoubleVector current = DoubleVector.fromArray(DOUBLES, close, i);
+            current.sub(previous).div(previous).intoArray(out, i);
+        }
+        for (; i < n; i++) {
+            out[i] = (close[i] - close[i - 1]) / close[i - 1];
+        }
+    }
+    
+    @Override
+    public void sma(double[] in, int n, int period, double[] out) {
+        ExactPrefix prefix = ExactPrefix.of(in, n, period);
+        if (prefix == null || LONGS.length() != LANES) {
+            super.sma(in, n, period, out);
+            return;
+        }
+        double divisor = prefix.smaDivisor(period);
+        long[] sums = prefix.sums;
+        int start = Math.min(period - 1, n);
+        IndicatorKernels.fillNaN(out, start);
+        
+        int i = start;
+        for (; i + LANES <= n; i += LANES) {
+            LongVector sum = LongVector.fromArray(LONGS, sums, i + 1)
+                    .sub(LongVector.fromArray(LONGS, sums, i + 1 - period));
+            ((DoubleVector) sum.convert(VectorOperators.L2D, 0)).div(divisor).intoArray(out, i);
+        }
+        for (; i < n; i++) {
+            out[i] = (sums[i + 1] - sums[i + 1 - period]) / divisor;
+        }
+    }
+    
+    @Override
+    public void trueRange(double[] high, double[] low, double[] close, int n, double[] out) {
+        if (n == 0) {
+            return;
+        }
+        out[0] = Math.abs(high[0] - low[0]);
+        int i = 1;
+        for (; i + LANES <= n; i += LANES) {
+            DoubleVector h = DoubleVector.fromArray(DOUBLES, high, i);
+            DoubleVector l = DoubleVector.fromArray(DOUBLES, low, i);
+            DoubleVector prevClose = DoubleVector.fromArray(DOUBLES, close, i - 1);
+            DoubleVector range = h.sub(l).abs();
+            DoubleVector gap = h.sub(prevClose).abs().max(prevClose.sub(l).abs());
+            range.max(gap).intoArray(out, i);
+        }
+        for (; i < n; i++) {
+            double prevClose = close[i - 1];
+            double range = Math.abs(high[i] - low[i]);
+            out[i] = Math.max(range, Math.max(Math.abs(high[i] - prevClose), Math.abs(prevClose - low[i])));
+        }
+    }
+    
+    @Override
+    public int crossovers(double[] fast, double[] slow, int n, int[] out) {
+        if (n == 0) {
+            return 0;
+        }
+        out[0] = 0;
+        int count = 0;
+        int i = 1;
+        for (; i + LANES <= n; i += LANES) {
+            DoubleVector prevFast = DoubleVector.fromArray(DOUBLES, fast, i - 1);
+            DoubleVector prevSlow = DoubleVector.fromArray(DOUBLES, slow, i - 1);
+            DoubleVector currFast = DoubleVector.fromArray(DOUBLES, fast, i);
+            DoubleVector currSlow = DoubleVector.fromArray(DOUBLES, slow, i);
+            VectorMask<Double> up = prevFast.compare(VectorOperators.LE, prevSlow)
+                    .and(currFast.compare(VectorOperators.GT, currSlow));
+            VectorMask<Double> down = prevFast.compare(VectorOperators.GE, prevSlow)
+                    .and(currFast.compare(VectorOperators.LT, currSlow));
+            if (!up.anyTrue() && !down.anyTrue()) {
+                for (int k = 0; k < LANES; k++) {
+                    out[i + k] = 0;
+                }
+                continue;
+            }
+            for (int k = 0; k < LANES; k++) {
+                out[i + k] = up.laneIsSet(k) ? 1 : down.laneIsSet(k) ? -1 : 0;
+            }
+            count += up.trueCount() + down.trueCount();
+        }
+        for (; i < n; i++) {
+            out[i] = crossover(fast[i - 1], slow[i - 1], fast[i], slow[i]);
+            if (out[i] != 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+}